@@ -0,0 +1,66 @@
+package com.schooldashboard.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.schooldashboard.config.CalendarProperties;
+import com.schooldashboard.config.StaleWhileRevalidateProperties;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** Parses a feed with a long history of past events and a few upcoming ones, in both parser modes. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CalendarParseBenchmark {
+
+	private static final Instant NOW = Instant.parse("2025-06-01T12:00:00Z");
+	private static final DateTimeFormatter DATE = DateTimeFormatter.BASIC_ISO_DATE;
+
+	@Param({"100", "2000"})
+	public int pastEvents;
+
+	@Param({"FULL", "STREAMING"})
+	public CalendarProperties.ParserMode mode;
+
+	private CalendarService service;
+	private String ics;
+
+	@Setup
+	public void setup() {
+		CalendarProperties properties = new CalendarProperties();
+		properties.setParserMode(mode);
+		service = new CalendarService(properties, null, null, new ObjectMapper(),
+				new StaleWhileRevalidate(new StaleWhileRevalidateProperties()));
+
+		StringBuilder feed = new StringBuilder("BEGIN:VCALENDAR\r\nVERSION:2.0\r\nPRODID:-//Bench//EN\r\n");
+		LocalDate first = LocalDate.of(2025, 6, 1).minusDays(pastEvents);
+		for (int i = 0; i < pastEvents + 20; i++) {
+			LocalDate day = first.plusDays(i);
+			feed.append("BEGIN:VEVENT\r\nUID:event-").append(i).append("\r\nDTSTART:").append(day.format(DATE))
+					.append("T080000Z\r\nDTEND:").append(day.format(DATE))
+					.append("T090000Z\r\nSUMMARY:Termin ").append(i)
+					.append("\r\nDESCRIPTION:Beschreibung des Termins\r\nLOCATION:Aula\r\nEND:VEVENT\r\n");
+		}
+		ics = feed.append("END:VCALENDAR\r\n").toString();
+	}
+
+	@Benchmark
+	public CalendarEventIndex parseFeed() {
+		return service.parseFeed(ics, NOW);
+	}
+}
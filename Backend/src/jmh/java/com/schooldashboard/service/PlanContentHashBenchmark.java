@@ -0,0 +1,42 @@
+package com.schooldashboard.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** Hashes the raw HTML of a plan page before it is persisted. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PlanContentHashBenchmark {
+
+	@Param({"10", "100", "500", "2000"})
+	public int rows;
+
+	private SubstitutionPlanPersistenceService persistenceService;
+	private String rawHtml;
+
+	@Setup
+	public void setup() {
+		persistenceService = new SubstitutionPlanPersistenceService(null);
+		rawHtml = new String(UntisPages.page(rows), StandardCharsets.ISO_8859_1);
+	}
+
+	@Benchmark
+	public String hashContent() {
+		return persistenceService.hashContent(rawHtml);
+	}
+}
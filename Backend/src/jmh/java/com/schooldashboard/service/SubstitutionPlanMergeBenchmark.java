@@ -0,0 +1,61 @@
+package com.schooldashboard.service;
+
+import com.schooldashboard.model.SubstitutionPlan;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Combines the pages of one day into a single plan the same way
+ * {@link SubstitutionPlanService#updateSubstitutionPlans()} does. Consecutive
+ * pages repeat half of their news items, as multi-page Untis exports do.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SubstitutionPlanMergeBenchmark {
+
+	@Param({"10", "100", "500", "2000"})
+	public int rowsPerPage;
+
+	@Param({"3", "8"})
+	public int pages;
+
+	@Param({"20", "500"})
+	public int newsPerPage;
+
+	private List<SubstitutionPlan> pagePlans;
+
+	@Setup
+	public void setup() {
+		pagePlans = new ArrayList<>(pages);
+		for (int i = 0; i < pages; i++) {
+			pagePlans.add(UntisPages.plan(rowsPerPage, newsPerPage, i * newsPerPage / 2));
+		}
+	}
+
+	@Benchmark
+	public SubstitutionPlan merge() {
+		SubstitutionPlan combinedPlan = SubstitutionPlanService.copyPlan(pagePlans.get(0), rowsPerPage * pages);
+		for (int i = 1; i < pagePlans.size(); i++) {
+			SubstitutionPlan plan = pagePlans.get(i);
+			combinedPlan.getEntries().addAll(plan.getEntries());
+			SubstitutionPlanService.mergeNews(combinedPlan, plan);
+		}
+		return combinedPlan;
+	}
+}
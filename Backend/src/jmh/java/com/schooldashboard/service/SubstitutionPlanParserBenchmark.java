@@ -0,0 +1,47 @@
+package com.schooldashboard.service;
+
+import com.schooldashboard.config.SubstitutionParserProperties;
+import com.schooldashboard.model.ParsedPlanDocument;
+import com.schooldashboard.model.RawPlanPage;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** Parses one downloaded plan page, in both parser modes, for pages of growing size. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SubstitutionPlanParserBenchmark {
+
+	@Param({"10", "100", "500", "2000"})
+	public int rows;
+
+	@Param({"DOM", "STREAMING"})
+	public SubstitutionParserProperties.Mode mode;
+
+	private SubstitutionPlanParserService parser;
+	private RawPlanPage page;
+
+	@Setup
+	public void setup() {
+		parser = UntisPages.parser(mode);
+		page = new RawPlanPage("https://dsbmobile.de/data/subst_001.htm", UntisPages.page(rows), null);
+	}
+
+	@Benchmark
+	public ParsedPlanDocument parsePlanDocument() {
+		return parser.parsePlanDocument(page);
+	}
+}
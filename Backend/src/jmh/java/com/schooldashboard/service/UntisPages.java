@@ -0,0 +1,74 @@
+package com.schooldashboard.service;
+
+import com.schooldashboard.config.SubstitutionParserProperties;
+import com.schooldashboard.config.SubstitutionRefreshProperties;
+import com.schooldashboard.model.DailyNews;
+import com.schooldashboard.model.SubstitutionEntry;
+import com.schooldashboard.model.SubstitutionPlan;
+import java.nio.charset.StandardCharsets;
+
+/** Generates Untis "Vertretungsplan" pages and plans shaped like the ones served by DSB. */
+final class UntisPages {
+
+	private static final String[] CLASSES = {"5a", "5b", "6c", "7a, 7b", "8d", "9a", "10c", "Q1", "Q2", "Q3"};
+	private static final String[] SUBJECTS = {"De", "Ma", "En", "Bio", "Ch", "Ph", "Ge", "Ek", "Mu", "Sp"};
+	private static final String[] TYPES = {"Vertretung", "Entfall", "Raum-Vtr.", "Statt-Vertretung", "Betreuung"};
+
+	private UntisPages() {
+	}
+
+	/** A complete page with header, news block and {@code rows} substitution rows, ISO-8859-1 encoded. */
+	static byte[] page(int rows) {
+		StringBuilder html = new StringBuilder(512 + rows * 420);
+		html.append("<html><head><meta http-equiv=\"Content-Type\" content=\"text/html; charset=iso-8859-1\">")
+				.append("<title>Untis 2024</title></head><body><center><div class=\"mon_head\">")
+				.append("<table class=\"mon_head\"><tr><td>Gymnasium Musterstadt</td></tr></table></div>")
+				.append("<div class=\"mon_title\">18.3.2024 Montag, Woche A</div>")
+				.append("<table class=\"info\"><tr class=\"info\"><th class=\"info\" colspan=\"2\">")
+				.append("Nachrichten zum Tag</th></tr>")
+				.append("<tr class=\"info\"><td class=\"info\" colspan=\"2\">Unterrichtsfrei 7.-8. Std.</td></tr>")
+				.append("<tr class=\"info\"><td class=\"info\" colspan=\"2\">Die Sportflächen sind gesperrt.</td></tr>")
+				.append("</table><p><table class=\"mon_list\"><tr class=\"list\">")
+				.append("<th class=\"list\">Klasse(n)</th><th class=\"list\">Stunde</th>")
+				.append("<th class=\"list\">Vertreter</th><th class=\"list\">(Fach)</th><th class=\"list\">Fach</th>")
+				.append("<th class=\"list\">Raum</th><th class=\"list\">Art</th><th class=\"list\">Bemerkung</th></tr>");
+		for (int i = 0; i < rows; i++) {
+			html.append("<tr class=\"list ").append(i % 2 == 0 ? "odd" : "even").append("\">")
+					.append("<td class=\"list\" align=\"center\"><b>").append(CLASSES[i % CLASSES.length])
+					.append("</b></td><td class=\"list\" align=\"center\">").append(1 + i % 8)
+					.append("</td><td class=\"list\" align=\"center\"><span style=\"color: #010101\">Mül")
+					.append(i % 37).append("</span></td><td class=\"list\" align=\"center\">")
+					.append(SUBJECTS[i % SUBJECTS.length]).append("</td><td class=\"list\" align=\"center\">")
+					.append(SUBJECTS[(i + 3) % SUBJECTS.length]).append("</td><td class=\"list\" align=\"center\">")
+					.append("B").append(100 + i % 60).append("</td><td class=\"list\" align=\"center\">")
+					.append(TYPES[i % TYPES.length]).append("</td><td class=\"list\">")
+					.append(i % 3 == 0 ? "Aufgaben im Kursraum" : "&nbsp;").append("</td></tr>");
+		}
+		html.append("</table></p><p>Untis Stundenplan Software</p></center></body></html>");
+		return html.toString().getBytes(StandardCharsets.ISO_8859_1);
+	}
+
+	/** A parsed page plan with {@code rows} entries and {@code newsItems} news items. */
+	static SubstitutionPlan plan(int rows, int newsItems, int newsOffset) {
+		SubstitutionPlan plan = new SubstitutionPlan("18.3.2024 Montag, Woche A", "Seite 1 / 3");
+		for (int i = 0; i < rows; i++) {
+			SubstitutionEntry entry = new SubstitutionEntry();
+			entry.setClasses(CLASSES[i % CLASSES.length]);
+			entry.setPeriod(Integer.toString(1 + i % 8));
+			entry.setSubject(SUBJECTS[i % SUBJECTS.length]);
+			entry.setType(TYPES[i % TYPES.length]);
+			plan.addEntry(entry);
+		}
+		DailyNews news = plan.getNews();
+		for (int i = 0; i < newsItems; i++) {
+			news.addNewsItem("Nachricht " + (newsOffset + i));
+		}
+		return plan;
+	}
+
+	static SubstitutionPlanParserService parser(SubstitutionParserProperties.Mode mode) {
+		SubstitutionParserProperties properties = new SubstitutionParserProperties();
+		properties.setMode(mode);
+		return new SubstitutionPlanParserService(new PlanPageClient(new SubstitutionRefreshProperties()), properties);
+	}
+}
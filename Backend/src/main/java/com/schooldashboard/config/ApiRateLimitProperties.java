@@ -0,0 +1,106 @@
+package com.schooldashboard.config;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "api.rate-limit")
+public class ApiRateLimitProperties {
+
+	private int readsPerMinute = 600;
+	private Store store = Store.MEMORY;
+	private Strategy strategy = Strategy.SLIDING_WINDOW;
+	private Duration flushInterval = Duration.ofMillis(250);
+	private List<String> trustedProxies = new ArrayList<>(List.of("127.0.0.0/8", "::1", "10.0.0.0/8",
+			"172.16.0.0/12", "192.168.0.0/16", "fc00::/7"));
+
+	/** Requests per client and minute to each of the substitution, calendar and DSB APIs. */
+	public int getReadsPerMinute() {
+		return readsPerMinute;
+	}
+
+	public void setReadsPerMinute(int readsPerMinute) {
+		if (readsPerMinute <= 0) {
+			throw new IllegalArgumentException("api.rate-limit.reads-per-minute must be greater than 0");
+		}
+		this.readsPerMinute = readsPerMinute;
+	}
+
+	public Store getStore() {
+		return store;
+	}
+
+	public void setStore(Store store) {
+		if (store == null) {
+			throw new IllegalArgumentException("api.rate-limit.store must not be null");
+		}
+		this.store = store;
+	}
+
+	/**
+	 * How the {@link Store#MEMORY memory store} counts requests. Applies to every
+	 * limit: display, survey and API.
+	 */
+	public Strategy getStrategy() {
+		return strategy;
+	}
+
+	public void setStrategy(Strategy strategy) {
+		if (strategy == null) {
+			throw new IllegalArgumentException("api.rate-limit.strategy must not be null");
+		}
+		this.strategy = strategy;
+	}
+
+	/** How often the {@link Store#JDBC JDBC store} writes its local increments and reads the shared counts. */
+	public Duration getFlushInterval() {
+		return flushInterval;
+	}
+
+	public void setFlushInterval(Duration flushInterval) {
+		if (flushInterval == null || flushInterval.toMillis() <= 0) {
+			throw new IllegalArgumentException("api.rate-limit.flush-interval must be greater than 0");
+		}
+		this.flushInterval = flushInterval;
+	}
+
+	/**
+	 * Addresses or CIDR ranges of the proxies in front of the backend, such as
+	 * the frontend server. Only their {@code X-Forwarded-For} is used to identify
+	 * clients; defaults to loopback and private networks.
+	 */
+	public List<String> getTrustedProxies() {
+		return trustedProxies;
+	}
+
+	public void setTrustedProxies(List<String> trustedProxies) {
+		if (trustedProxies == null) {
+			throw new IllegalArgumentException("api.rate-limit.trusted-proxies must not be null");
+		}
+		this.trustedProxies = trustedProxies;
+	}
+
+	/** Where request counters are kept. */
+	public enum Store {
+		/** Per instance, using {@code api.rate-limit.strategy}. */
+		MEMORY,
+		/** Fixed-window counters in the database, shared by all instances. */
+		JDBC
+	}
+
+	/** How {@code InMemoryRateLimitStore} counts requests against a limit. */
+	public enum Strategy {
+		/**
+		 * Generic cell rate algorithm: one timestamp per key, allowing the full limit
+		 * as a burst and then one request per {@code window / limit}. Unlike the
+		 * sliding window, a client that used up its limit gets single requests back
+		 * before the window has passed.
+		 */
+		TOKEN_BUCKET,
+		/** Remembers every accepted request and allows {@code limit} in any window. */
+		SLIDING_WINDOW
+	}
+}
@@ -0,0 +1,40 @@
+package com.schooldashboard.config;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "api-response-cache")
+public class ApiResponseCacheProperties {
+
+	private int memoryMaxEntries = 64;
+	private Duration memoryTtl = Duration.ofMinutes(1);
+
+	/** Number of cache keys kept in memory in front of the database table. */
+	public int getMemoryMaxEntries() {
+		return memoryMaxEntries;
+	}
+
+	public void setMemoryMaxEntries(int memoryMaxEntries) {
+		if (memoryMaxEntries <= 0) {
+			throw new IllegalArgumentException("api-response-cache.memory-max-entries must be greater than 0");
+		}
+		this.memoryMaxEntries = memoryMaxEntries;
+	}
+
+	/**
+	 * How long an entry is trusted from memory. Older entries are read from the
+	 * database again, so responses stored by other instances are picked up.
+	 */
+	public Duration getMemoryTtl() {
+		return memoryTtl;
+	}
+
+	public void setMemoryTtl(Duration memoryTtl) {
+		if (memoryTtl == null || memoryTtl.isZero() || memoryTtl.isNegative()) {
+			throw new IllegalArgumentException("api-response-cache.memory-ttl must be positive");
+		}
+		this.memoryTtl = memoryTtl;
+	}
+}
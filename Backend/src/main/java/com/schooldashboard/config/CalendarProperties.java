@@ -1,5 +1,8 @@
 package com.schooldashboard.config;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
 
@@ -8,6 +11,11 @@ import org.springframework.stereotype.Component;
 public class CalendarProperties {
 
 	private String icsUrl;
+	private List<String> icsUrls = new ArrayList<>();
+	private List<Duration> refreshIntervals = new ArrayList<>();
+	private Duration refreshInterval = Duration.ofMinutes(15);
+	private ParserMode parserMode = ParserMode.FULL;
+	private Duration expansionHorizon = Duration.ofDays(180);
 
 	public String getIcsUrl() {
 		return icsUrl;
@@ -16,4 +24,96 @@ public class CalendarProperties {
 	public void setIcsUrl(String icsUrl) {
 		this.icsUrl = icsUrl;
 	}
+
+	public List<String> getIcsUrls() {
+		return icsUrls;
+	}
+
+	public void setIcsUrls(List<String> icsUrls) {
+		this.icsUrls = icsUrls == null ? new ArrayList<>() : new ArrayList<>(icsUrls);
+	}
+
+	/**
+	 * Refresh intervals of the {@link #getIcsUrls() ICS URLs} by position. Feeds
+	 * without an entry use {@link #getRefreshInterval()}.
+	 */
+	public List<Duration> getRefreshIntervals() {
+		return refreshIntervals;
+	}
+
+	public void setRefreshIntervals(List<Duration> refreshIntervals) {
+		List<Duration> intervals = refreshIntervals == null ? new ArrayList<>() : new ArrayList<>(refreshIntervals);
+		for (Duration interval : intervals) {
+			if (interval == null || interval.isZero() || interval.isNegative()) {
+				throw new IllegalArgumentException("calendar.refresh-intervals must be positive");
+			}
+		}
+		this.refreshIntervals = intervals;
+	}
+
+	/**
+	 * Returns the configured feeds: {@code calendar.ics-url} first, then
+	 * {@code calendar.ics-urls}. Blank entries are skipped.
+	 */
+	public List<Feed> getFeeds() {
+		List<Feed> feeds = new ArrayList<>();
+		if (icsUrl != null && !icsUrl.isBlank()) {
+			feeds.add(new Feed(icsUrl, refreshInterval));
+		}
+		for (int i = 0; i < icsUrls.size(); i++) {
+			String url = icsUrls.get(i);
+			if (url != null && !url.isBlank()) {
+				feeds.add(new Feed(url, i < refreshIntervals.size() ? refreshIntervals.get(i) : refreshInterval));
+			}
+		}
+		return feeds;
+	}
+
+	public Duration getRefreshInterval() {
+		return refreshInterval;
+	}
+
+	public void setRefreshInterval(Duration refreshInterval) {
+		if (refreshInterval == null || refreshInterval.isZero() || refreshInterval.isNegative()) {
+			throw new IllegalArgumentException("calendar.refresh-interval must be positive");
+		}
+		this.refreshInterval = refreshInterval;
+	}
+
+	public ParserMode getParserMode() {
+		return parserMode;
+	}
+
+	public void setParserMode(ParserMode parserMode) {
+		if (parserMode == null) {
+			throw new IllegalArgumentException("calendar.parser-mode must not be null");
+		}
+		this.parserMode = parserMode;
+	}
+
+	public Duration getExpansionHorizon() {
+		return expansionHorizon;
+	}
+
+	public void setExpansionHorizon(Duration expansionHorizon) {
+		if (expansionHorizon == null || expansionHorizon.isZero() || expansionHorizon.isNegative()) {
+			throw new IllegalArgumentException("calendar.expansion-horizon must be positive");
+		}
+		this.expansionHorizon = expansionHorizon;
+	}
+
+	/** One ICS feed and how often it is downloaded. */
+	public record Feed(String url, Duration refreshInterval) {
+	}
+
+	/** How a downloaded ICS feed is handed to ical4j. */
+	public enum ParserMode {
+		/** Builds the object model of the whole feed. */
+		FULL,
+		/**
+		 * Scans VEVENT blocks line by line first and only parses upcoming and
+		 * recurring events.
+		 */
+		STREAMING
+	}
 }
@@ -0,0 +1,61 @@
+package com.schooldashboard.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+import java.util.Collections;
+import java.util.List;
+import org.springframework.security.web.util.matcher.IpAddressMatcher;
+import org.springframework.stereotype.Component;
+
+/**
+ * Identifies the client behind a request, e.g. for rate limits.
+ * {@code X-Forwarded-For} is only believed when the request comes from one of
+ * {@code api.rate-limit.trusted-proxies}; the header is then read from the
+ * right, and the first address that is not a trusted proxy is the client.
+ */
+@Component
+public class ClientKeyResolver {
+
+	private final List<IpAddressMatcher> trustedProxies;
+
+	public ClientKeyResolver(ApiRateLimitProperties properties) {
+		this.trustedProxies = properties.getTrustedProxies().stream().map(IpAddressMatcher::new).toList();
+	}
+
+	public String resolve(HttpServletRequest request) {
+		String remoteAddr = request.getRemoteAddr();
+		if (remoteAddr == null || remoteAddr.isBlank()) {
+			return "unknown";
+		}
+		if (!isTrustedProxy(remoteAddr)) {
+			return remoteAddr;
+		}
+
+		String[] forwardedFor = String.join(",", Collections.list(request.getHeaders("X-Forwarded-For"))).split(",");
+		String client = remoteAddr;
+		for (int i = forwardedFor.length - 1; i >= 0; i--) {
+			String address = forwardedFor[i].trim();
+			if (address.isEmpty()) {
+				continue;
+			}
+			client = address;
+			if (!isTrustedProxy(address)) {
+				break;
+			}
+		}
+		return client;
+	}
+
+	private boolean isTrustedProxy(String address) {
+		for (IpAddressMatcher trustedProxy : trustedProxies) {
+			try {
+				if (trustedProxy.matches(address)) {
+					return true;
+				}
+			} catch (IllegalArgumentException ex) {
+				// Not an IP address, e.g. "unknown" or an obfuscated identifier
+				return false;
+			}
+		}
+		return false;
+	}
+}
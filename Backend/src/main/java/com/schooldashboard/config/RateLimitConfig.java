@@ -0,0 +1,67 @@
+package com.schooldashboard.config;
+
+import com.schooldashboard.config.RateLimitFilter.Policy;
+import com.schooldashboard.display.config.DisplayRateLimitProperties;
+import com.schooldashboard.display.service.InMemoryRateLimitStore;
+import com.schooldashboard.display.service.JdbcRateLimitStore;
+import com.schooldashboard.display.service.RateLimitStore;
+import com.schooldashboard.display.service.RequestRateLimiter;
+import com.schooldashboard.display.web.DisplayErrorResponse;
+import com.schooldashboard.survey.config.SurveyRateLimitProperties;
+import com.schooldashboard.survey.web.SurveyErrorResponse;
+import java.util.List;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.security.autoconfigure.web.servlet.SecurityFilterProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
+import org.springframework.jdbc.core.JdbcTemplate;
+import tools.jackson.databind.json.JsonMapper;
+
+@Configuration
+public class RateLimitConfig {
+
+	private static final String RATE_LIMIT_MESSAGE = "Too many requests. Please retry shortly.";
+
+	@Bean
+	public RateLimitStore rateLimitStore(ApiRateLimitProperties apiLimits, ObjectProvider<JdbcTemplate> jdbcTemplate) {
+		if (apiLimits.getStore() == ApiRateLimitProperties.Store.JDBC) {
+			return new JdbcRateLimitStore(jdbcTemplate.getObject(), apiLimits.getFlushInterval());
+		}
+		return new InMemoryRateLimitStore(apiLimits.getStrategy());
+	}
+
+	@Bean
+	public FilterRegistrationBean<RateLimitFilter> rateLimitFilter(RequestRateLimiter rateLimiter,
+			ClientKeyResolver clientKeyResolver, DisplayRateLimitProperties displayLimits, SurveyRateLimitProperties surveyLimits,
+			ApiRateLimitProperties apiLimits, JsonMapper jsonMapper) {
+		// First matching policy wins; the read APIs have no error type of their own and answer like the display API
+		List<Policy> policies = List.of(
+				Policy.of("display-enrollment", HttpMethod.POST, "/api/displays/enrollments",
+						displayLimits::getEnrollmentsPerMinute, "RATE_LIMIT_EXCEEDED", RATE_LIMIT_MESSAGE,
+						DisplayErrorResponse::new),
+				Policy.of("display-session-validation", HttpMethod.GET, "/api/displays/session",
+						displayLimits::getSessionValidationsPerMinute, "RATE_LIMIT_EXCEEDED", RATE_LIMIT_MESSAGE,
+						DisplayErrorResponse::new),
+				Policy.of("display-heartbeat", HttpMethod.POST, "/api/displays/heartbeat",
+						displayLimits::getSessionValidationsPerMinute, "RATE_LIMIT_EXCEEDED", RATE_LIMIT_MESSAGE,
+						DisplayErrorResponse::new),
+				Policy.of("survey-submission", HttpMethod.POST, "/api/surveys/submissions",
+						surveyLimits::getSubmissionsPerMinute, "SURVEY_RATE_LIMIT_EXCEEDED",
+						"Too many survey submissions. Please retry shortly.", SurveyErrorResponse::new),
+				Policy.of("substitution", HttpMethod.GET, "/api/substitution/**", apiLimits::getReadsPerMinute,
+						"RATE_LIMIT_EXCEEDED", RATE_LIMIT_MESSAGE, DisplayErrorResponse::new),
+				Policy.of("calendar", HttpMethod.GET, "/api/calendar/**", apiLimits::getReadsPerMinute,
+						"RATE_LIMIT_EXCEEDED", RATE_LIMIT_MESSAGE, DisplayErrorResponse::new),
+				Policy.of("dsb", HttpMethod.GET, "/api/dsb/**", apiLimits::getReadsPerMinute, "RATE_LIMIT_EXCEEDED",
+						RATE_LIMIT_MESSAGE, DisplayErrorResponse::new));
+
+		FilterRegistrationBean<RateLimitFilter> registration = new FilterRegistrationBean<>(
+				new RateLimitFilter(rateLimiter, clientKeyResolver, policies, jsonMapper));
+		registration.addUrlPatterns("/api/*");
+		// Ahead of the Spring Security filter chain
+		registration.setOrder(SecurityFilterProperties.DEFAULT_FILTER_ORDER - 10);
+		return registration;
+	}
+}
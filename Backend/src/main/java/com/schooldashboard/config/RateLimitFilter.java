@@ -0,0 +1,118 @@
+package com.schooldashboard.config;
+
+import com.schooldashboard.display.service.RequestRateLimiter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.IntSupplier;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.PathContainer;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * Applies per-route request limits before Spring Security and Spring MVC see
+ * the request, so limited requests are rejected without reading the body.
+ * Every limited route reports its state in {@code RateLimit-Limit},
+ * {@code RateLimit-Remaining} and {@code RateLimit-Reset}; rejected requests
+ * also get {@code Retry-After}.
+ */
+public class RateLimitFilter extends OncePerRequestFilter {
+
+	private static final Duration WINDOW = Duration.ofMinutes(1);
+
+	private final RequestRateLimiter rateLimiter;
+	private final ClientKeyResolver clientKeyResolver;
+	private final List<Policy> policies;
+	private final JsonMapper jsonMapper;
+
+	public RateLimitFilter(RequestRateLimiter rateLimiter, ClientKeyResolver clientKeyResolver, List<Policy> policies,
+			JsonMapper jsonMapper) {
+		this.rateLimiter = rateLimiter;
+		this.clientKeyResolver = clientKeyResolver;
+		this.policies = List.copyOf(policies);
+		this.jsonMapper = jsonMapper;
+	}
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+			throws ServletException, IOException {
+		Policy policy = resolvePolicy(request);
+		if (policy == null) {
+			filterChain.doFilter(request, response);
+			return;
+		}
+
+		RequestRateLimiter.Decision decision = rateLimiter.acquire(policy.name(), clientKeyResolver.resolve(request),
+				Math.max(1, policy.limitPerMinute().getAsInt()), WINDOW);
+		response.setHeader("RateLimit-Limit", Integer.toString(decision.limit()));
+		response.setHeader("RateLimit-Remaining", Integer.toString(decision.remaining()));
+		response.setHeader("RateLimit-Reset", Long.toString(decision.resetSeconds()));
+		if (decision.allowed()) {
+			filterChain.doFilter(request, response);
+			return;
+		}
+
+		response.setHeader("Retry-After", Long.toString(decision.retryAfterSeconds()));
+		response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+		response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+		jsonMapper.writeValue(response.getOutputStream(), policy.errorBody().create(policy.errorCode(),
+				policy.message(), resolveRequestId(request), Instant.now()));
+	}
+
+	private Policy resolvePolicy(HttpServletRequest request) {
+		PathContainer path = PathContainer
+				.parsePath(request.getRequestURI().substring(request.getContextPath().length()));
+		for (Policy policy : policies) {
+			if (policy.matches(request.getMethod(), path)) {
+				return policy;
+			}
+		}
+		return null;
+	}
+
+	private String resolveRequestId(HttpServletRequest request) {
+		String requestId = request.getHeader("X-Request-Id");
+		if (requestId == null || requestId.isBlank()) {
+			return UUID.randomUUID().toString();
+		}
+		return requestId;
+	}
+
+	/**
+	 * A limit for requests matching {@code method} (any method if {@code null})
+	 * and {@code pattern}. The limit is read per request, so it follows the
+	 * properties it comes from. Rejections are answered with the error response
+	 * type of the API the route belongs to.
+	 */
+	public record Policy(String name, HttpMethod method, PathPattern pattern, IntSupplier limitPerMinute,
+			String errorCode, String message, ErrorBody errorBody) {
+
+		public static Policy of(String name, HttpMethod method, String pattern, IntSupplier limitPerMinute,
+				String errorCode, String message, ErrorBody errorBody) {
+			return new Policy(name, method, PathPatternParser.defaultInstance.parse(pattern), limitPerMinute,
+					errorCode, message, errorBody);
+		}
+
+		private boolean matches(String requestMethod, PathContainer path) {
+			return (method == null || method.matches(requestMethod)) && pattern.matches(path);
+		}
+	}
+
+	/** Creates the body of a rejected request, e.g. {@code DisplayErrorResponse::new}. */
+	@FunctionalInterface
+	public interface ErrorBody {
+
+		Object create(String code, String message, String requestId, Instant timestamp);
+	}
+}
@@ -0,0 +1,51 @@
+package com.schooldashboard.config;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Soft TTLs of the snapshots behind the public read endpoints. A request for a
+ * snapshot older than its soft TTL is still answered from it, marked as stale,
+ * and starts a refresh in the background.
+ */
+@Component
+@ConfigurationProperties(prefix = "stale-while-revalidate")
+public class StaleWhileRevalidateProperties {
+
+	private Duration substitutionSoftTtl = Duration.ofMinutes(10);
+	private Duration dsbSoftTtl = Duration.ofMinutes(10);
+	private Duration calendarSoftTtl = Duration.ofMinutes(30);
+
+	public Duration getSubstitutionSoftTtl() {
+		return substitutionSoftTtl;
+	}
+
+	public void setSubstitutionSoftTtl(Duration substitutionSoftTtl) {
+		this.substitutionSoftTtl = requirePositive(substitutionSoftTtl, "substitution-soft-ttl");
+	}
+
+	public Duration getDsbSoftTtl() {
+		return dsbSoftTtl;
+	}
+
+	public void setDsbSoftTtl(Duration dsbSoftTtl) {
+		this.dsbSoftTtl = requirePositive(dsbSoftTtl, "dsb-soft-ttl");
+	}
+
+	/** Soft TTL of a calendar feed; feeds with a longer refresh interval use that interval instead. */
+	public Duration getCalendarSoftTtl() {
+		return calendarSoftTtl;
+	}
+
+	public void setCalendarSoftTtl(Duration calendarSoftTtl) {
+		this.calendarSoftTtl = requirePositive(calendarSoftTtl, "calendar-soft-ttl");
+	}
+
+	private static Duration requirePositive(Duration value, String name) {
+		if (value == null || value.isZero() || value.isNegative()) {
+			throw new IllegalArgumentException("stale-while-revalidate." + name + " must be positive");
+		}
+		return value;
+	}
+}
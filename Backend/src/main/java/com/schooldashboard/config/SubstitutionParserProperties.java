@@ -0,0 +1,33 @@
+package com.schooldashboard.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "substitution.parser")
+public class SubstitutionParserProperties {
+
+	private Mode mode = Mode.DOM;
+
+	public Mode getMode() {
+		return mode;
+	}
+
+	public void setMode(Mode mode) {
+		if (mode == null) {
+			throw new IllegalArgumentException("substitution.parser.mode must not be null");
+		}
+		this.mode = mode;
+	}
+
+	/** How downloaded plan pages are turned into {@code SubstitutionPlan}s. */
+	public enum Mode {
+		/** Builds the full jsoup document and queries it with selectors. */
+		DOM,
+		/**
+		 * Tokenizes the page once and converts substitution rows as soon as they are
+		 * closed, dropping them from the document afterwards.
+		 */
+		STREAMING
+	}
+}
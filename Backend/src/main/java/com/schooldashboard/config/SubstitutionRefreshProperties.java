@@ -0,0 +1,47 @@
+package com.schooldashboard.config;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "substitution.refresh")
+public class SubstitutionRefreshProperties {
+
+	private int maxParallelFetches = 4;
+	private Duration pageTimeout = Duration.ofSeconds(20);
+	private Duration connectTimeout = Duration.ofSeconds(5);
+
+	public int getMaxParallelFetches() {
+		return maxParallelFetches;
+	}
+
+	public void setMaxParallelFetches(int maxParallelFetches) {
+		if (maxParallelFetches <= 0) {
+			throw new IllegalArgumentException("substitution.refresh.max-parallel-fetches must be greater than 0");
+		}
+		this.maxParallelFetches = maxParallelFetches;
+	}
+
+	public Duration getPageTimeout() {
+		return pageTimeout;
+	}
+
+	public void setPageTimeout(Duration pageTimeout) {
+		if (pageTimeout == null || pageTimeout.isZero() || pageTimeout.isNegative()) {
+			throw new IllegalArgumentException("substitution.refresh.page-timeout must be positive");
+		}
+		this.pageTimeout = pageTimeout;
+	}
+
+	public Duration getConnectTimeout() {
+		return connectTimeout;
+	}
+
+	public void setConnectTimeout(Duration connectTimeout) {
+		if (connectTimeout == null || connectTimeout.isZero() || connectTimeout.isNegative()) {
+			throw new IllegalArgumentException("substitution.refresh.connect-timeout must be positive");
+		}
+		this.connectTimeout = connectTimeout;
+	}
+}
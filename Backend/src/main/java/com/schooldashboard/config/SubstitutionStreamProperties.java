@@ -0,0 +1,45 @@
+package com.schooldashboard.config;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "substitution.stream")
+public class SubstitutionStreamProperties {
+
+	private Duration heartbeatInterval = Duration.ofSeconds(25);
+	private Duration timeout = Duration.ofMinutes(30);
+	private Duration reconnectDelay = Duration.ofSeconds(5);
+
+	public Duration getHeartbeatInterval() {
+		return heartbeatInterval;
+	}
+
+	public void setHeartbeatInterval(Duration heartbeatInterval) {
+		this.heartbeatInterval = requirePositive(heartbeatInterval, "substitution.stream.heartbeat-interval");
+	}
+
+	public Duration getTimeout() {
+		return timeout;
+	}
+
+	public void setTimeout(Duration timeout) {
+		this.timeout = requirePositive(timeout, "substitution.stream.timeout");
+	}
+
+	public Duration getReconnectDelay() {
+		return reconnectDelay;
+	}
+
+	public void setReconnectDelay(Duration reconnectDelay) {
+		this.reconnectDelay = requirePositive(reconnectDelay, "substitution.stream.reconnect-delay");
+	}
+
+	private static Duration requirePositive(Duration value, String property) {
+		if (value == null || value.isZero() || value.isNegative()) {
+			throw new IllegalArgumentException(property + " must be positive");
+		}
+		return value;
+	}
+}
@@ -4,9 +4,11 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.schooldashboard.model.CalendarEvent;
 import com.schooldashboard.service.ApiResponseCacheKeys;
 import com.schooldashboard.service.ApiResponseCacheService;
 import com.schooldashboard.service.CalendarService;
+import java.util.List;
 import java.util.Optional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -41,13 +43,15 @@ public class CalendarController {
 			return ResponseEntity.badRequest().body("Limit must be between 1 and 100");
 		}
 		try {
-			return ResponseEntity.ok(calendarService.getUpcomingEvents(limit));
+			List<CalendarEvent> events = calendarService.getUpcomingEvents(limit);
+			return StalenessHeaders.apply(ResponseEntity.ok(), calendarService.getFreshness()).body(events);
 		} catch (Exception e) {
 			logger.warn("Failed to fetch calendar events", e);
 			Optional<String> cached = cacheService.getRawJson(ApiResponseCacheKeys.CALENDAR_EVENTS);
 			if (cached.isPresent()) {
 				String limitedJson = limitCachedEvents(cached.get(), limit);
-				return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(limitedJson);
+				return StalenessHeaders.fallback(ResponseEntity.ok()).contentType(MediaType.APPLICATION_JSON)
+						.body(limitedJson);
 			}
 			if (e instanceof IllegalStateException && e.getMessage() != null
 					&& e.getMessage().contains("not configured")) {
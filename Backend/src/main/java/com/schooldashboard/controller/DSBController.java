@@ -3,6 +3,8 @@ package com.schooldashboard.controller;
 import com.schooldashboard.service.ApiResponseCacheKeys;
 import com.schooldashboard.service.ApiResponseCacheService;
 import com.schooldashboard.service.DSBService;
+import com.schooldashboard.util.DSBMobile.TimeTable;
+import java.util.List;
 import java.util.Optional;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -25,11 +27,13 @@ public class DSBController {
 	@GetMapping("/timetables")
 	public ResponseEntity<?> getTimeTables() {
 		try {
-			return ResponseEntity.ok(dsbService.getTimeTables());
+			List<TimeTable> timeTables = dsbService.getTimeTables();
+			return StalenessHeaders.apply(ResponseEntity.ok(), dsbService.getFreshness()).body(timeTables);
 		} catch (Exception e) {
 			Optional<String> cached = cacheService.getRawJson(ApiResponseCacheKeys.DSB_TIMETABLES);
 			if (cached.isPresent()) {
-				return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(cached.get());
+				return StalenessHeaders.fallback(ResponseEntity.ok()).contentType(MediaType.APPLICATION_JSON)
+						.body(cached.get());
 			}
 			return ResponseEntity.badRequest().body("Error fetching timetables: " + e.getMessage());
 		}
@@ -38,7 +42,8 @@ public class DSBController {
 	@GetMapping("/news")
 	public ResponseEntity<?> getNews() {
 		try {
-			return ResponseEntity.ok(dsbService.getNews());
+			Object news = dsbService.getNews();
+			return StalenessHeaders.apply(ResponseEntity.ok(), dsbService.getFreshness()).body(news);
 		} catch (Exception e) {
 			return ResponseEntity.badRequest().body("Error fetching news: " + e.getMessage());
 		}
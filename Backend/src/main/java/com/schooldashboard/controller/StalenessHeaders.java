@@ -0,0 +1,47 @@
+package com.schooldashboard.controller;
+
+import com.schooldashboard.service.Freshness;
+import java.time.Duration;
+import java.time.Instant;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+
+/**
+ * Adds {@code Age} and {@code X-Data-Status} headers to responses served from
+ * a snapshot, so clients can tell how old the data is.
+ */
+final class StalenessHeaders {
+
+	static final String DATA_STATUS = "X-Data-Status";
+	static final String STALE = "stale";
+	static final String REVALIDATION_FAILED = "revalidation-failed";
+
+	private StalenessHeaders() {
+	}
+
+	/** Adds the age of the snapshot and, once it is past its soft TTL, marks it stale. */
+	static ResponseEntity.BodyBuilder apply(ResponseEntity.BodyBuilder response, Freshness freshness) {
+		if (freshness == null) {
+			return response;
+		}
+		Instant now = Instant.now();
+		Duration age = freshness.age(now);
+		if (age != null) {
+			response.header(HttpHeaders.AGE, Long.toString(age.toSeconds()));
+		}
+		if (freshness.isStale(now)) {
+			response.header(DATA_STATUS, STALE);
+		}
+		return response;
+	}
+
+	/** Marks a response served from the database copy before the first refresh, whose age is unknown. */
+	static ResponseEntity.BodyBuilder stale(ResponseEntity.BodyBuilder response) {
+		return response.header(DATA_STATUS, STALE);
+	}
+
+	/** Marks a response served from the database copy because the live data could not be loaded. */
+	static ResponseEntity.BodyBuilder fallback(ResponseEntity.BodyBuilder response) {
+		return response.header(DATA_STATUS, REVALIDATION_FAILED);
+	}
+}
@@ -3,12 +3,19 @@ package com.schooldashboard.controller;
 import com.schooldashboard.service.ApiResponseCacheKeys;
 import com.schooldashboard.service.ApiResponseCacheService;
 import com.schooldashboard.service.SubstitutionPlanService;
+import com.schooldashboard.service.SubstitutionPlanSnapshot;
+import com.schooldashboard.service.SubstitutionPlanSnapshot.Encoding;
+import com.schooldashboard.util.ContentHash;
 import java.util.List;
 import java.util.Optional;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 @RestController
@@ -25,22 +32,65 @@ public class SubstitutionController {
 	}
 
 	@GetMapping("/plans")
-	public ResponseEntity<?> getSubstitutionPlans() {
+	public ResponseEntity<?> getSubstitutionPlans(
+			@RequestHeader(name = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+			@RequestParam(name = "class", required = false) String className,
+			@RequestParam(required = false) String teacher, @RequestParam(required = false) String room) {
+		if (hasText(className) || hasText(teacher) || hasText(room)) {
+			return getFilteredSubstitutionPlans(className, teacher, room);
+		}
 		try {
-			List<?> plans = substitutionPlanService.getSubstitutionPlans();
-			if (plans == null || plans.isEmpty()) {
+			SubstitutionPlanSnapshot snapshot = substitutionPlanService.getSnapshot();
+			if (snapshot == null || snapshot.isEmpty()) {
 				Optional<String> cached = cacheService.getRawJson(ApiResponseCacheKeys.SUBSTITUTION_PLANS);
 				if (cached.isPresent()) {
-					return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(cached.get());
+					return StalenessHeaders.stale(ResponseEntity.ok()).contentType(MediaType.APPLICATION_JSON)
+							.body(cached.get());
 				}
+				return ResponseEntity.ok(List.of());
+			}
+			// The body is a prepared byte array; a matching If-None-Match is answered
+			// with 304 before anything is written
+			Encoding encoding = Encoding.negotiate(acceptEncoding);
+			ResponseEntity.BodyBuilder response = StalenessHeaders
+					.apply(ResponseEntity.ok(), substitutionPlanService.getFreshness())
+					.contentType(MediaType.APPLICATION_JSON).cacheControl(CacheControl.noCache())
+					.varyBy(HttpHeaders.ACCEPT_ENCODING).eTag(snapshot.eTag(encoding));
+			if (encoding != Encoding.IDENTITY) {
+				response.header(HttpHeaders.CONTENT_ENCODING, encoding.token());
 			}
-			return ResponseEntity.ok(plans);
+			return response.body(snapshot.body(encoding));
 		} catch (Exception e) {
 			Optional<String> cached = cacheService.getRawJson(ApiResponseCacheKeys.SUBSTITUTION_PLANS);
 			if (cached.isPresent()) {
-				return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(cached.get());
+				return StalenessHeaders.fallback(ResponseEntity.ok()).contentType(MediaType.APPLICATION_JSON)
+						.body(cached.get());
 			}
 			return ResponseEntity.badRequest().body("Error fetching substitution plans: " + e.getMessage());
 		}
 	}
+
+	private ResponseEntity<?> getFilteredSubstitutionPlans(String className, String teacher, String room) {
+		try {
+			SubstitutionPlanSnapshot snapshot = substitutionPlanService.getSnapshot();
+			ResponseEntity.BodyBuilder response = StalenessHeaders
+					.apply(ResponseEntity.ok(), substitutionPlanService.getFreshness())
+					.cacheControl(CacheControl.noCache());
+			if (snapshot == null || snapshot.isEmpty()) {
+				return response.body(substitutionPlanService.findSubstitutionPlans(className, teacher, room));
+			}
+			// Body and ETag both come from this snapshot, so a concurrent refresh cannot
+			// pair one with the other
+			String query = String.join("\n", String.valueOf(className), String.valueOf(teacher),
+					String.valueOf(room));
+			return response.eTag(snapshot.getContentHash() + "-" + ContentHash.sha256Hex(query).substring(0, 16))
+					.body(snapshot.getIndex().filter(className, teacher, room));
+		} catch (Exception e) {
+			return ResponseEntity.badRequest().body("Error fetching substitution plans: " + e.getMessage());
+		}
+	}
+
+	private static boolean hasText(String value) {
+		return value != null && !value.isBlank();
+	}
 }
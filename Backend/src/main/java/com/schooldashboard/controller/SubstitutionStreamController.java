@@ -0,0 +1,30 @@
+package com.schooldashboard.controller;
+
+import com.schooldashboard.service.SubstitutionPlanStreamService;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@RestController
+@RequestMapping("/api/substitution")
+public class SubstitutionStreamController {
+
+	private final SubstitutionPlanStreamService streamService;
+
+	public SubstitutionStreamController(SubstitutionPlanStreamService streamService) {
+		this.streamService = streamService;
+	}
+
+	@GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+	public SseEmitter streamSubstitutionPlans(
+			@RequestHeader(name = "Last-Event-ID", required = false) String lastEventId,
+			HttpServletResponse response) {
+		// Reverse proxies must pass events through instead of buffering the response
+		response.setHeader("X-Accel-Buffering", "no");
+		return streamService.subscribe(lastEventId);
+	}
+}
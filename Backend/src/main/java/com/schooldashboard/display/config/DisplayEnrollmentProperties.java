@@ -22,6 +22,12 @@ public class DisplayEnrollmentProperties {
 	private int pollAfterSeconds = 5;
 	@Min(1)
 	private int defaultCodeMaxUses = 5;
+	@Min(1)
+	private int sessionCacheMaxEntries = 1024;
+	@Min(1)
+	private int sessionCacheTtlSeconds = 300;
+	@Min(1)
+	private int lastSeenFlushSeconds = 30;
 
 	public int getCodeLength() {
 		return codeLength;
@@ -70,4 +76,28 @@ public class DisplayEnrollmentProperties {
 	public void setDefaultCodeMaxUses(int defaultCodeMaxUses) {
 		this.defaultCodeMaxUses = defaultCodeMaxUses;
 	}
+
+	public int getSessionCacheMaxEntries() {
+		return sessionCacheMaxEntries;
+	}
+
+	public void setSessionCacheMaxEntries(int sessionCacheMaxEntries) {
+		this.sessionCacheMaxEntries = sessionCacheMaxEntries;
+	}
+
+	public int getSessionCacheTtlSeconds() {
+		return sessionCacheTtlSeconds;
+	}
+
+	public void setSessionCacheTtlSeconds(int sessionCacheTtlSeconds) {
+		this.sessionCacheTtlSeconds = sessionCacheTtlSeconds;
+	}
+
+	public int getLastSeenFlushSeconds() {
+		return lastSeenFlushSeconds;
+	}
+
+	public void setLastSeenFlushSeconds(int lastSeenFlushSeconds) {
+		this.lastSeenFlushSeconds = lastSeenFlushSeconds;
+	}
 }
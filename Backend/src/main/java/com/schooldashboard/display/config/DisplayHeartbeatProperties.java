@@ -0,0 +1,43 @@
+package com.schooldashboard.display.config;
+
+import jakarta.validation.constraints.Min;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.validation.annotation.Validated;
+
+@Component
+@ConfigurationProperties(prefix = "display.heartbeat")
+@Validated
+public class DisplayHeartbeatProperties {
+
+	@Min(1)
+	private int flushSeconds = 30;
+	@Min(1)
+	private int staleAfterSeconds = 180;
+	@Min(1)
+	private int offlineAfterSeconds = 900;
+
+	public int getFlushSeconds() {
+		return flushSeconds;
+	}
+
+	public void setFlushSeconds(int flushSeconds) {
+		this.flushSeconds = flushSeconds;
+	}
+
+	public int getStaleAfterSeconds() {
+		return staleAfterSeconds;
+	}
+
+	public void setStaleAfterSeconds(int staleAfterSeconds) {
+		this.staleAfterSeconds = staleAfterSeconds;
+	}
+
+	public int getOfflineAfterSeconds() {
+		return offlineAfterSeconds;
+	}
+
+	public void setOfflineAfterSeconds(int offlineAfterSeconds) {
+		this.offlineAfterSeconds = offlineAfterSeconds;
+	}
+}
@@ -4,6 +4,7 @@ import com.schooldashboard.display.dto.ApproveEnrollmentRequest;
 import com.schooldashboard.display.dto.AdminAuditLogResponse;
 import com.schooldashboard.display.dto.CreateEnrollmentCodeRequest;
 import com.schooldashboard.display.dto.CreateEnrollmentCodeResponse;
+import com.schooldashboard.display.dto.DisplayLivenessResponse;
 import com.schooldashboard.display.dto.DisplaySummaryResponse;
 import com.schooldashboard.display.dto.EnrollmentStatusResponse;
 import com.schooldashboard.display.dto.PendingEnrollmentResponse;
@@ -12,8 +13,10 @@ import com.schooldashboard.display.dto.UpdateDisplayRequest;
 import com.schooldashboard.display.entity.EnrollmentRequestStatus;
 import com.schooldashboard.display.service.AdminAuditLogService;
 import com.schooldashboard.display.service.DisplayEnrollmentService;
+import com.schooldashboard.display.service.DisplayHeartbeatService;
 import com.schooldashboard.display.web.DisplayDomainException;
 import jakarta.validation.Valid;
+import java.time.Instant;
 import java.util.List;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -35,11 +38,13 @@ public class AdminDisplayController {
 
 	private final DisplayEnrollmentService enrollmentService;
 	private final AdminAuditLogService adminAuditLogService;
+	private final DisplayHeartbeatService heartbeatService;
 
-	public AdminDisplayController(DisplayEnrollmentService enrollmentService,
-			AdminAuditLogService adminAuditLogService) {
+	public AdminDisplayController(DisplayEnrollmentService enrollmentService, AdminAuditLogService adminAuditLogService,
+			DisplayHeartbeatService heartbeatService) {
 		this.enrollmentService = enrollmentService;
 		this.adminAuditLogService = adminAuditLogService;
+		this.heartbeatService = heartbeatService;
 	}
 
 	@PostMapping("/enrollment-codes")
@@ -72,6 +77,11 @@ public class AdminDisplayController {
 		return enrollmentService.listDisplays();
 	}
 
+	@GetMapping("/liveness")
+	public List<DisplayLivenessResponse> listLiveness() {
+		return heartbeatService.liveness(Instant.now());
+	}
+
 	@GetMapping("/audit-logs")
 	public List<AdminAuditLogResponse> listAuditLogs(@RequestParam(name = "limit", defaultValue = "50") int limit) {
 		return adminAuditLogService.listRecent(limit);
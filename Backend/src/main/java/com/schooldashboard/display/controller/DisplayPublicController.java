@@ -1,17 +1,19 @@
 package com.schooldashboard.display.controller;
 
-import com.schooldashboard.display.config.DisplayRateLimitProperties;
 import com.schooldashboard.display.config.DisplayEnrollmentProperties;
 import com.schooldashboard.display.dto.CreateEnrollmentRequest;
 import com.schooldashboard.display.dto.CreateEnrollmentResponse;
+import com.schooldashboard.display.dto.DisplayHeartbeatRequest;
 import com.schooldashboard.display.dto.DisplaySessionValidationResponse;
 import com.schooldashboard.display.dto.EnrollmentStatusResponse;
 import com.schooldashboard.display.service.DisplayEnrollmentService;
-import com.schooldashboard.display.service.RequestRateLimiter;
+import com.schooldashboard.display.service.DisplayHeartbeatService;
 import com.schooldashboard.display.web.DisplayDomainException;
 import jakarta.servlet.http.Cookie;
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.Valid;
 import java.time.Duration;
+import java.time.Instant;
 import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -31,23 +33,18 @@ public class DisplayPublicController {
 	private static final String DISPLAY_SESSION_COOKIE_NAME = "DISPLAY_SESSION_TOKEN";
 
 	private final DisplayEnrollmentService enrollmentService;
-	private final RequestRateLimiter rateLimiter;
-	private final DisplayRateLimitProperties rateLimitProperties;
 	private final DisplayEnrollmentProperties enrollmentProperties;
+	private final DisplayHeartbeatService heartbeatService;
 
-	public DisplayPublicController(DisplayEnrollmentService enrollmentService, RequestRateLimiter rateLimiter,
-			DisplayRateLimitProperties rateLimitProperties, DisplayEnrollmentProperties enrollmentProperties) {
+	public DisplayPublicController(DisplayEnrollmentService enrollmentService,
+			DisplayEnrollmentProperties enrollmentProperties, DisplayHeartbeatService heartbeatService) {
 		this.enrollmentService = enrollmentService;
-		this.rateLimiter = rateLimiter;
-		this.rateLimitProperties = rateLimitProperties;
 		this.enrollmentProperties = enrollmentProperties;
+		this.heartbeatService = heartbeatService;
 	}
 
 	@PostMapping("/enrollments")
-	public ResponseEntity<CreateEnrollmentResponse> createEnrollment(@RequestBody CreateEnrollmentRequest request,
-			HttpServletRequest httpRequest) {
-		enforceRateLimit("display-enrollment", resolveClientKey(httpRequest),
-				rateLimitProperties.getEnrollmentsPerMinute());
+	public ResponseEntity<CreateEnrollmentResponse> createEnrollment(@RequestBody CreateEnrollmentRequest request) {
 		CreateEnrollmentResponse response = enrollmentService.createEnrollmentRequest(request);
 		return ResponseEntity.status(HttpStatus.CREATED).body(response);
 	}
@@ -67,8 +64,6 @@ public class DisplayPublicController {
 	@GetMapping("/session")
 	public ResponseEntity<DisplaySessionValidationResponse> validateSession(
 			@RequestHeader(name = "Authorization", required = false) String authorization, HttpServletRequest request) {
-		enforceRateLimit("display-session-validation", resolveClientKey(request),
-				rateLimitProperties.getSessionValidationsPerMinute());
 		String sessionToken = resolveSessionToken(authorization, request);
 		DisplaySessionValidationResponse response = enrollmentService.validateSession(sessionToken);
 		ResponseEntity.BodyBuilder responseBuilder = ResponseEntity.ok().cacheControl(CacheControl.noStore());
@@ -79,24 +74,26 @@ public class DisplayPublicController {
 		return responseBuilder.body(response);
 	}
 
+	@PostMapping("/heartbeat")
+	public ResponseEntity<Void> postHeartbeat(
+			@RequestHeader(name = "Authorization", required = false) String authorization,
+			@Valid @RequestBody(required = false) DisplayHeartbeatRequest heartbeat, HttpServletRequest request) {
+		DisplaySessionValidationResponse session = enrollmentService
+				.validateSession(resolveSessionToken(authorization, request));
+		if (!session.valid()) {
+			throw new DisplayDomainException("DISPLAY_SESSION_INVALID", HttpStatus.UNAUTHORIZED,
+					"Display session is invalid or revoked");
+		}
+		heartbeatService.record(session.displayId(), heartbeat, Instant.now());
+		return ResponseEntity.noContent().build();
+	}
+
 	private ResponseCookie buildDisplaySessionCookie(String sessionToken, boolean secureRequest) {
 		return ResponseCookie.from(DISPLAY_SESSION_COOKIE_NAME, sessionToken).httpOnly(true).secure(secureRequest)
 				.sameSite("Lax").path("/").maxAge(Duration.ofSeconds(enrollmentProperties.getSessionTtlSeconds()))
 				.build();
 	}
 
-	private String resolveClientKey(HttpServletRequest request) {
-		String forwardedFor = request.getHeader("X-Forwarded-For");
-		if (forwardedFor != null && !forwardedFor.isBlank()) {
-			int separatorIndex = forwardedFor.indexOf(',');
-			return separatorIndex > 0 ? forwardedFor.substring(0, separatorIndex).trim() : forwardedFor.trim();
-		}
-		if (request.getRemoteAddr() == null || request.getRemoteAddr().isBlank()) {
-			return "unknown";
-		}
-		return request.getRemoteAddr();
-	}
-
 	private String extractBearerToken(String authorizationHeader) {
 		if (authorizationHeader == null || authorizationHeader.isBlank()) {
 			return null;
@@ -123,12 +120,4 @@ public class DisplayPublicController {
 		}
 		return null;
 	}
-
-	private void enforceRateLimit(String bucketName, String key, int maxPerMinute) {
-		boolean allowed = rateLimiter.tryAcquire(bucketName, key, Math.max(1, maxPerMinute), Duration.ofMinutes(1));
-		if (!allowed) {
-			throw new DisplayDomainException("RATE_LIMIT_EXCEEDED", HttpStatus.TOO_MANY_REQUESTS,
-					"Too many requests. Please retry shortly.");
-		}
-	}
 }
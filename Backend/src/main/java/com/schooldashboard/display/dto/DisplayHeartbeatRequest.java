@@ -0,0 +1,8 @@
+package com.schooldashboard.display.dto;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.Size;
+
+public record DisplayHeartbeatRequest(@Size(max = 64) String appVersion, @Min(0) Long uptimeSeconds,
+		@Min(0) Integer renderTimeMs) {
+}
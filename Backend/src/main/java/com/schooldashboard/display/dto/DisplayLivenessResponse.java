@@ -0,0 +1,7 @@
+package com.schooldashboard.display.dto;
+
+import java.time.Instant;
+
+public record DisplayLivenessResponse(String displayId, String status, Instant lastHeartbeatAt,
+		Long secondsSinceHeartbeat, String appVersion, Long uptimeSeconds, Integer renderTimeMs) {
+}
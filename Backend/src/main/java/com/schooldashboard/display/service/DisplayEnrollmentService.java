@@ -25,6 +25,7 @@ import com.schooldashboard.display.repository.DisplayEnrollmentCodeRepository;
 import com.schooldashboard.display.repository.DisplayEnrollmentRequestRepository;
 import com.schooldashboard.display.repository.DisplayRepository;
 import com.schooldashboard.display.repository.DisplaySessionRepository;
+import com.schooldashboard.display.service.DisplaySessionCache.CachedSession;
 import com.schooldashboard.display.web.DisplayDomainException;
 import java.time.Instant;
 import java.util.Comparator;
@@ -58,12 +59,16 @@ public class DisplayEnrollmentService {
 	private final SlugService slugService;
 	private final AdminAuditLogService auditLogService;
 	private final ObjectMapper objectMapper;
+	private final DisplaySessionCache sessionCache;
+	private final DisplayLastSeenRecorder lastSeenRecorder;
+	private final DisplayHeartbeatService heartbeatService;
 
 	public DisplayEnrollmentService(DisplayEnrollmentCodeRepository enrollmentCodeRepository,
 			DisplayEnrollmentRequestRepository enrollmentRequestRepository, DisplayRepository displayRepository,
 			DisplaySessionRepository sessionRepository, DisplayEnrollmentProperties enrollmentProperties,
 			TokenHashService tokenHashService, RandomTokenService randomTokenService, SlugService slugService,
-			AdminAuditLogService auditLogService, ObjectMapper objectMapper) {
+			AdminAuditLogService auditLogService, ObjectMapper objectMapper, DisplaySessionCache sessionCache,
+			DisplayLastSeenRecorder lastSeenRecorder, DisplayHeartbeatService heartbeatService) {
 		this.enrollmentCodeRepository = enrollmentCodeRepository;
 		this.enrollmentRequestRepository = enrollmentRequestRepository;
 		this.displayRepository = displayRepository;
@@ -74,6 +79,9 @@ public class DisplayEnrollmentService {
 		this.slugService = slugService;
 		this.auditLogService = auditLogService;
 		this.objectMapper = objectMapper;
+		this.sessionCache = sessionCache;
+		this.lastSeenRecorder = lastSeenRecorder;
+		this.heartbeatService = heartbeatService;
 	}
 
 	@Transactional
@@ -195,6 +203,7 @@ public class DisplayEnrollmentService {
 				trimToNull(request == null ? null : request.locationLabel()),
 				trimToNull(request == null ? null : request.assignedProfileId()));
 		display = saveDisplayWithSlugRetry(display, resolvedDisplayName, requestedSlug);
+		heartbeatService.register(display.getId());
 
 		Instant now = Instant.now();
 		requestEntity.setStatus(EnrollmentRequestStatus.APPROVED);
@@ -239,40 +248,56 @@ public class DisplayEnrollmentService {
 		return new EnrollmentStatusResponse(requestEntity.getId(), requestEntity.getStatus().name(), null, null, null);
 	}
 
-	@Transactional
+	/**
+	 * Validates a display session token. Lookups are served from
+	 * {@link DisplaySessionCache} and {@code lastSeenAt} is written behind, so a
+	 * poll of an already known display does not touch the database.
+	 */
 	public DisplaySessionValidationResponse validateSession(String displaySessionToken) {
 		String token = trimToNull(displaySessionToken);
 		if (token == null) {
 			return invalidSessionResponse();
 		}
 
-		Optional<DisplaySessionEntity> sessionEntityOpt = sessionRepository
-				.findByTokenHash(tokenHashService.hash(token));
-		if (sessionEntityOpt.isEmpty()) {
-			return invalidSessionResponse();
+		String tokenHash = tokenHashService.hash(token);
+		Instant now = Instant.now();
+		CachedSession session = sessionCache.get(tokenHash, now);
+		if (session == null) {
+			long generation = sessionCache.generation();
+			session = loadSession(tokenHash, now);
+			if (session == null) {
+				return invalidSessionResponse();
+			}
+			sessionCache.put(tokenHash, session, generation);
 		}
 
-		DisplaySessionEntity sessionEntity = sessionEntityOpt.get();
-		if (sessionEntity.getRevokedAt() != null || sessionEntity.getExpiresAt().isBefore(Instant.now())) {
+		if (!session.isValidAt(now)) {
 			return invalidSessionResponse();
 		}
 
+		lastSeenRecorder.record(session.sessionId(), now);
+		logger.debug("Display session validated for displayId={}", session.displayId());
+
+		return new DisplaySessionValidationResponse(true, session.displayId(), session.slug(),
+				session.assignedProfileId(), session.themeId(), "/display/" + session.displayId());
+	}
+
+	private CachedSession loadSession(String tokenHash, Instant now) {
+		Optional<DisplaySessionEntity> sessionEntityOpt = sessionRepository.findByTokenHash(tokenHash);
+		if (sessionEntityOpt.isEmpty()) {
+			return null;
+		}
+
+		DisplaySessionEntity sessionEntity = sessionEntityOpt.get();
 		Optional<DisplayEntity> displayEntityOpt = displayRepository.findById(sessionEntity.getDisplayId());
 		if (displayEntityOpt.isEmpty()) {
-			return invalidSessionResponse();
+			return null;
 		}
 
 		DisplayEntity displayEntity = displayEntityOpt.get();
-		if (displayEntity.getStatus() != DisplayStatus.ACTIVE) {
-			return invalidSessionResponse();
-		}
-
-		sessionEntity.setLastSeenAt(Instant.now());
-		sessionRepository.save(sessionEntity);
-		logger.debug("Display session validated for displayId={}", displayEntity.getId());
-
-		return new DisplaySessionValidationResponse(true, displayEntity.getId(), displayEntity.getSlug(),
-				displayEntity.getAssignedProfileId(), displayEntity.getThemeId(), "/display/" + displayEntity.getId());
+		return new CachedSession(sessionEntity.getId(), displayEntity.getId(), sessionEntity.getExpiresAt(),
+				sessionEntity.getRevokedAt() != null, displayEntity.getStatus(), displayEntity.getSlug(),
+				displayEntity.getAssignedProfileId(), displayEntity.getThemeId(), now);
 	}
 
 	@Transactional
@@ -295,6 +320,7 @@ public class DisplayEnrollmentService {
 
 		displayEntity.setStatus(DisplayStatus.REVOKED);
 		displayRepository.save(displayEntity);
+		sessionCache.invalidateDisplay(displayId);
 
 		auditLogService.log(adminId, "DISPLAY_SESSION_REVOKED", "display", displayId,
 				Map.of("revokedSessions", revokedSessions));
@@ -345,6 +371,7 @@ public class DisplayEnrollmentService {
 		}
 
 		displayRepository.save(displayEntity);
+		sessionCache.invalidateDisplay(displayId);
 
 		Map<String, Object> auditMetadata = new HashMap<>();
 		auditMetadata.put("status", displayEntity.getStatus().name());
@@ -383,6 +410,8 @@ public class DisplayEnrollmentService {
 
 		sessionRepository.deleteByDisplayId(displayId);
 		displayRepository.delete(displayEntity);
+		sessionCache.invalidateDisplay(displayId);
+		heartbeatService.forget(displayId);
 
 		auditLogService.log(adminId, "DISPLAY_DELETED", "display", displayId,
 				Map.of("enrollmentRequestsUpdated", linkedRequests.size()));
@@ -0,0 +1,219 @@
+package com.schooldashboard.display.service;
+
+import com.schooldashboard.display.config.DisplayHeartbeatProperties;
+import com.schooldashboard.display.dto.DisplayHeartbeatRequest;
+import com.schooldashboard.display.dto.DisplayLivenessResponse;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Collects display heartbeats. The latest heartbeat per display is kept in
+ * memory together with the ids of all displays, which is what fleet liveness
+ * is computed from; changed heartbeats are upserted into
+ * {@code display_heartbeat} in one JDBC batch every
+ * {@code display.heartbeat.flush-seconds}.
+ */
+@Service
+public class DisplayHeartbeatService {
+
+	private static final Logger logger = LoggerFactory.getLogger(DisplayHeartbeatService.class);
+
+	// Both join display, which skips displays deleted since the heartbeat was received
+	private static final String POSTGRESQL_UPSERT = """
+			INSERT INTO display_heartbeat (display_id, received_at, app_version, uptime_seconds, render_time_ms)
+			SELECT d.id, CAST(? AS TIMESTAMP WITH TIME ZONE), CAST(? AS VARCHAR(64)), CAST(? AS BIGINT),
+				CAST(? AS INTEGER) FROM display d WHERE d.id = ?
+			ON CONFLICT (display_id) DO UPDATE SET received_at = EXCLUDED.received_at,
+				app_version = EXCLUDED.app_version, uptime_seconds = EXCLUDED.uptime_seconds,
+				render_time_ms = EXCLUDED.render_time_ms
+			WHERE display_heartbeat.received_at < EXCLUDED.received_at
+			""";
+	private static final String MERGE_UPSERT = """
+			MERGE INTO display_heartbeat h
+			USING (SELECT d.id AS display_id, CAST(? AS TIMESTAMP WITH TIME ZONE) AS received_at,
+				CAST(? AS VARCHAR(64)) AS app_version, CAST(? AS BIGINT) AS uptime_seconds,
+				CAST(? AS INTEGER) AS render_time_ms FROM display d WHERE d.id = ?) v
+			ON h.display_id = v.display_id
+			WHEN MATCHED AND h.received_at < v.received_at THEN UPDATE SET received_at = v.received_at,
+				app_version = v.app_version, uptime_seconds = v.uptime_seconds, render_time_ms = v.render_time_ms
+			WHEN NOT MATCHED THEN INSERT (display_id, received_at, app_version, uptime_seconds, render_time_ms)
+				VALUES (v.display_id, v.received_at, v.app_version, v.uptime_seconds, v.render_time_ms)
+			""";
+	private static final String SELECT_HEARTBEATS = "SELECT display_id, received_at, app_version, uptime_seconds,"
+			+ " render_time_ms FROM display_heartbeat";
+	private static final String SELECT_DISPLAY_IDS = "SELECT id FROM display";
+
+	private final JdbcTemplate jdbcTemplate;
+	private final DisplayHeartbeatProperties properties;
+	private final Map<String, Heartbeat> latest = new ConcurrentHashMap<>();
+	private final Map<String, Heartbeat> pending = new ConcurrentHashMap<>();
+	/** Every display liveness is reported for, including those that never sent a heartbeat. */
+	private volatile Set<String> displayIds = ConcurrentHashMap.newKeySet();
+	private volatile String upsertSql;
+
+	public DisplayHeartbeatService(JdbcTemplate jdbcTemplate, DisplayHeartbeatProperties properties) {
+		this.jdbcTemplate = jdbcTemplate;
+		this.properties = properties;
+	}
+
+	public void record(String displayId, DisplayHeartbeatRequest request, Instant receivedAt) {
+		Heartbeat heartbeat = new Heartbeat(displayId, receivedAt, request == null ? null : request.appVersion(),
+				request == null ? null : request.uptimeSeconds(), request == null ? null : request.renderTimeMs());
+		displayIds.add(displayId);
+		latest.merge(displayId, heartbeat, Heartbeat::newer);
+		pending.merge(displayId, heartbeat, Heartbeat::newer);
+	}
+
+	/** Lists a newly approved display, which is offline until its first heartbeat. */
+	public void register(String displayId) {
+		displayIds.add(displayId);
+	}
+
+	/** Drops the heartbeat of a deleted display; its row goes with the display. */
+	public void forget(String displayId) {
+		displayIds.remove(displayId);
+		latest.remove(displayId);
+		pending.remove(displayId);
+	}
+
+	/**
+	 * Liveness of every display, longest silent first. Displays that never sent a
+	 * heartbeat are reported as {@link Liveness#OFFLINE offline}.
+	 */
+	public List<DisplayLivenessResponse> liveness(Instant now) {
+		Duration staleAfter = Duration.ofSeconds(properties.getStaleAfterSeconds());
+		Duration offlineAfter = Duration.ofSeconds(properties.getOfflineAfterSeconds());
+		List<DisplayLivenessResponse> liveness = new ArrayList<>();
+		for (String displayId : displayIds) {
+			Heartbeat heartbeat = latest.get(displayId);
+			if (heartbeat == null) {
+				liveness.add(
+						new DisplayLivenessResponse(displayId, Liveness.OFFLINE.name(), null, null, null, null, null));
+				continue;
+			}
+			Duration silence = Duration.between(heartbeat.receivedAt(), now);
+			Liveness status = silence.compareTo(offlineAfter) > 0
+					? Liveness.OFFLINE
+					: silence.compareTo(staleAfter) > 0 ? Liveness.STALE : Liveness.ONLINE;
+			liveness.add(new DisplayLivenessResponse(displayId, status.name(), heartbeat.receivedAt(),
+					Math.max(0, silence.toSeconds()), heartbeat.appVersion(), heartbeat.uptimeSeconds(),
+					heartbeat.renderTimeMs()));
+		}
+		liveness.sort(Comparator.comparing(DisplayLivenessResponse::lastHeartbeatAt,
+				Comparator.nullsFirst(Comparator.naturalOrder())));
+		return liveness;
+	}
+
+	@Scheduled(initialDelayString = "${display.heartbeat.flush-seconds:30}",
+			fixedDelayString = "${display.heartbeat.flush-seconds:30}", timeUnit = TimeUnit.SECONDS)
+	public void flush() {
+		if (pending.isEmpty()) {
+			return;
+		}
+		List<Heartbeat> drained = new ArrayList<>();
+		for (String displayId : pending.keySet()) {
+			Heartbeat heartbeat = pending.remove(displayId);
+			if (heartbeat != null) {
+				drained.add(heartbeat);
+			}
+		}
+		if (drained.isEmpty()) {
+			return;
+		}
+
+		try {
+			List<Object[]> batch = new ArrayList<>(drained.size());
+			for (Heartbeat heartbeat : drained) {
+				batch.add(new Object[]{OffsetDateTime.ofInstant(heartbeat.receivedAt(), ZoneOffset.UTC),
+						heartbeat.appVersion(), heartbeat.uptimeSeconds(), heartbeat.renderTimeMs(),
+						heartbeat.displayId()});
+			}
+			jdbcTemplate.batchUpdate(upsertSql(), batch);
+			logger.debug("Flushed {} display heartbeats", drained.size());
+		} catch (DataAccessException ex) {
+			drained.forEach(heartbeat -> pending.merge(heartbeat.displayId(), heartbeat, Heartbeat::newer));
+			logger.warn("Failed to flush {} display heartbeats: {}", drained.size(), ex.getMessage());
+		}
+	}
+
+	/**
+	 * Re-reads the displays liveness is reported for, so displays approved or
+	 * deleted through another instance show up here as well.
+	 */
+	@Scheduled(initialDelayString = "${display.heartbeat.flush-seconds:30}",
+			fixedDelayString = "${display.heartbeat.flush-seconds:30}", timeUnit = TimeUnit.SECONDS)
+	public void refreshDisplays() {
+		try {
+			Set<String> ids = ConcurrentHashMap.newKeySet();
+			ids.addAll(jdbcTemplate.queryForList(SELECT_DISPLAY_IDS, String.class));
+			displayIds = ids;
+			latest.keySet().retainAll(ids);
+		} catch (DataAccessException ex) {
+			logger.warn("Failed to refresh the displays for liveness: {}", ex.getMessage());
+		}
+	}
+
+	/** Restores the displays and their last persisted heartbeats so liveness survives a restart. */
+	@EventListener(ApplicationReadyEvent.class)
+	public void loadPersisted() {
+		refreshDisplays();
+		try {
+			jdbcTemplate.query(SELECT_HEARTBEATS, rs -> {
+				Heartbeat heartbeat = new Heartbeat(rs.getString("display_id"),
+						rs.getObject("received_at", OffsetDateTime.class).toInstant(), rs.getString("app_version"),
+						rs.getObject("uptime_seconds", Long.class), rs.getObject("render_time_ms", Integer.class));
+				latest.merge(heartbeat.displayId(), heartbeat, Heartbeat::newer);
+			});
+		} catch (DataAccessException ex) {
+			logger.warn("Failed to load persisted display heartbeats: {}", ex.getMessage());
+		}
+	}
+
+	@PreDestroy
+	public void flushOnShutdown() {
+		flush();
+	}
+
+	private String upsertSql() {
+		String sql = upsertSql;
+		if (sql == null) {
+			String product = jdbcTemplate.execute(
+					(ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+			// H2 and other databases with standard MERGE
+			sql = "PostgreSQL".equalsIgnoreCase(product) ? POSTGRESQL_UPSERT : MERGE_UPSERT;
+			upsertSql = sql;
+		}
+		return sql;
+	}
+
+	public enum Liveness {
+		ONLINE, STALE, OFFLINE
+	}
+
+	private record Heartbeat(String displayId, Instant receivedAt, String appVersion, Long uptimeSeconds,
+			Integer renderTimeMs) {
+
+		private static Heartbeat newer(Heartbeat current, Heartbeat next) {
+			return next.receivedAt().isBefore(current.receivedAt()) ? current : next;
+		}
+	}
+}
@@ -0,0 +1,79 @@
+package com.schooldashboard.display.service;
+
+import jakarta.annotation.PreDestroy;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Write-behind for {@code display_session.last_seen_at}. Validations only
+ * record the time in memory; the latest time per session is written in one
+ * JDBC batch every {@code display.enrollment.last-seen-flush-seconds}.
+ */
+@Component
+public class DisplayLastSeenRecorder {
+
+	private static final Logger logger = LoggerFactory.getLogger(DisplayLastSeenRecorder.class);
+
+	// Never moves last_seen_at backwards or past the end of the session
+	private static final String UPDATE_LAST_SEEN = "UPDATE display_session SET last_seen_at = ? WHERE id = ?"
+			+ " AND expires_at >= ? AND (last_seen_at IS NULL OR last_seen_at < ?)";
+
+	private final JdbcTemplate jdbcTemplate;
+	private final Map<String, Instant> pending = new ConcurrentHashMap<>();
+
+	public DisplayLastSeenRecorder(JdbcTemplate jdbcTemplate) {
+		this.jdbcTemplate = jdbcTemplate;
+	}
+
+	public void record(String sessionId, Instant seenAt) {
+		pending.merge(sessionId, seenAt, (current, next) -> next.isAfter(current) ? next : current);
+	}
+
+	@Scheduled(initialDelayString = "${display.enrollment.last-seen-flush-seconds:30}",
+			fixedDelayString = "${display.enrollment.last-seen-flush-seconds:30}", timeUnit = TimeUnit.SECONDS)
+	public void flush() {
+		if (pending.isEmpty()) {
+			return;
+		}
+		List<Map.Entry<String, Instant>> drained = new ArrayList<>();
+		for (String sessionId : pending.keySet()) {
+			Instant seenAt = pending.remove(sessionId);
+			if (seenAt != null) {
+				drained.add(Map.entry(sessionId, seenAt));
+			}
+		}
+		if (drained.isEmpty()) {
+			return;
+		}
+
+		List<Object[]> batch = new ArrayList<>(drained.size());
+		for (Map.Entry<String, Instant> entry : drained) {
+			OffsetDateTime seenAt = OffsetDateTime.ofInstant(entry.getValue(), ZoneOffset.UTC);
+			batch.add(new Object[]{seenAt, entry.getKey(), seenAt, seenAt});
+		}
+		try {
+			jdbcTemplate.batchUpdate(UPDATE_LAST_SEEN, batch);
+			logger.debug("Flushed lastSeenAt for {} display sessions", batch.size());
+		} catch (DataAccessException ex) {
+			drained.forEach(entry -> record(entry.getKey(), entry.getValue()));
+			logger.warn("Failed to flush lastSeenAt for {} display sessions: {}", batch.size(), ex.getMessage());
+		}
+	}
+
+	@PreDestroy
+	public void flushOnShutdown() {
+		flush();
+	}
+}
@@ -0,0 +1,97 @@
+package com.schooldashboard.display.service;
+
+import com.schooldashboard.display.config.DisplayEnrollmentProperties;
+import com.schooldashboard.display.entity.DisplayStatus;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Bounded cache of display session lookups by token hash, so that display polls
+ * do not query the session and display tables. Admin changes to a display
+ * invalidate its entries; the TTL bounds how long changes made by another
+ * instance can go unnoticed.
+ */
+@Component
+public class DisplaySessionCache {
+
+	private final Map<String, CachedSession> sessions;
+	private final Duration ttl;
+	private long generation;
+
+	public DisplaySessionCache(DisplayEnrollmentProperties properties) {
+		int maxEntries = properties.getSessionCacheMaxEntries();
+		this.ttl = Duration.ofSeconds(properties.getSessionCacheTtlSeconds());
+		this.sessions = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, CachedSession> eldest) {
+				return size() > maxEntries;
+			}
+		});
+	}
+
+	/** Returns the cached lookup for {@code tokenHash}, or {@code null} if absent or older than the TTL. */
+	public CachedSession get(String tokenHash, Instant now) {
+		CachedSession cached = sessions.get(tokenHash);
+		if (cached == null || cached.cachedAt().plus(ttl).isBefore(now)) {
+			return null;
+		}
+		return cached;
+	}
+
+	/**
+	 * Token for {@link #put}; read it before loading a session so that a lookup
+	 * which raced with an invalidation is not cached.
+	 */
+	public long generation() {
+		synchronized (sessions) {
+			return generation;
+		}
+	}
+
+	public void put(String tokenHash, CachedSession session, long expectedGeneration) {
+		synchronized (sessions) {
+			if (generation == expectedGeneration) {
+				sessions.put(tokenHash, session);
+			}
+		}
+	}
+
+	/**
+	 * Drops all entries of {@code displayId}. Inside a transaction this is
+	 * repeated after commit, because a concurrent lookup may have cached the old
+	 * rows in between.
+	 */
+	public void invalidateDisplay(String displayId) {
+		evict(displayId);
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCompletion(int status) {
+					evict(displayId);
+				}
+			});
+		}
+	}
+
+	private void evict(String displayId) {
+		synchronized (sessions) {
+			generation++;
+			sessions.values().removeIf(session -> session.displayId().equals(displayId));
+		}
+	}
+
+	/** The parts of a session and its display that decide whether the session is valid. */
+	public record CachedSession(String sessionId, String displayId, Instant expiresAt, boolean revoked,
+			DisplayStatus displayStatus, String slug, String assignedProfileId, String themeId, Instant cachedAt) {
+
+		public boolean isValidAt(Instant now) {
+			return !revoked && !expiresAt.isBefore(now) && displayStatus == DisplayStatus.ACTIVE;
+		}
+	}
+}
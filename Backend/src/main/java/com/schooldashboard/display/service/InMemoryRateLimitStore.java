@@ -0,0 +1,161 @@
+package com.schooldashboard.display.service;
+
+import com.schooldashboard.config.ApiRateLimitProperties.Strategy;
+import com.schooldashboard.display.service.RequestRateLimiter.Decision;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Counters in this instance only. The {@link Strategy#TOKEN_BUCKET token
+ * bucket} keeps a single CAS-updated {@code long} per key; the
+ * {@link Strategy#SLIDING_WINDOW sliding window} keeps the time of every
+ * accepted request.
+ */
+public class InMemoryRateLimitStore implements RateLimitStore {
+
+	private final Limiter limiter;
+	private final LongSupplier nanoClock;
+
+	public InMemoryRateLimitStore(Strategy strategy) {
+		this(strategy, System::nanoTime);
+	}
+
+	InMemoryRateLimitStore(Strategy strategy, LongSupplier nanoClock) {
+		this.limiter = strategy == Strategy.SLIDING_WINDOW ? new SlidingWindows() : new TokenBuckets();
+		this.nanoClock = nanoClock;
+	}
+
+	@Override
+	public Decision acquire(RateLimitKey key, int maxRequests, Duration window) {
+		return limiter.acquire(key, maxRequests, window.toNanos(), nanoClock.getAsLong());
+	}
+
+	@Override
+	public void cleanup() {
+		limiter.cleanup(nanoClock.getAsLong());
+	}
+
+	private static long toSecondsCeil(long nanos) {
+		return nanos <= 0 ? 0 : (nanos - 1) / 1_000_000_000L + 1;
+	}
+
+	private interface Limiter {
+
+		Decision acquire(RateLimitKey bucketKey, int maxRequests, long windowNanos, long now);
+
+		void cleanup(long now);
+	}
+
+	/**
+	 * GCRA: each key stores its theoretical arrival time (TAT). A request moves
+	 * the TAT one emission interval ({@code window / maxRequests}) past
+	 * {@code max(TAT, now)} and is allowed while that stays within one window of
+	 * {@code now}. Times are {@link System#nanoTime()} values and are only
+	 * compared by subtraction.
+	 */
+	private static final class TokenBuckets implements Limiter {
+
+		private final Map<RateLimitKey, AtomicLong> arrivals = new ConcurrentHashMap<>();
+
+		@Override
+		public Decision acquire(RateLimitKey bucketKey, int maxRequests, long windowNanos, long now) {
+			long interval = Math.max(1, windowNanos / maxRequests);
+			AtomicLong arrival = arrivals.computeIfAbsent(bucketKey, unused -> new AtomicLong(now));
+			while (true) {
+				long stored = arrival.get();
+				long current = stored - now < 0 ? now : stored;
+				long next = current + interval;
+				if (next - now > windowNanos) {
+					return new Decision(false, maxRequests, 0, toSecondsCeil(current - now),
+							Math.max(1, toSecondsCeil(next - windowNanos - now)));
+				}
+				if (arrival.compareAndSet(stored, next)) {
+					int remaining = (int) Math.min(maxRequests, (windowNanos - (next - now)) / interval);
+					return new Decision(true, maxRequests, remaining, toSecondsCeil(next - now), 0);
+				}
+			}
+		}
+
+		@Override
+		public void cleanup(long now) {
+			// A TAT in the past means a full bucket, which is what a missing key means too
+			arrivals.values().removeIf(arrival -> arrival.get() - now <= 0);
+		}
+	}
+
+	/** Sliding log: a ring buffer with the times of the last accepted requests per key. */
+	private static final class SlidingWindows implements Limiter {
+
+		private final Map<RateLimitKey, Window> windows = new ConcurrentHashMap<>();
+
+		@Override
+		public Decision acquire(RateLimitKey bucketKey, int maxRequests, long windowNanos, long now) {
+			Decision[] decision = new Decision[1];
+			windows.compute(bucketKey, (unused, existing) -> {
+				Window window = existing == null ? new Window() : existing;
+				decision[0] = window.acquire(maxRequests, windowNanos, now);
+				return window;
+			});
+			return decision[0];
+		}
+
+		@Override
+		public void cleanup(long now) {
+			for (RateLimitKey bucketKey : windows.keySet()) {
+				windows.computeIfPresent(bucketKey, (unused, window) -> {
+					window.evictExpired(now);
+					return window.size == 0 ? null : window;
+				});
+			}
+		}
+	}
+
+	/** Guarded by the {@link ConcurrentHashMap#compute} of its key. */
+	private static final class Window {
+
+		private long[] times = new long[0];
+		private int head;
+		private int size;
+		private long windowNanos;
+
+		private Decision acquire(int maxRequests, long windowNanos, long now) {
+			this.windowNanos = windowNanos;
+			if (times.length != maxRequests) {
+				resize(maxRequests);
+			}
+			evictExpired(now);
+			boolean allowed = size < maxRequests;
+			if (allowed) {
+				times[(head + size) % times.length] = now;
+				size++;
+			}
+			// A time leaves the window once it is more than windowNanos old
+			long newest = times[(head + size - 1) % times.length];
+			long reset = toSecondsCeil(newest + windowNanos + 1 - now);
+			long retryAfter = allowed ? 0 : Math.max(1, toSecondsCeil(times[head] + windowNanos + 1 - now));
+			return new Decision(allowed, maxRequests, maxRequests - size, reset, retryAfter);
+		}
+
+		private void evictExpired(long now) {
+			while (size > 0 && now - times[head] > windowNanos) {
+				head = (head + 1) % times.length;
+				size--;
+			}
+		}
+
+		private void resize(int capacity) {
+			long[] resized = new long[capacity];
+			// Keep the newest times if the limit shrank
+			int kept = Math.min(size, capacity);
+			for (int i = 0; i < kept; i++) {
+				resized[i] = times[(head + size - kept + i) % times.length];
+			}
+			times = resized;
+			head = 0;
+			size = kept;
+		}
+	}
+}
@@ -0,0 +1,246 @@
+package com.schooldashboard.display.service;
+
+import com.schooldashboard.display.service.RequestRateLimiter.Decision;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Fixed-window counters in {@code rate_limit_counter}, shared by every instance
+ * using the same database. Requests are decided locally against the last shared
+ * count read plus this instance's increments that are not written yet. Every
+ * flush interval those increments go out as one upsert per key and window,
+ * followed by a query for the shared counts of the windows held here, so a
+ * limit can be overshot by what the other instances accepted since their last
+ * flush.
+ */
+public class JdbcRateLimitStore implements RateLimitStore {
+
+	private static final Logger logger = LoggerFactory.getLogger(JdbcRateLimitStore.class);
+
+	static final int MAX_BUCKET_NAME_LENGTH = 64;
+	static final int MAX_CLIENT_KEY_LENGTH = 128;
+	private static final int READ_CHUNK_SIZE = 100;
+	/** Pending value of a counter that was removed and must not be incremented. */
+	private static final long RETIRED = -1;
+
+	private static final String POSTGRESQL_UPSERT = """
+			INSERT INTO rate_limit_counter (bucket_name, client_key, window_start, request_count, expires_at)
+			VALUES (?, ?, ?, ?, ?)
+			ON CONFLICT (bucket_name, client_key, window_start)
+			DO UPDATE SET request_count = rate_limit_counter.request_count + EXCLUDED.request_count
+			""";
+	private static final String MERGE_UPSERT = """
+			MERGE INTO rate_limit_counter c
+			USING (VALUES (CAST(? AS VARCHAR(64)), CAST(? AS VARCHAR(128)), CAST(? AS TIMESTAMP WITH TIME ZONE),
+				CAST(? AS BIGINT), CAST(? AS TIMESTAMP WITH TIME ZONE)))
+				AS v (bucket_name, client_key, window_start, request_count, expires_at)
+			ON c.bucket_name = v.bucket_name AND c.client_key = v.client_key AND c.window_start = v.window_start
+			WHEN MATCHED THEN UPDATE SET request_count = c.request_count + v.request_count
+			WHEN NOT MATCHED THEN INSERT (bucket_name, client_key, window_start, request_count, expires_at)
+				VALUES (v.bucket_name, v.client_key, v.window_start, v.request_count, v.expires_at)
+			""";
+
+	private final JdbcTemplate jdbcTemplate;
+	private final LongSupplier clockMillis;
+	private final Map<WindowKey, Counter> counters = new ConcurrentHashMap<>();
+	private final ScheduledExecutorService flushExecutor;
+	private volatile String upsertSql;
+
+	public JdbcRateLimitStore(JdbcTemplate jdbcTemplate, Duration flushInterval) {
+		this.jdbcTemplate = jdbcTemplate;
+		this.clockMillis = System::currentTimeMillis;
+		this.flushExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "rate-limit-store-flusher");
+			thread.setDaemon(true);
+			return thread;
+		});
+		flushExecutor.scheduleWithFixedDelay(() -> {
+			try {
+				flush();
+			} catch (RuntimeException ex) {
+				// An exception escaping here would cancel all further flushes
+				logger.warn("Rate limit flush failed: {}", ex.getMessage());
+			}
+		}, flushInterval.toMillis(), flushInterval.toMillis(), TimeUnit.MILLISECONDS);
+	}
+
+	/** Not flushed on its own; tests call {@link #flush()}. */
+	JdbcRateLimitStore(JdbcTemplate jdbcTemplate, LongSupplier clockMillis) {
+		this.jdbcTemplate = jdbcTemplate;
+		this.clockMillis = clockMillis;
+		this.flushExecutor = null;
+	}
+
+	@Override
+	public Decision acquire(RateLimitKey key, int maxRequests, Duration window) {
+		long windowMillis = Math.max(1, window.toMillis());
+		long now = clockMillis.getAsLong();
+		long windowStart = now - Math.floorMod(now, windowMillis);
+		long windowEnd = windowStart + windowMillis;
+		WindowKey windowKey = new WindowKey(truncate(key.bucketName(), MAX_BUCKET_NAME_LENGTH),
+				truncate(key.key(), MAX_CLIENT_KEY_LENGTH), windowStart);
+		long resetSeconds = toSecondsCeil(windowEnd - now);
+		while (true) {
+			Counter counter = counters.computeIfAbsent(windowKey, unused -> new Counter(windowEnd));
+			long pending = counter.pending.get();
+			if (pending == RETIRED) {
+				// Dropped by a flush as the window ended; count in a fresh one
+				counters.remove(windowKey, counter);
+				continue;
+			}
+			long used = counter.shared + pending;
+			if (used >= maxRequests) {
+				return new Decision(false, maxRequests, 0, resetSeconds, Math.max(1, resetSeconds));
+			}
+			if (counter.pending.compareAndSet(pending, pending + 1)) {
+				return new Decision(true, maxRequests, (int) (maxRequests - used - 1), resetSeconds, 0);
+			}
+		}
+	}
+
+	/**
+	 * Writes the local increments and refreshes the shared counts of the windows
+	 * this instance holds. Increments stay pending until the write succeeds.
+	 */
+	public synchronized void flush() {
+		if (counters.isEmpty()) {
+			return;
+		}
+		long now = clockMillis.getAsLong();
+		List<Counter> flushed = new ArrayList<>();
+		List<Long> deltas = new ArrayList<>();
+		List<Object[]> batch = new ArrayList<>();
+		for (Map.Entry<WindowKey, Counter> entry : counters.entrySet()) {
+			long delta = entry.getValue().pending.get();
+			if (delta > 0) {
+				WindowKey key = entry.getKey();
+				flushed.add(entry.getValue());
+				deltas.add(delta);
+				batch.add(new Object[]{key.bucketName(), key.clientKey(), toTimestamp(key.windowStart()), delta,
+						toTimestamp(entry.getValue().windowEnd)});
+			}
+		}
+
+		if (!batch.isEmpty()) {
+			try {
+				jdbcTemplate.batchUpdate(upsertSql(), batch);
+			} catch (DataAccessException ex) {
+				logger.warn("Failed to flush {} rate limit counters: {}", batch.size(), ex.getMessage());
+				return;
+			}
+			// Written, so a failed read below must not send them again
+			for (int i = 0; i < flushed.size(); i++) {
+				Counter counter = flushed.get(i);
+				counter.shared += deltas.get(i);
+				counter.pending.addAndGet(-deltas.get(i));
+			}
+		}
+
+		// Retiring through the same CAS as acquire() keeps late increments from being dropped
+		for (Map.Entry<WindowKey, Counter> entry : counters.entrySet()) {
+			Counter counter = entry.getValue();
+			if (counter.windowEnd <= now && counter.pending.compareAndSet(0, RETIRED)) {
+				counters.remove(entry.getKey(), counter);
+			}
+		}
+		try {
+			refreshShared(List.copyOf(counters.keySet()));
+		} catch (DataAccessException ex) {
+			logger.warn("Failed to read shared rate limit counters: {}", ex.getMessage());
+		}
+	}
+
+	private void refreshShared(List<WindowKey> keys) {
+		for (int from = 0; from < keys.size(); from += READ_CHUNK_SIZE) {
+			List<WindowKey> chunk = keys.subList(from, Math.min(keys.size(), from + READ_CHUNK_SIZE));
+			StringBuilder sql = new StringBuilder(
+					"SELECT bucket_name, client_key, window_start, request_count FROM rate_limit_counter WHERE ");
+			List<Object> args = new ArrayList<>();
+			for (WindowKey key : chunk) {
+				if (!args.isEmpty()) {
+					sql.append(" OR ");
+				}
+				sql.append("(bucket_name = ? AND client_key = ? AND window_start = ?)");
+				args.add(key.bucketName());
+				args.add(key.clientKey());
+				args.add(toTimestamp(key.windowStart()));
+			}
+			jdbcTemplate.query(sql.toString(), rs -> {
+				Counter counter = counters.get(new WindowKey(rs.getString("bucket_name"), rs.getString("client_key"),
+						rs.getObject("window_start", OffsetDateTime.class).toInstant().toEpochMilli()));
+				if (counter != null) {
+					counter.shared = Math.max(counter.shared, rs.getLong("request_count"));
+				}
+			}, args.toArray());
+		}
+	}
+
+	@Override
+	public void cleanup() {
+		jdbcTemplate.update("DELETE FROM rate_limit_counter WHERE expires_at <= ?",
+				toTimestamp(clockMillis.getAsLong()));
+	}
+
+	public void shutdown() {
+		if (flushExecutor != null) {
+			flushExecutor.shutdownNow();
+		}
+		flush();
+	}
+
+	private String upsertSql() {
+		String sql = upsertSql;
+		if (sql == null) {
+			String product = jdbcTemplate.execute(
+					(ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+			// H2 and other databases with standard MERGE
+			sql = "PostgreSQL".equalsIgnoreCase(product) ? POSTGRESQL_UPSERT : MERGE_UPSERT;
+			upsertSql = sql;
+		}
+		return sql;
+	}
+
+	private static OffsetDateTime toTimestamp(long epochMillis) {
+		return OffsetDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneOffset.UTC);
+	}
+
+	private static String truncate(String value, int maxLength) {
+		return value.length() <= maxLength ? value : value.substring(0, maxLength);
+	}
+
+	private static long toSecondsCeil(long millis) {
+		return millis <= 0 ? 0 : (millis - 1) / 1_000L + 1;
+	}
+
+	private record WindowKey(String bucketName, String clientKey, long windowStart) {
+	}
+
+	private static final class Counter {
+
+		private final long windowEnd;
+		/** Count in the database as of the last flush, including this instance's flushed increments. */
+		private volatile long shared;
+		/** Accepted here but not written yet, or {@link JdbcRateLimitStore#RETIRED} once removed. */
+		private final AtomicLong pending = new AtomicLong();
+
+		private Counter(long windowEnd) {
+			this.windowEnd = windowEnd;
+		}
+	}
+}
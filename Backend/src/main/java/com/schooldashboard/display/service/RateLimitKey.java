@@ -0,0 +1,5 @@
+package com.schooldashboard.display.service;
+
+/** One client's counter for one limit, e.g. {@code ("survey-submission", "203.0.113.5")}. */
+public record RateLimitKey(String bucketName, String key) {
+}
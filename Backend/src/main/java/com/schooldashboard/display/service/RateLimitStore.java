@@ -0,0 +1,17 @@
+package com.schooldashboard.display.service;
+
+import com.schooldashboard.display.service.RequestRateLimiter.Decision;
+import java.time.Duration;
+
+/**
+ * Keeps the counters behind {@link RequestRateLimiter}. Arguments have already
+ * been validated by the limiter.
+ */
+public interface RateLimitStore {
+
+	/** Counts one request against {@code key} if it is within the limit. */
+	Decision acquire(RateLimitKey key, int maxRequests, Duration window);
+
+	/** Drops state that no longer limits anything. */
+	void cleanup();
+}
@@ -2,36 +2,43 @@ package com.schooldashboard.display.service;
 
 import jakarta.annotation.PreDestroy;
 import java.time.Duration;
-import java.time.Instant;
-import java.util.ArrayDeque;
-import java.util.Deque;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicReference;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
+/**
+ * Per-client request limits. The counters live in a {@link RateLimitStore},
+ * either {@link InMemoryRateLimitStore in this instance} or
+ * {@link JdbcRateLimitStore shared through the database}.
+ */
 @Service
 public class RequestRateLimiter {
 
+	private static final Logger logger = LoggerFactory.getLogger(RequestRateLimiter.class);
 	private static final Duration CLEANUP_INTERVAL = Duration.ofMinutes(5);
 
-	private final Map<String, Deque<Instant>> buckets = new ConcurrentHashMap<>();
-	private final AtomicReference<Duration> maxWindowSeen = new AtomicReference<>(Duration.ofSeconds(1));
+	private final RateLimitStore store;
 	private final ScheduledExecutorService cleanupExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
 		Thread thread = new Thread(runnable, "request-rate-limiter-cleaner");
 		thread.setDaemon(true);
 		return thread;
 	});
 
-	public RequestRateLimiter() {
-		cleanupExecutor.scheduleAtFixedRate(this::cleanupInactiveBuckets, CLEANUP_INTERVAL.toSeconds(),
-				CLEANUP_INTERVAL.toSeconds(), TimeUnit.SECONDS);
+	public RequestRateLimiter(RateLimitStore store) {
+		this.store = store;
+		cleanupExecutor.scheduleAtFixedRate(this::cleanup, CLEANUP_INTERVAL.toSeconds(), CLEANUP_INTERVAL.toSeconds(),
+				TimeUnit.SECONDS);
 	}
 
 	public boolean tryAcquire(String bucketName, String key, int maxRequests, Duration window) {
+		return acquire(bucketName, key, maxRequests, window).allowed();
+	}
+
+	/** Like {@link #tryAcquire} but also reports the state of the limit, e.g. for rate limit headers. */
+	public Decision acquire(String bucketName, String key, int maxRequests, Duration window) {
 		if (bucketName == null || bucketName.isBlank()) {
 			throw new IllegalArgumentException("bucketName must be non-empty");
 		}
@@ -44,27 +51,7 @@ public class RequestRateLimiter {
 		if (window == null || window.isZero() || window.isNegative()) {
 			throw new IllegalArgumentException("window must be non-null and positive");
 		}
-		maxWindowSeen.getAndUpdate(current -> current.compareTo(window) >= 0 ? current : window);
-
-		String bucketKey = bucketName + ":" + key;
-		Instant now = Instant.now();
-		Instant threshold = now.minus(window);
-		AtomicReference<Boolean> granted = new AtomicReference<>(false);
-
-		buckets.compute(bucketKey, (unused, existingBucket) -> {
-			Deque<Instant> bucket = existingBucket == null ? new ArrayDeque<>() : existingBucket;
-			while (!bucket.isEmpty() && bucket.peekFirst().isBefore(threshold)) {
-				bucket.removeFirst();
-			}
-			if (bucket.size() >= maxRequests) {
-				granted.set(false);
-				return bucket;
-			}
-			bucket.addLast(now);
-			granted.set(true);
-			return bucket;
-		});
-		return granted.get();
+		return store.acquire(new RateLimitKey(bucketName, key), maxRequests, window);
 	}
 
 	@PreDestroy
@@ -72,16 +59,25 @@ public class RequestRateLimiter {
 		cleanupExecutor.shutdownNow();
 	}
 
-	private void cleanupInactiveBuckets() {
-		Instant now = Instant.now();
-		Instant threshold = now.minus(maxWindowSeen.get());
-		for (String bucketKey : buckets.keySet()) {
-			buckets.computeIfPresent(bucketKey, (unused, existingBucket) -> {
-				while (!existingBucket.isEmpty() && existingBucket.peekFirst().isBefore(threshold)) {
-					existingBucket.removeFirst();
-				}
-				return existingBucket.isEmpty() ? null : existingBucket;
-			});
+	private void cleanup() {
+		try {
+			store.cleanup();
+		} catch (RuntimeException ex) {
+			logger.warn("Rate limit cleanup failed: {}", ex.getMessage());
 		}
 	}
+
+	/**
+	 * Outcome of one request against a limit.
+	 *
+	 * @param remaining
+	 *            requests that would still be allowed right now
+	 * @param resetSeconds
+	 *            seconds until the full limit is available again
+	 * @param retryAfterSeconds
+	 *            seconds until the next request is allowed, {@code 0} if this one
+	 *            was
+	 */
+	public record Decision(boolean allowed, int limit, int remaining, long resetSeconds, long retryAfterSeconds) {
+	}
 }
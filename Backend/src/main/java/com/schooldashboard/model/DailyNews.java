@@ -2,13 +2,19 @@ package com.schooldashboard.model;
 
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 public class DailyNews implements Serializable {
 	private static final long serialVersionUID = 1L;
 
 	private String date;
 	private List<String> newsItems;
+	// Lookup index over newsItems so merging pages can skip duplicates in O(1);
+	// rebuilt on demand after deserialization
+	private transient Set<String> newsItemIndex;
 
 	public DailyNews() {
 		newsItems = new ArrayList<>();
@@ -27,17 +33,48 @@ public class DailyNews implements Serializable {
 		this.date = date;
 	}
 
+	/** News items in insertion order. The list is read-only; use the add methods to extend it. */
 	public List<String> getNewsItems() {
-		return newsItems;
+		return Collections.unmodifiableList(newsItems);
 	}
 
 	public void setNewsItems(List<String> newsItems) {
-		this.newsItems = (newsItems == null) ? new ArrayList<>() : newsItems;
+		this.newsItems = (newsItems == null) ? new ArrayList<>() : new ArrayList<>(newsItems);
+		this.newsItemIndex = null;
 	}
 
 	public void addNewsItem(String newsItem) {
 		if (newsItem != null && !newsItem.trim().isEmpty()) {
-			this.newsItems.add(newsItem.trim());
+			String trimmed = newsItem.trim();
+			this.newsItems.add(trimmed);
+			if (newsItemIndex != null) {
+				newsItemIndex.add(trimmed);
+			}
 		}
 	}
+
+	/**
+	 * Adds {@code newsItem} unless an equal item is already present.
+	 *
+	 * @return whether the item was added
+	 */
+	public boolean addNewsItemIfAbsent(String newsItem) {
+		if (newsItem == null || newsItem.trim().isEmpty()) {
+			return false;
+		}
+		String trimmed = newsItem.trim();
+		if (!newsItemIndex().add(trimmed)) {
+			return false;
+		}
+		this.newsItems.add(trimmed);
+		return true;
+	}
+
+	private Set<String> newsItemIndex() {
+		if (newsItemIndex == null) {
+			newsItemIndex = new HashSet<>(Math.max(16, newsItems.size() * 2));
+			newsItemIndex.addAll(newsItems);
+		}
+		return newsItemIndex;
+	}
 }
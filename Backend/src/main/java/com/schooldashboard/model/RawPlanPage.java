@@ -0,0 +1,63 @@
+package com.schooldashboard.model;
+
+public class RawPlanPage {
+
+	private final String url;
+	private final byte[] body;
+	private final String charset;
+	private final String eTag;
+	private final String lastModified;
+	private final boolean notModified;
+
+	public RawPlanPage(String url, byte[] body, String charset) {
+		this(url, body, charset, null, null);
+	}
+
+	public RawPlanPage(String url, byte[] body, String charset, String eTag, String lastModified) {
+		this(url, body, charset, eTag, lastModified, false);
+	}
+
+	private RawPlanPage(String url, byte[] body, String charset, String eTag, String lastModified,
+			boolean notModified) {
+		this.url = url;
+		this.body = body;
+		this.charset = charset;
+		this.eTag = eTag;
+		this.lastModified = lastModified;
+		this.notModified = notModified;
+	}
+
+	/** Result of a conditional request the server answered with 304 Not Modified. */
+	public static RawPlanPage notModified(String url) {
+		return new RawPlanPage(url, new byte[0], null, null, null, true);
+	}
+
+	public String getUrl() {
+		return url;
+	}
+
+	/** Undecoded response body. The array is shared and must not be modified. */
+	public byte[] getBody() {
+		return body;
+	}
+
+	/** Charset announced by the server, or {@code null} to detect it from the markup. */
+	public String getCharset() {
+		return charset;
+	}
+
+	/** {@code ETag} response header, used as validator for the next conditional request. */
+	public String getETag() {
+		return eTag;
+	}
+
+	/** {@code Last-Modified} response header, used as validator for the next conditional request. */
+	public String getLastModified() {
+		return lastModified;
+	}
+
+	/** Whether the page is unchanged since the validators sent with the request; the body is empty then. */
+	public boolean isNotModified() {
+		return notModified;
+	}
+}
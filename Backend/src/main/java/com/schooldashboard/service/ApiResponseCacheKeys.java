@@ -1,11 +1,19 @@
 package com.schooldashboard.service;
 
+import com.schooldashboard.util.ContentHash;
+
 public final class ApiResponseCacheKeys {
 
 	private ApiResponseCacheKeys() {
 	}
 
 	public static final String DSB_TIMETABLES = "api/dsb/timetables";
+	public static final String DSB_NEWS = "api/dsb/news";
 	public static final String SUBSTITUTION_PLANS = "api/substitution/plans";
 	public static final String CALENDAR_EVENTS = "api/calendar/events";
+
+	/** Key of the events of one calendar feed; the URL is hashed to fit the key column. */
+	public static String calendarFeed(String url) {
+		return "api/calendar/feeds/" + ContentHash.sha256Hex(url);
+	}
 }
@@ -3,52 +3,93 @@ package com.schooldashboard.service;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.schooldashboard.config.ApiResponseCacheProperties;
 import com.schooldashboard.persistence.entity.ApiResponseCache;
 import com.schooldashboard.persistence.repository.ApiResponseCacheRepository;
+import com.schooldashboard.util.ContentHash;
+import java.io.IOException;
 import java.nio.charset.StandardCharsets;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Optional;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 
+/**
+ * Last good API responses, persisted in {@code api_response_cache} and served
+ * when the live data cannot be loaded. A bounded in-memory tier holds the most
+ * recently used entries, so reads and unchanged writes do not query the
+ * database. Entries older than {@code api-response-cache.memory-ttl} are read
+ * from the database again, which bounds how long another instance's write goes
+ * unnoticed.
+ */
 @Service
 public class ApiResponseCacheService {
 
-	private static final char[] HEX_ARRAY = "0123456789abcdef".toCharArray();
-
 	private final ApiResponseCacheRepository repository;
 	private final ObjectMapper objectMapper;
+	private final Map<String, MemoryEntry> memory;
+	private final long memoryTtlNanos;
 
-	public ApiResponseCacheService(ApiResponseCacheRepository repository, ObjectMapper objectMapper) {
+	public ApiResponseCacheService(ApiResponseCacheRepository repository, ObjectMapper objectMapper,
+			ApiResponseCacheProperties properties) {
 		this.repository = repository;
 		this.objectMapper = objectMapper;
+		this.memoryTtlNanos = properties.getMemoryTtl().toNanos();
+		int maxEntries = properties.getMemoryMaxEntries();
+		this.memory = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, MemoryEntry> eldest) {
+				return size() > maxEntries;
+			}
+		});
 	}
 
-	public void store(String cacheKey, Object payload) {
+	/**
+	 * Stores the JSON representation of {@code payload} under {@code cacheKey}.
+	 *
+	 * @return the SHA-256 content hash of the stored JSON, or {@code null} if
+	 *         nothing was stored
+	 */
+	public String store(String cacheKey, Object payload) {
 		if (cacheKey == null || cacheKey.isBlank() || payload == null) {
-			return;
+			return null;
 		}
 
-		String json = toJson(payload);
-		if (json == null || json.isBlank()) {
-			return;
+		return storeJson(cacheKey, toJson(payload));
+	}
+
+	/**
+	 * Stores an already serialized JSON document under {@code cacheKey}.
+	 *
+	 * @return the SHA-256 content hash of the stored JSON, or {@code null} if
+	 *         nothing was stored
+	 */
+	public String storeJson(String cacheKey, String json) {
+		if (cacheKey == null || cacheKey.isBlank() || json == null || json.isBlank()) {
+			return null;
 		}
 
-		String contentHash = hashContent(json);
+		String contentHash = ContentHash.sha256Hex(json);
+		MemoryEntry cached = memory.get(cacheKey);
+		if (cached != null && isFresh(cached) && contentHash.equals(cached.contentHash())) {
+			return contentHash;
+		}
 		for (int attempt = 0; attempt < 2; attempt++) {
 			Optional<ApiResponseCache> existing = repository.findById(cacheKey);
 			if (existing.isPresent()) {
 				ApiResponseCache entry = existing.get();
 				if (contentHash.equals(entry.getContentHash())) {
-					return;
+					remember(entry);
+					return contentHash;
 				}
 				entry.setJsonBody(json);
 				entry.setContentHash(contentHash);
 				try {
-					repository.save(entry);
-					return;
+					remember(saved(repository.save(entry), entry));
+					return contentHash;
 				} catch (OptimisticLockingFailureException ex) {
 					if (attempt == 1) {
 						throw ex;
@@ -56,8 +97,9 @@ public class ApiResponseCacheService {
 				}
 			} else {
 				try {
-					repository.save(new ApiResponseCache(cacheKey, json, contentHash));
-					return;
+					ApiResponseCache entry = new ApiResponseCache(cacheKey, json, contentHash);
+					remember(saved(repository.save(entry), entry));
+					return contentHash;
 				} catch (DataIntegrityViolationException ex) {
 					if (attempt == 1) {
 						throw ex;
@@ -65,27 +107,61 @@ public class ApiResponseCacheService {
 				}
 			}
 		}
+		return contentHash;
 	}
 
 	public Optional<String> getRawJson(String cacheKey) {
-		if (cacheKey == null || cacheKey.isBlank()) {
-			return Optional.empty();
-		}
-		return repository.findById(cacheKey).map(ApiResponseCache::getJsonBody);
+		return lookup(cacheKey).map(entry -> new String(entry.json(), StandardCharsets.UTF_8));
 	}
 
 	public Optional<JsonNode> getJson(String cacheKey) {
-		Optional<String> json = getRawJson(cacheKey);
-		if (json.isEmpty()) {
+		Optional<MemoryEntry> entry = lookup(cacheKey);
+		if (entry.isEmpty()) {
 			return Optional.empty();
 		}
 		try {
-			return Optional.of(objectMapper.readTree(json.get()));
-		} catch (JsonProcessingException ex) {
+			return Optional.of(objectMapper.readTree(entry.get().json()));
+		} catch (IOException ex) {
 			return Optional.empty();
 		}
 	}
 
+	/** Reads through the memory tier, loading missing keys from the database. */
+	private Optional<MemoryEntry> lookup(String cacheKey) {
+		if (cacheKey == null || cacheKey.isBlank()) {
+			return Optional.empty();
+		}
+		MemoryEntry cached = memory.get(cacheKey);
+		if (cached != null && isFresh(cached)) {
+			return Optional.of(cached);
+		}
+		Optional<MemoryEntry> loaded = repository.findById(cacheKey).map(ApiResponseCacheService::toMemoryEntry);
+		if (loaded.isPresent()) {
+			memory.put(cacheKey, loaded.get());
+		} else {
+			memory.remove(cacheKey);
+		}
+		return loaded;
+	}
+
+	private boolean isFresh(MemoryEntry entry) {
+		return System.nanoTime() - entry.loadedAtNanos() < memoryTtlNanos;
+	}
+
+	private void remember(ApiResponseCache entry) {
+		memory.put(entry.getCacheKey(), toMemoryEntry(entry));
+	}
+
+	/** The entity returned by {@code save}, or the one passed in if the repository returned none. */
+	private static ApiResponseCache saved(ApiResponseCache result, ApiResponseCache entry) {
+		return result != null ? result : entry;
+	}
+
+	private static MemoryEntry toMemoryEntry(ApiResponseCache entry) {
+		return new MemoryEntry(entry.getJsonBody().getBytes(StandardCharsets.UTF_8), entry.getContentHash(),
+				entry.getVersion(), System.nanoTime());
+	}
+
 	private String toJson(Object payload) {
 		try {
 			return objectMapper.writeValueAsString(payload);
@@ -94,23 +170,7 @@ public class ApiResponseCacheService {
 		}
 	}
 
-	private String hashContent(String content) {
-		try {
-			MessageDigest digest = MessageDigest.getInstance("SHA-256");
-			byte[] hashBytes = digest.digest(content.getBytes(StandardCharsets.UTF_8));
-			return toHex(hashBytes);
-		} catch (NoSuchAlgorithmException e) {
-			throw new IllegalStateException("SHA-256 algorithm is not available", e);
-		}
-	}
-
-	private String toHex(byte[] bytes) {
-		char[] hexChars = new char[bytes.length * 2];
-		for (int j = 0; j < bytes.length; j++) {
-			int v = bytes[j] & 0xFF;
-			hexChars[j * 2] = HEX_ARRAY[v >>> 4];
-			hexChars[j * 2 + 1] = HEX_ARRAY[v & 0x0F];
-		}
-		return new String(hexChars);
+	/** UTF-8 JSON body, content hash and row version of one stored response, and when they were read. */
+	private record MemoryEntry(byte[] json, String contentHash, long version, long loadedAtNanos) {
 	}
 }
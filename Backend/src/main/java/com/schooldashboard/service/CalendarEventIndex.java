@@ -0,0 +1,220 @@
+package com.schooldashboard.service;
+
+import com.schooldashboard.model.CalendarEvent;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Immutable, start-sorted list of event occurrences. Each occurrence is stored
+ * as a (start, end, event) triple in parallel primitive arrays, where the event
+ * index points at the VEVENT it was expanded from, so recurring events cost
+ * two longs and an int per occurrence until they are requested.
+ */
+public final class CalendarEventIndex {
+
+	private static final CalendarEventIndex EMPTY = new CalendarEventIndex(new CalendarEvent[0], new long[0],
+			new long[0], new int[0], 0);
+
+	private final CalendarEvent[] events;
+	private final long[] starts;
+	private final long[] ends;
+	private final int[] eventIndexes;
+	private final long maxDuration;
+
+	private CalendarEventIndex(CalendarEvent[] events, long[] starts, long[] ends, int[] eventIndexes,
+			long maxDuration) {
+		this.events = events;
+		this.starts = starts;
+		this.ends = ends;
+		this.eventIndexes = eventIndexes;
+		this.maxDuration = maxDuration;
+	}
+
+	public static CalendarEventIndex empty() {
+		return EMPTY;
+	}
+
+	public static Builder builder() {
+		return new Builder();
+	}
+
+	public int size() {
+		return starts.length;
+	}
+
+	/**
+	 * Returns the next {@code limit} occurrences that have not ended at
+	 * {@code nowMillis}, or all of them for {@code limit <= 0}. The scan starts at
+	 * the first occurrence that could still be running, found by binary search.
+	 */
+	public List<CalendarEvent> upcoming(long nowMillis, int limit) {
+		int capacity = limit <= 0 ? starts.length : Math.min(limit, starts.length);
+		List<CalendarEvent> result = new ArrayList<>(capacity);
+		for (int i = firstPossiblyRunning(nowMillis); i < starts.length && result.size() < capacity; i++) {
+			if (ends[i] >= nowMillis) {
+				result.add(occurrence(i));
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Merges the upcoming occurrences of several indexes in start order, stopping
+	 * after {@code limit} occurrences, or returning all of them for
+	 * {@code limit <= 0}. Occurrences with equal start and end keep the order of
+	 * {@code indexes}.
+	 */
+	public static List<CalendarEvent> merge(List<CalendarEventIndex> indexes, long nowMillis, int limit) {
+		if (indexes.size() == 1) {
+			return indexes.get(0).upcoming(nowMillis, limit);
+		}
+		PriorityQueue<Cursor> heads = new PriorityQueue<>(Math.max(1, indexes.size()));
+		int total = 0;
+		for (int i = 0; i < indexes.size(); i++) {
+			CalendarEventIndex index = indexes.get(i);
+			total += index.size();
+			Cursor cursor = new Cursor(index, i, index.firstPossiblyRunning(nowMillis));
+			if (cursor.skipEnded(nowMillis)) {
+				heads.add(cursor);
+			}
+		}
+		int capacity = limit <= 0 ? total : Math.min(limit, total);
+		List<CalendarEvent> result = new ArrayList<>(capacity);
+		while (result.size() < capacity && !heads.isEmpty()) {
+			Cursor head = heads.poll();
+			result.add(head.index.occurrence(head.position));
+			head.position++;
+			if (head.skipEnded(nowMillis)) {
+				heads.add(head);
+			}
+		}
+		return result;
+	}
+
+	/** Returns all occurrences in start order. */
+	public List<CalendarEvent> toList() {
+		List<CalendarEvent> result = new ArrayList<>(starts.length);
+		for (int i = 0; i < starts.length; i++) {
+			result.add(occurrence(i));
+		}
+		return result;
+	}
+
+	private int firstPossiblyRunning(long nowMillis) {
+		// Nothing that started before this can still be running
+		long earliestStart = nowMillis - maxDuration;
+		int index = Arrays.binarySearch(starts, earliestStart);
+		if (index < 0) {
+			return -index - 1;
+		}
+		while (index > 0 && starts[index - 1] == earliestStart) {
+			index--;
+		}
+		return index;
+	}
+
+	private CalendarEvent occurrence(int i) {
+		CalendarEvent event = events[eventIndexes[i]];
+		if (event.getStartDate() == starts[i] && event.getEndDate() == ends[i]) {
+			return event;
+		}
+		return new CalendarEvent(event.getSummary(), event.getDescription(), event.getLocation(), starts[i], ends[i],
+				event.isAllDay());
+	}
+
+	/** Position of the next upcoming occurrence in one index during a merge. */
+	private static final class Cursor implements Comparable<Cursor> {
+
+		private final CalendarEventIndex index;
+		private final int order;
+		private int position;
+
+		private Cursor(CalendarEventIndex index, int order, int position) {
+			this.index = index;
+			this.order = order;
+			this.position = position;
+		}
+
+		/** Moves past occurrences that ended before {@code nowMillis}; returns whether one is left. */
+		private boolean skipEnded(long nowMillis) {
+			while (position < index.starts.length && index.ends[position] < nowMillis) {
+				position++;
+			}
+			return position < index.starts.length;
+		}
+
+		@Override
+		public int compareTo(Cursor other) {
+			int byStart = Long.compare(index.starts[position], other.index.starts[other.position]);
+			if (byStart != 0) {
+				return byStart;
+			}
+			int byEnd = Long.compare(index.ends[position], other.index.ends[other.position]);
+			return byEnd != 0 ? byEnd : Integer.compare(order, other.order);
+		}
+	}
+
+	public static final class Builder {
+
+		private final List<CalendarEvent> events = new ArrayList<>();
+		private long[] starts = new long[16];
+		private long[] ends = new long[16];
+		private int[] eventIndexes = new int[16];
+		private int size;
+
+		private Builder() {
+		}
+
+		/** Registers an event and returns the index its occurrences refer to. */
+		public int addEvent(CalendarEvent event) {
+			events.add(event);
+			return events.size() - 1;
+		}
+
+		public Builder addOccurrence(int eventIndex, long startMillis, long endMillis) {
+			if (eventIndex < 0 || eventIndex >= events.size()) {
+				throw new IllegalArgumentException("Unknown event index " + eventIndex);
+			}
+			if (size == starts.length) {
+				int capacity = size * 2;
+				starts = Arrays.copyOf(starts, capacity);
+				ends = Arrays.copyOf(ends, capacity);
+				eventIndexes = Arrays.copyOf(eventIndexes, capacity);
+			}
+			starts[size] = startMillis;
+			ends[size] = Math.max(startMillis, endMillis);
+			eventIndexes[size] = eventIndex;
+			size++;
+			return this;
+		}
+
+		public CalendarEventIndex build() {
+			if (size == 0) {
+				return EMPTY;
+			}
+			// Sorting a permutation boxes once per refresh; lookups stay primitive
+			Integer[] order = new Integer[size];
+			for (int i = 0; i < size; i++) {
+				order[i] = i;
+			}
+			Arrays.sort(order, Comparator.<Integer>comparingLong(i -> starts[i]).thenComparingLong(i -> ends[i]));
+
+			long[] sortedStarts = new long[size];
+			long[] sortedEnds = new long[size];
+			int[] sortedEvents = new int[size];
+			long maxDuration = 0;
+			for (int i = 0; i < size; i++) {
+				int source = order[i];
+				sortedStarts[i] = starts[source];
+				sortedEnds[i] = ends[source];
+				sortedEvents[i] = eventIndexes[source];
+				maxDuration = Math.max(maxDuration, sortedEnds[i] - sortedStarts[i]);
+			}
+			return new CalendarEventIndex(events.toArray(new CalendarEvent[0]), sortedStarts, sortedEnds,
+					sortedEvents, maxDuration);
+		}
+	}
+}
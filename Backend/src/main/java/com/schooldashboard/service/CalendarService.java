@@ -1,32 +1,57 @@
 package com.schooldashboard.service;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.schooldashboard.config.CalendarProperties;
 import com.schooldashboard.model.CalendarEvent;
+import com.schooldashboard.util.ContentHash;
+import com.schooldashboard.util.SingleFlight;
+import jakarta.annotation.PreDestroy;
 import java.io.IOException;
 import java.io.StringReader;
+import java.time.Duration;
 import java.time.Instant;
 import java.time.DateTimeException;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.OffsetDateTime;
 import java.time.ZoneId;
+import java.time.ZoneOffset;
 import java.time.ZonedDateTime;
 import java.time.temporal.Temporal;
 import java.util.ArrayList;
-import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import net.fortuna.ical4j.data.CalendarBuilder;
 import net.fortuna.ical4j.data.ParserException;
 import net.fortuna.ical4j.model.Calendar;
+import net.fortuna.ical4j.model.Period;
+import net.fortuna.ical4j.model.Property;
 import net.fortuna.ical4j.model.component.VEvent;
 import net.fortuna.ical4j.model.property.Description;
 import net.fortuna.ical4j.model.property.DtEnd;
 import net.fortuna.ical4j.model.property.DtStart;
 import net.fortuna.ical4j.model.property.Location;
+import net.fortuna.ical4j.model.property.RecurrenceId;
 import net.fortuna.ical4j.model.property.Summary;
+import net.fortuna.ical4j.model.property.Uid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
 
@@ -35,26 +60,180 @@ public class CalendarService {
 
 	private static final Logger logger = LoggerFactory.getLogger(CalendarService.class);
 
+	/** Longest time a parsed feed is revalidated instead of being downloaded and parsed again. */
+	private static final Duration MAX_CONDITIONAL_AGE = Duration.ofDays(1);
+	/** Delay before a feed that failed to load is tried again, unless its refresh interval is shorter. */
+	private static final Duration RETRY_DELAY = Duration.ofMinutes(1);
+
 	private final CalendarProperties properties;
 	private final RestTemplate restTemplate;
 	private final ApiResponseCacheService cacheService;
+	private final ObjectMapper objectMapper;
+	private final StaleWhileRevalidate staleWhileRevalidate;
+	private final List<CalendarFeed> feeds;
+	private final SingleFlight<String> fetches = new SingleFlight<>();
+	private final ExecutorService fetchExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+	/** Hash of the merged events last written to the database fallback copy. */
+	private volatile String eventsHash;
 
 	public CalendarService(CalendarProperties properties, RestTemplate restTemplate,
-			ApiResponseCacheService cacheService) {
+			ApiResponseCacheService cacheService, ObjectMapper objectMapper,
+			StaleWhileRevalidate staleWhileRevalidate) {
 		this.properties = properties;
 		this.restTemplate = restTemplate;
 		this.cacheService = cacheService;
+		this.objectMapper = objectMapper;
+		this.staleWhileRevalidate = staleWhileRevalidate;
+		Map<String, CalendarFeed> configured = new LinkedHashMap<>();
+		for (CalendarProperties.Feed feed : properties.getFeeds()) {
+			String url = sanitizeUrl(feed.url());
+			if (url != null && !url.isBlank()) {
+				configured.putIfAbsent(url, new CalendarFeed(url, feed.refreshInterval()));
+			}
+		}
+		this.feeds = List.copyOf(configured.values());
 	}
 
+	/**
+	 * Returns the next {@code limit} events of all feeds that have not ended yet,
+	 * or all of them for {@code limit <= 0}. Events are served from the feeds
+	 * parsed by the last refresh; a feed is only loaded on the request path
+	 * before it was loaded once. Feeds past their soft TTL are refreshed in the
+	 * background.
+	 */
 	public List<CalendarEvent> getUpcomingEvents(int limit) {
-		String calendarUrl = sanitizeUrl(properties.getIcsUrl());
-		if (calendarUrl == null || calendarUrl.isBlank()) {
-			logger.warn("Calendar ICS URL not configured (calendar.ics-url)");
+		if (feeds.isEmpty()) {
+			logger.warn("Calendar ICS URL not configured (calendar.ics-url, calendar.ics-urls)");
 			throw new IllegalStateException("Calendar ICS URL is not configured");
 		}
+		long now = System.currentTimeMillis();
+		List<CalendarFeed> missing = feeds.stream().filter(feed -> feed.index == null && feed.isDue(now)).toList();
+		if (!missing.isEmpty()) {
+			loadAll(missing);
+		}
+
+		List<CalendarEventIndex> indexes = new ArrayList<>(feeds.size());
+		Instant instant = Instant.ofEpochMilli(now);
+		for (CalendarFeed feed : feeds) {
+			CalendarEventIndex index = feed.index;
+			if (index == null) {
+				continue;
+			}
+			indexes.add(index);
+			if (freshness(feed).isStale(instant) && feed.isDue(now)) {
+				staleWhileRevalidate.revalidate("calendar:" + feed.url, () -> loadAll(List.of(feed)));
+			}
+		}
+		if (indexes.isEmpty()) {
+			throw new IllegalStateException("No calendar feed could be loaded");
+		}
+		return CalendarEventIndex.merge(indexes, now, limit);
+	}
+
+	/** Age of the served feed that is closest to or furthest past its soft TTL. */
+	public Freshness getFreshness() {
+		Freshness stalest = null;
+		for (CalendarFeed feed : feeds) {
+			if (feed.index == null) {
+				continue;
+			}
+			Freshness freshness = freshness(feed);
+			if (freshness.refreshedAt() == null) {
+				return freshness;
+			}
+			if (stalest == null || freshness.refreshedAt().plus(freshness.softTtl())
+					.isBefore(stalest.refreshedAt().plus(stalest.softTtl()))) {
+				stalest = freshness;
+			}
+		}
+		return stalest;
+	}
+
+	private Freshness freshness(CalendarFeed feed) {
+		Duration softTtl = staleWhileRevalidate.softTtl(StaleWhileRevalidate.Resource.CALENDAR);
+		// A feed refreshed less often than the soft TTL is not stale between its refreshes
+		if (feed.refreshInterval.compareTo(softTtl) > 0) {
+			softTtl = feed.refreshInterval;
+		}
+		return new Freshness(feed.refreshedAt, softTtl);
+	}
+
+	/** Downloads every feed whose refresh interval has elapsed. */
+	@Scheduled(initialDelay = 10000, fixedDelay = 60000)
+	public void refreshDueFeeds() {
+		long now = System.currentTimeMillis();
+		List<CalendarFeed> due = feeds.stream().filter(feed -> feed.isDue(now)).toList();
+		if (!due.isEmpty()) {
+			loadAll(due);
+		}
+	}
+
+	/** Downloads all feeds now, keeping the previous events of feeds that fail. */
+	public void refreshEvents() {
+		if (!feeds.isEmpty()) {
+			loadAll(feeds);
+		}
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		fetchExecutor.shutdownNow();
+	}
 
-		logger.info("Fetching calendar ICS from {}", calendarUrl);
-		ResponseEntity<String> response = restTemplate.getForEntity(calendarUrl, String.class);
+	/** Loads {@code targets} in parallel; a failing feed does not hold up or fail the others. */
+	private void loadAll(List<CalendarFeed> targets) {
+		if (targets.size() == 1) {
+			load(targets.get(0));
+		} else {
+			CompletableFuture<?>[] loads = targets.stream()
+					.map(feed -> CompletableFuture.runAsync(() -> load(feed), fetchExecutor))
+					.toArray(CompletableFuture[]::new);
+			CompletableFuture.allOf(loads).join();
+		}
+		storeMergedIfChanged();
+	}
+
+	private void load(CalendarFeed feed) {
+		long started = System.currentTimeMillis();
+		try {
+			// Concurrent requests for the same feed share one download and parse
+			fetches.execute(feed.url, () -> loadEvents(feed));
+			feed.refreshedAt = Instant.ofEpochMilli(started);
+			feed.nextRefreshMillis = started + feed.refreshInterval.toMillis();
+		} catch (RuntimeException ex) {
+			feed.nextRefreshMillis = started + Math.min(feed.refreshInterval.toMillis(), RETRY_DELAY.toMillis());
+			if (feed.index != null) {
+				logger.warn("Failed to refresh calendar feed {}, keeping previous events", feed.url, ex);
+			} else if (restoreCached(feed)) {
+				logger.warn("Failed to load calendar feed {}, using its cached events", feed.url, ex);
+			} else {
+				logger.warn("Failed to load calendar feed {}", feed.url, ex);
+			}
+		}
+	}
+
+	private CalendarEventIndex loadEvents(CalendarFeed feed) {
+		logger.info("Fetching calendar ICS from {}", feed.url);
+		CalendarEventIndex current = feed.index;
+		FeedVersion previous = current != null ? feed.version : null;
+		Instant now = Instant.now();
+		HttpHeaders headers = new HttpHeaders();
+		// Recurrences are expanded relative to the parse time, so an old index is re-parsed even if unchanged
+		if (previous != null && previous.parsedAt().plus(MAX_CONDITIONAL_AGE).isAfter(now)) {
+			if (previous.eTag() != null) {
+				headers.setIfNoneMatch(previous.eTag());
+			}
+			if (previous.lastModified() != null) {
+				headers.set(HttpHeaders.IF_MODIFIED_SINCE, previous.lastModified());
+			}
+		}
+		ResponseEntity<String> response = restTemplate.exchange(feed.url, HttpMethod.GET, new HttpEntity<>(headers),
+				String.class);
+		if (response.getStatusCode().value() == HttpStatus.NOT_MODIFIED.value() && current != null) {
+			logger.debug("Calendar ICS not modified, keeping parsed events");
+			return current;
+		}
 		if (!response.getStatusCode().is2xxSuccessful()) {
 			throw new IllegalStateException(
 					"Calendar ICS response returned status " + response.getStatusCode().value());
@@ -63,50 +242,210 @@ public class CalendarService {
 			throw new IllegalStateException("Calendar ICS response is empty");
 		}
 
-		List<CalendarEvent> events = parseEvents(response.getBody(), Instant.now());
-		cacheService.store(ApiResponseCacheKeys.CALENDAR_EVENTS, events);
-		if (limit <= 0 || events.size() <= limit) {
-			return events;
+		CalendarEventIndex loaded = parseFeed(response.getBody(), now);
+		storeIfChanged(feed, loaded.toList());
+		feed.version = new FeedVersion(response.getHeaders().getETag(),
+				response.getHeaders().getFirst(HttpHeaders.LAST_MODIFIED), now);
+		feed.index = loaded;
+		return loaded;
+	}
+
+	/** Writes the feed's database fallback copy only when its events differ from the last stored ones. */
+	private void storeIfChanged(CalendarFeed feed, List<CalendarEvent> parsed) {
+		String json = toJson(parsed);
+		if (json == null) {
+			return;
 		}
-		return events.subList(0, limit);
+		String hash = ContentHash.sha256Hex(json);
+		if (hash.equals(feed.eventsHash)) {
+			return;
+		}
+		cacheService.storeJson(feed.cacheKey, json);
+		feed.eventsHash = hash;
 	}
 
-	private List<CalendarEvent> parseEvents(String icsData, Instant now) {
-		List<CalendarEvent> parsed = new ArrayList<>();
+	/** Writes the merged events read by the controller when no feed can be served at all. */
+	private void storeMergedIfChanged() {
+		List<CalendarEventIndex> indexes = new ArrayList<>(feeds.size());
+		for (CalendarFeed feed : feeds) {
+			if (feed.index != null) {
+				indexes.add(feed.index);
+			}
+		}
+		if (indexes.isEmpty()) {
+			return;
+		}
+		String json = toJson(CalendarEventIndex.merge(indexes, System.currentTimeMillis(), 0));
+		if (json == null) {
+			return;
+		}
+		String hash = ContentHash.sha256Hex(json);
+		if (hash.equals(eventsHash)) {
+			return;
+		}
+		cacheService.storeJson(ApiResponseCacheKeys.CALENDAR_EVENTS, json);
+		eventsHash = hash;
+	}
+
+	/** Serves a feed that has never loaded from its database copy, if there is one. */
+	private boolean restoreCached(CalendarFeed feed) {
+		Optional<String> cached;
 		try {
-			CalendarBuilder builder = new CalendarBuilder();
-			Calendar calendar = builder.build(new StringReader(icsData));
-			List<?> components = calendar.getComponents(net.fortuna.ical4j.model.Component.VEVENT);
-			for (Object component : components) {
-				if (!(component instanceof VEvent)) {
-					continue;
-				}
-				VEvent event = (VEvent) component;
-				DtStart<?> startProperty = event.getDateTimeStart();
-				if (startProperty == null) {
-					continue;
-				}
-				Temporal startDate = startProperty.getDate();
-				Temporal endDate = getEndDate(event, startDate);
-				Instant startInstant = toInstant(startDate);
-				Instant endInstant = toInstant(endDate);
-				if (startInstant == null || endInstant == null) {
-					continue;
-				}
-				boolean allDay = isAllDay(startDate);
-				if (endInstant.isBefore(now)) {
+			cached = cacheService.getRawJson(feed.cacheKey);
+		} catch (RuntimeException ex) {
+			logger.warn("Failed to read cached events of calendar feed {}", feed.url, ex);
+			return false;
+		}
+		if (cached.isEmpty()) {
+			return false;
+		}
+		try {
+			CalendarEventIndex.Builder builder = CalendarEventIndex.builder();
+			for (JsonNode node : objectMapper.readTree(cached.get())) {
+				CalendarEvent event = new CalendarEvent(node.path("summary").asText(""),
+						node.path("description").asText(""), node.path("location").asText(""),
+						node.path("startDate").asLong(), node.path("endDate").asLong(),
+						node.path("allDay").asBoolean());
+				builder.addOccurrence(builder.addEvent(event), event.getStartDate(), event.getEndDate());
+			}
+			feed.eventsHash = ContentHash.sha256Hex(cached.get());
+			feed.index = builder.build();
+			return true;
+		} catch (JsonProcessingException ex) {
+			logger.warn("Failed to parse cached events of calendar feed {}", feed.url, ex);
+			return false;
+		}
+	}
+
+	private String toJson(List<CalendarEvent> events) {
+		try {
+			return objectMapper.writeValueAsString(events);
+		} catch (JsonProcessingException ex) {
+			logger.warn("Failed to serialize calendar events for the cache", ex);
+			return null;
+		}
+	}
+
+	/**
+	 * Parses the occurrences of {@code icsData} that have not ended at
+	 * {@code now}. Recurring events are expanded up to the configured horizon.
+	 */
+	CalendarEventIndex parseFeed(String icsData, Instant now) {
+		if (properties.getParserMode() == CalendarProperties.ParserMode.STREAMING) {
+			icsData = UpcomingEventScanner.retainUpcoming(icsData, now.toEpochMilli());
+		}
+		return parseEvents(icsData, now);
+	}
+
+	private CalendarEventIndex parseEvents(String icsData, Instant now) {
+		Calendar calendar;
+		try {
+			calendar = new CalendarBuilder().build(new StringReader(icsData));
+		} catch (IOException | ParserException ex) {
+			throw new IllegalStateException("Failed to parse calendar data", ex);
+		}
+
+		List<VEvent> events = new ArrayList<>();
+		// Occurrences replaced by a separate VEVENT with the same UID and a RECURRENCE-ID
+		Map<String, Set<Long>> overridden = new HashMap<>();
+		for (Object component : calendar.getComponents(net.fortuna.ical4j.model.Component.VEVENT)) {
+			if (component instanceof VEvent event) {
+				events.add(event);
+				recordOverride(event, overridden);
+			}
+		}
+
+		Instant horizon = now.plus(properties.getExpansionHorizon());
+		CalendarEventIndex.Builder builder = CalendarEventIndex.builder();
+		for (VEvent event : events) {
+			DtStart<?> startProperty = event.getDateTimeStart();
+			if (startProperty == null) {
+				continue;
+			}
+			Temporal startDate = startProperty.getDate();
+			Temporal endDate = getEndDate(event, startDate);
+			Instant startInstant = toInstant(startDate);
+			Instant endInstant = toInstant(endDate);
+			if (startInstant == null || endInstant == null) {
+				continue;
+			}
+			CalendarEvent template = new CalendarEvent(getValue(event.getSummary()), getValue(event.getDescription()),
+					getValue(event.getLocation()), startInstant.toEpochMilli(), endInstant.toEpochMilli(),
+					isAllDay(startDate));
+
+			if (isRecurring(event)) {
+				try {
+					addRecurrences(builder, template, event, startDate, now, horizon,
+							overridden.getOrDefault(getUid(event), Set.of()));
 					continue;
+				} catch (RuntimeException ex) {
+					logger.warn("Failed to expand recurring calendar event '{}', using its first occurrence",
+							template.getSummary(), ex);
 				}
+			}
+			if (!endInstant.isBefore(now)) {
+				builder.addOccurrence(builder.addEvent(template), template.getStartDate(), template.getEndDate());
+			}
+		}
+		return builder.build();
+	}
 
-				parsed.add(new CalendarEvent(getValue(event.getSummary()), getValue(event.getDescription()),
-						getValue(event.getLocation()), startInstant.toEpochMilli(), endInstant.toEpochMilli(), allDay));
+	private void addRecurrences(CalendarEventIndex.Builder builder, CalendarEvent template, VEvent event,
+			Temporal startDate, Instant now, Instant horizon, Set<Long> overridden) {
+		long length = template.getEndDate() - template.getStartDate();
+		// Start early enough to include an occurrence that is still running
+		Period<Temporal> window = expansionWindow(startDate, now.minusMillis(length), horizon);
+		Set<Period<Temporal>> periods = event.calculateRecurrenceSet(window);
+		int eventIndex = -1;
+		for (Period<Temporal> period : periods) {
+			Instant start = toInstant(period.getStart());
+			if (start == null || start.isAfter(horizon) || overridden.contains(start.toEpochMilli())) {
+				continue;
 			}
-		} catch (IOException | ParserException ex) {
-			throw new IllegalStateException("Failed to parse calendar data", ex);
+			Instant end = toInstant(period.getEnd());
+			long endMillis = end != null ? end.toEpochMilli() : start.toEpochMilli() + length;
+			if (endMillis < now.toEpochMilli()) {
+				continue;
+			}
+			if (eventIndex < 0) {
+				eventIndex = builder.addEvent(template);
+			}
+			builder.addOccurrence(eventIndex, start.toEpochMilli(), endMillis);
 		}
+	}
 
-		parsed.sort(Comparator.comparingLong(CalendarEvent::getStartDate));
-		return parsed;
+	/** Builds the expansion period in the temporal type of the event, which ical4j requires for floating times. */
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	private Period<Temporal> expansionWindow(Temporal startDate, Instant from, Instant to) {
+		ZoneId zone = ZoneId.systemDefault();
+		if (startDate instanceof LocalDate) {
+			return new Period(LocalDate.ofInstant(from, zone), LocalDate.ofInstant(to, zone).plusDays(1));
+		}
+		if (startDate instanceof LocalDateTime) {
+			return new Period(LocalDateTime.ofInstant(from, zone), LocalDateTime.ofInstant(to, zone));
+		}
+		return new Period(from.atZone(ZoneOffset.UTC), to.atZone(ZoneOffset.UTC));
+	}
+
+	private boolean isRecurring(VEvent event) {
+		return event.getProperty(Property.RRULE).isPresent() || event.getProperty(Property.RDATE).isPresent();
+	}
+
+	private void recordOverride(VEvent event, Map<String, Set<Long>> overridden) {
+		Optional<RecurrenceId<?>> recurrenceId = event.getProperty(Property.RECURRENCE_ID);
+		String uid = getUid(event);
+		if (recurrenceId.isEmpty() || uid == null) {
+			return;
+		}
+		Instant replaced = toInstant(recurrenceId.get().getDate());
+		if (replaced != null) {
+			overridden.computeIfAbsent(uid, key -> new HashSet<>()).add(replaced.toEpochMilli());
+		}
+	}
+
+	private String getUid(VEvent event) {
+		Optional<Uid> uid = event.getProperty(Property.UID);
+		return uid.map(Uid::getValue).orElse(null);
 	}
 
 	private Temporal getEndDate(VEvent event, Temporal startDate) {
@@ -169,4 +508,33 @@ public class CalendarService {
 		}
 		return trimmed;
 	}
+
+	/** Validators of the response a feed's index was parsed from. */
+	private record FeedVersion(String eTag, String lastModified, Instant parsedAt) {
+	}
+
+	/** Download state and parsed occurrences of one configured feed. */
+	private static final class CalendarFeed {
+
+		private final String url;
+		private final Duration refreshInterval;
+		private final String cacheKey;
+		/** Occurrences of the feed, or {@code null} until it was loaded or restored once. */
+		private volatile CalendarEventIndex index;
+		private volatile FeedVersion version;
+		private volatile String eventsHash;
+		/** When the feed was last confirmed upstream, {@code null} if it was restored from the database. */
+		private volatile Instant refreshedAt;
+		private volatile long nextRefreshMillis;
+
+		private CalendarFeed(String url, Duration refreshInterval) {
+			this.url = url;
+			this.refreshInterval = refreshInterval;
+			this.cacheKey = ApiResponseCacheKeys.calendarFeed(url);
+		}
+
+		private boolean isDue(long nowMillis) {
+			return nowMillis >= nextRefreshMillis;
+		}
+	}
 }
@@ -2,7 +2,11 @@ package com.schooldashboard.service;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.schooldashboard.util.DSBMobile;
+import com.schooldashboard.util.DSBMobile.News;
 import com.schooldashboard.util.DSBMobile.TimeTable;
+import com.schooldashboard.util.SingleFlight;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -10,8 +14,6 @@ import java.util.Optional;
 import java.util.UUID;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.cache.annotation.CacheEvict;
-import org.springframework.cache.annotation.Cacheable;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
@@ -19,24 +21,29 @@ import org.springframework.stereotype.Service;
 public class DSBService {
 
 	private static final Logger logger = LoggerFactory.getLogger(DSBService.class);
+	private static final String DSB_SNAPSHOT_KEY = "dsb";
+	/** Delay before a failed background refresh is tried again. */
+	private static final Duration RETRY_DELAY = Duration.ofMinutes(1);
 
 	private final DsbClient dsbClient;
 	private final ApiResponseCacheService cacheService;
+	private final StaleWhileRevalidate staleWhileRevalidate;
+	private final SingleFlight<String> fetches = new SingleFlight<>();
+	private volatile DsbSnapshot snapshot;
+	private volatile Instant fetchedAt;
+	/** Earliest start of the next background refresh, pushed back when one fails. */
+	private volatile long nextRevalidationMillis;
 
-	public DSBService(DsbClient dsbClient, ApiResponseCacheService cacheService) {
+	public DSBService(DsbClient dsbClient, ApiResponseCacheService cacheService,
+			StaleWhileRevalidate staleWhileRevalidate) {
 		this.dsbClient = dsbClient;
 		this.cacheService = cacheService;
+		this.staleWhileRevalidate = staleWhileRevalidate;
 	}
 
-	@Cacheable("timetables")
 	public List<TimeTable> getTimeTables() {
 		try {
-			List<TimeTable> tables = dsbClient.getTimeTables();
-			if (tables != null && !tables.isEmpty()) {
-				cacheService.store(ApiResponseCacheKeys.DSB_TIMETABLES, tables);
-				return tables;
-			}
-			return tables == null ? Collections.emptyList() : tables;
+			return getSnapshot().timeTables();
 		} catch (RuntimeException ex) {
 			List<TimeTable> cached = getCachedTimeTables();
 			if (!cached.isEmpty()) {
@@ -48,9 +55,86 @@ public class DSBService {
 		}
 	}
 
-	@Cacheable("news")
 	public Object getNews() {
-		return dsbClient.getNews();
+		List<News> news = getSnapshot().news();
+		if (news == null) {
+			throw new IllegalStateException("Server response doesn't contain news!");
+		}
+		return news;
+	}
+
+	/** Age of the snapshot timetables and news are served from. */
+	public Freshness getFreshness() {
+		return staleWhileRevalidate.freshness(StaleWhileRevalidate.Resource.DSB, fetchedAt);
+	}
+
+	/**
+	 * Returns the last pulled DSB response. Timetables and news are both served
+	 * from it, so the two endpoints share a single upstream request. Before the
+	 * first pull, e.g. after a restart, the persisted copy is served and a refresh
+	 * is started in the background; only a call without either waits for DSB.
+	 * Later calls get the current snapshot and, once it is past its soft TTL,
+	 * start a refresh in the background. After a failed refresh the next one
+	 * waits for {@link #RETRY_DELAY}.
+	 */
+	DsbSnapshot getSnapshot() {
+		DsbSnapshot current = snapshot;
+		if (current == null) {
+			current = seedFromPersistedCopy();
+			if (current == null) {
+				return fetchSnapshot();
+			}
+		}
+		if (getFreshness().isStale(Instant.now()) && System.currentTimeMillis() >= nextRevalidationMillis) {
+			staleWhileRevalidate.revalidate(DSB_SNAPSHOT_KEY, this::revalidate);
+		}
+		return current;
+	}
+
+	private void revalidate() {
+		try {
+			fetchSnapshot();
+		} catch (RuntimeException ex) {
+			nextRevalidationMillis = System.currentTimeMillis() + RETRY_DELAY.toMillis();
+			throw ex;
+		}
+	}
+
+	private DsbSnapshot fetchSnapshot() {
+		// Concurrent loads, e.g. a request and the scheduled refresh, share one upstream request
+		return fetches.execute(DSB_SNAPSHOT_KEY, () -> {
+			DsbSnapshot fetched = dsbClient.fetchSnapshot();
+			if (!fetched.timeTables().isEmpty()) {
+				cacheService.store(ApiResponseCacheKeys.DSB_TIMETABLES, fetched.timeTables());
+			}
+			if (fetched.news() != null) {
+				cacheService.store(ApiResponseCacheKeys.DSB_NEWS, fetched.news());
+			}
+			synchronized (this) {
+				snapshot = fetched;
+				fetchedAt = Instant.now();
+			}
+			return fetched;
+		});
+	}
+
+	/**
+	 * Installs the persisted timetables and news as the snapshot unless a pull
+	 * finished in the meantime. {@code fetchedAt} stays unset, so the copy is
+	 * reported and treated as stale.
+	 */
+	private DsbSnapshot seedFromPersistedCopy() {
+		List<TimeTable> timeTables = getCachedTimeTables();
+		List<News> news = getCachedNews();
+		if (timeTables.isEmpty() && news == null) {
+			return null;
+		}
+		synchronized (this) {
+			if (snapshot == null) {
+				snapshot = new DsbSnapshot(timeTables, news);
+			}
+			return snapshot;
+		}
 	}
 
 	private List<TimeTable> getCachedTimeTables() {
@@ -83,6 +167,31 @@ public class DSBService {
 		return tables;
 	}
 
+	/** The persisted news, or {@code null} if none were stored. */
+	private List<News> getCachedNews() {
+		Optional<JsonNode> cached = cacheService.getJson(ApiResponseCacheKeys.DSB_NEWS);
+		if (cached.isEmpty() || !cached.get().isArray()) {
+			return null;
+		}
+		List<News> news = new ArrayList<>();
+		DSBMobile factory = new DSBMobile("", "");
+		for (JsonNode entry : cached.get()) {
+			String uuidText = readText(entry, "uuid");
+			String date = readText(entry, "date");
+			String title = readText(entry, "title");
+			String detail = readText(entry, "detail");
+			if (uuidText == null || date == null || title == null || detail == null) {
+				continue;
+			}
+			try {
+				news.add(factory.new News(UUID.fromString(uuidText), date, title, detail));
+			} catch (IllegalArgumentException ex) {
+				logger.warn("Skipping cached news with invalid UUID: {}", uuidText);
+			}
+		}
+		return news;
+	}
+
 	private String readText(JsonNode node, String field) {
 		JsonNode value = node.get(field);
 		if (value == null || !value.isTextual()) {
@@ -91,9 +200,17 @@ public class DSBService {
 		return value.asText();
 	}
 
-	@CacheEvict(allEntries = true, value = {"timetables", "news"})
-	@Scheduled(fixedRate = 300000) // Clear cache every 5 minutes (300000ms)
-	public void clearCache() {
-		logger.info("Clearing DSBMobile cache at {}", new java.util.Date());
+	/**
+	 * Pulls a new DSB response every 5 minutes. Requests keep being served from
+	 * the previous snapshot while it loads and if it fails.
+	 */
+	@Scheduled(fixedRate = 300000) // Refresh every 5 minutes (300000ms)
+	public void refreshSnapshot() {
+		logger.info("Refreshing DSBMobile snapshot at {}", new java.util.Date());
+		try {
+			fetchSnapshot();
+		} catch (RuntimeException ex) {
+			logger.warn("Failed to refresh DSBMobile snapshot, keeping the previous one", ex);
+		}
 	}
 }
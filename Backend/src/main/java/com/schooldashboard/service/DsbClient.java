@@ -1,10 +1,7 @@
 package com.schooldashboard.service;
 
-import com.schooldashboard.util.DSBMobile.TimeTable;
-import java.util.List;
-
 public interface DsbClient {
-	List<TimeTable> getTimeTables();
 
-	Object getNews();
+	/** Pulls timetables and news with one request to DSBmobile. */
+	DsbSnapshot fetchSnapshot();
 }
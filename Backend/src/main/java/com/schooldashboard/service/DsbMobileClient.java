@@ -1,14 +1,20 @@
 package com.schooldashboard.service;
 
+import com.google.gson.JsonObject;
 import com.schooldashboard.util.DSBMobile;
+import com.schooldashboard.util.DSBMobile.News;
 import com.schooldashboard.util.DSBMobile.TimeTable;
 import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 @Service
 public class DsbMobileClient implements DsbClient {
 
+	private static final Logger logger = LoggerFactory.getLogger(DsbMobileClient.class);
+
 	@Value("${dsb.username}")
 	private String username;
 
@@ -16,12 +22,18 @@ public class DsbMobileClient implements DsbClient {
 	private String password;
 
 	@Override
-	public List<TimeTable> getTimeTables() {
-		return new DSBMobile(username, password).getTimeTables();
-	}
-
-	@Override
-	public Object getNews() {
-		return new DSBMobile(username, password).getNews();
+	public DsbSnapshot fetchSnapshot() {
+		DSBMobile mobile = new DSBMobile(username, password);
+		JsonObject data = mobile.pullData();
+		List<TimeTable> tables = mobile.getTimeTables(data);
+		List<News> news;
+		try {
+			news = mobile.getNews(data);
+		} catch (RuntimeException ex) {
+			// Timetables stay usable when only the news section is missing
+			logger.warn("[DsbMobileClient] Response contains no usable news: {}", ex.getMessage());
+			news = null;
+		}
+		return new DsbSnapshot(tables, news);
 	}
 }
@@ -0,0 +1,17 @@
+package com.schooldashboard.service;
+
+import com.schooldashboard.util.DSBMobile.News;
+import com.schooldashboard.util.DSBMobile.TimeTable;
+import java.util.List;
+
+/**
+ * Timetables and news taken from a single DSBmobile response. {@code news} is
+ * {@code null} when the response had no news section.
+ */
+public record DsbSnapshot(List<TimeTable> timeTables, List<News> news) {
+
+	public DsbSnapshot {
+		timeTables = timeTables == null ? List.of() : List.copyOf(timeTables);
+		news = news == null ? null : List.copyOf(news);
+	}
+}
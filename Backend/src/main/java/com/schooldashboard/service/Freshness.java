@@ -0,0 +1,25 @@
+package com.schooldashboard.service;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * When a served snapshot was last refreshed and how long it counts as fresh.
+ * {@code refreshedAt} is {@code null} when the snapshot was restored from the
+ * database and its age is unknown.
+ */
+public record Freshness(Instant refreshedAt, Duration softTtl) {
+
+	/** Age at {@code now}, or {@code null} if it is unknown. */
+	public Duration age(Instant now) {
+		if (refreshedAt == null) {
+			return null;
+		}
+		Duration age = Duration.between(refreshedAt, now);
+		return age.isNegative() ? Duration.ZERO : age;
+	}
+
+	public boolean isStale(Instant now) {
+		return refreshedAt == null || refreshedAt.plus(softTtl).isBefore(now);
+	}
+}
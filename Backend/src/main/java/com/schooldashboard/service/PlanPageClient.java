@@ -0,0 +1,104 @@
+package com.schooldashboard.service;
+
+import com.schooldashboard.config.SubstitutionRefreshProperties;
+import com.schooldashboard.model.RawPlanPage;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Locale;
+import java.util.zip.GZIPInputStream;
+import org.springframework.stereotype.Component;
+
+/**
+ * Downloads substitution plan detail pages over one shared {@link HttpClient},
+ * so connections to the DSB host are kept alive and reused (HTTP/2 where the
+ * server offers it). Supports conditional requests with the validators of a
+ * previous response.
+ */
+@Component
+public class PlanPageClient {
+
+	private static final String USER_AGENT = "School-Dashboard";
+
+	private final HttpClient httpClient;
+	private final SubstitutionRefreshProperties refreshProperties;
+
+	public PlanPageClient(SubstitutionRefreshProperties refreshProperties) {
+		this.refreshProperties = refreshProperties;
+		this.httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_2)
+				.followRedirects(HttpClient.Redirect.NORMAL).connectTimeout(refreshProperties.getConnectTimeout())
+				.build();
+	}
+
+	/**
+	 * Fetches {@code url}. When {@code eTag} or {@code lastModified} is given the
+	 * request is conditional and a 304 answer is returned as
+	 * {@link RawPlanPage#notModified(String)}.
+	 */
+	public RawPlanPage fetch(String url, String eTag, String lastModified) throws IOException {
+		HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(url)).GET()
+				.timeout(refreshProperties.getPageTimeout()).header("Accept-Encoding", "gzip")
+				.header("User-Agent", USER_AGENT);
+		if (eTag != null) {
+			request.header("If-None-Match", eTag);
+		}
+		if (lastModified != null) {
+			request.header("If-Modified-Since", lastModified);
+		}
+
+		HttpResponse<InputStream> response;
+		try {
+			response = httpClient.send(request.build(), HttpResponse.BodyHandlers.ofInputStream());
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while fetching " + url, e);
+		}
+
+		int status = response.statusCode();
+		if (status == 304 || status < 200 || status >= 300) {
+			response.body().close();
+			if (status == 304) {
+				return RawPlanPage.notModified(url);
+			}
+			throw new IOException("HTTP error fetching URL. Status=" + status + ", URL=" + url);
+		}
+		HttpHeaders headers = response.headers();
+		try (InputStream body = decode(response.body(), headers)) {
+			return new RawPlanPage(url, body.readAllBytes(), charset(headers), headers.firstValue("ETag").orElse(null),
+					headers.firstValue("Last-Modified").orElse(null));
+		}
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		httpClient.close();
+	}
+
+	private static InputStream decode(InputStream body, HttpHeaders headers) throws IOException {
+		String encoding = headers.firstValue("Content-Encoding").orElse("");
+		if ("gzip".equalsIgnoreCase(encoding.trim())) {
+			return new GZIPInputStream(body);
+		}
+		return body;
+	}
+
+	private static String charset(HttpHeaders headers) {
+		String contentType = headers.firstValue("Content-Type").orElse(null);
+		if (contentType == null) {
+			return null;
+		}
+		for (String parameter : contentType.split(";")) {
+			String trimmed = parameter.trim();
+			if (trimmed.toLowerCase(Locale.ROOT).startsWith("charset=")) {
+				String charset = trimmed.substring("charset=".length()).replace("\"", "").trim();
+				return charset.isEmpty() ? null : charset;
+			}
+		}
+		return null;
+	}
+}
@@ -0,0 +1,93 @@
+package com.schooldashboard.service;
+
+import com.schooldashboard.config.StaleWhileRevalidateProperties;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Starts background refreshes of snapshots that are older than their soft TTL,
+ * so requests are answered from the last good snapshot instead of waiting for
+ * a slow upstream. At most one refresh per key runs at a time.
+ */
+@Component
+public class StaleWhileRevalidate {
+
+	private static final Logger logger = LoggerFactory.getLogger(StaleWhileRevalidate.class);
+
+	private final StaleWhileRevalidateProperties properties;
+	private final Executor executor;
+	private final Set<String> running = ConcurrentHashMap.newKeySet();
+
+	@Autowired
+	public StaleWhileRevalidate(StaleWhileRevalidateProperties properties) {
+		this(properties, Executors.newVirtualThreadPerTaskExecutor());
+	}
+
+	StaleWhileRevalidate(StaleWhileRevalidateProperties properties, Executor executor) {
+		this.properties = properties;
+		this.executor = executor;
+	}
+
+	public Duration softTtl(Resource resource) {
+		return switch (resource) {
+			case SUBSTITUTION -> properties.getSubstitutionSoftTtl();
+			case DSB -> properties.getDsbSoftTtl();
+			case CALENDAR -> properties.getCalendarSoftTtl();
+		};
+	}
+
+	public Freshness freshness(Resource resource, Instant refreshedAt) {
+		return new Freshness(refreshedAt, softTtl(resource));
+	}
+
+	/**
+	 * Runs {@code refresh} in the background unless a refresh for {@code key} is
+	 * already running. Failures are logged; the caller keeps serving its current
+	 * snapshot.
+	 *
+	 * @return whether a refresh was started
+	 */
+	public boolean revalidate(String key, Runnable refresh) {
+		if (!running.add(key)) {
+			return false;
+		}
+		try {
+			executor.execute(() -> {
+				try {
+					refresh.run();
+				} catch (RuntimeException ex) {
+					logger.warn("Background refresh of {} failed, serving the previous snapshot", key, ex);
+				} finally {
+					running.remove(key);
+				}
+			});
+			return true;
+		} catch (RuntimeException ex) {
+			running.remove(key);
+			logger.warn("Could not start background refresh of {}", key, ex);
+			return false;
+		}
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		if (executor instanceof ExecutorService service) {
+			service.shutdownNow();
+		}
+	}
+
+	/** Snapshots served with stale-while-revalidate. */
+	public enum Resource {
+		SUBSTITUTION, DSB, CALENDAR
+	}
+}
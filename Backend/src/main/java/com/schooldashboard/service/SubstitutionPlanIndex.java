@@ -0,0 +1,253 @@
+package com.schooldashboard.service;
+
+import com.schooldashboard.model.SubstitutionEntry;
+import com.schooldashboard.model.SubstitutionPlan;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Immutable lookup index over the entries of a set of substitution plans by
+ * class, teacher (absent or substitute) and room. Entries are addressed by
+ * their position in the concatenation of all plans' entry lists.
+ */
+public final class SubstitutionPlanIndex {
+
+	private static final SubstitutionPlanIndex EMPTY = new SubstitutionPlanIndex(List.of(), new int[]{0}, Map.of(),
+			Map.of(), Map.of());
+
+	private static final Pattern LIST_SEPARATOR = Pattern.compile("[,;/]");
+	private static final Pattern TEACHER_SEPARATOR = Pattern.compile("[,;/\\s]+");
+	private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+	private static final Pattern CLASS_NAME = Pattern.compile("0*(\\d+)(\\D*)");
+	// "7a-7c", "7a-c" and "5-7"
+	private static final Pattern CLASS_RANGE = Pattern.compile("0*(\\d+)([a-z]?)-(?:0*(\\d+))?([a-z]?)");
+	private static final int MAX_GRADE_SPAN = 13;
+
+	private final List<SubstitutionPlan> plans;
+	private final int[] planStarts;
+	private final Map<String, int[]> byClass;
+	private final Map<String, int[]> byTeacher;
+	private final Map<String, int[]> byRoom;
+
+	private SubstitutionPlanIndex(List<SubstitutionPlan> plans, int[] planStarts, Map<String, int[]> byClass,
+			Map<String, int[]> byTeacher, Map<String, int[]> byRoom) {
+		this.plans = plans;
+		this.planStarts = planStarts;
+		this.byClass = byClass;
+		this.byTeacher = byTeacher;
+		this.byRoom = byRoom;
+	}
+
+	public static SubstitutionPlanIndex empty() {
+		return EMPTY;
+	}
+
+	public static SubstitutionPlanIndex build(List<SubstitutionPlan> plans) {
+		if (plans.isEmpty()) {
+			return EMPTY;
+		}
+		Map<String, List<Integer>> byClass = new HashMap<>();
+		Map<String, List<Integer>> byTeacher = new HashMap<>();
+		Map<String, List<Integer>> byRoom = new HashMap<>();
+		int[] planStarts = new int[plans.size() + 1];
+		int position = 0;
+		for (int i = 0; i < plans.size(); i++) {
+			planStarts[i] = position;
+			for (SubstitutionEntry entry : plans.get(i).getEntries()) {
+				add(byClass, classKeys(entry.getClasses()), position);
+				Set<String> teachers = teacherKeys(entry.getAbsent());
+				teachers.addAll(teacherKeys(entry.getSubstitute()));
+				add(byTeacher, teachers, position);
+				add(byRoom, roomKeys(entry.getNewRoom()), position);
+				position++;
+			}
+		}
+		planStarts[plans.size()] = position;
+		return new SubstitutionPlanIndex(List.copyOf(plans), planStarts, freeze(byClass), freeze(byTeacher),
+				freeze(byRoom));
+	}
+
+	/**
+	 * Returns copies of all plans that only contain the entries matching every
+	 * given criterion; {@code null} or blank criteria are ignored. Plans without
+	 * matching entries are kept so their date and news stay available. A class
+	 * also matches entries for its whole grade, so {@code 7b} finds {@code 7}.
+	 */
+	public List<SubstitutionPlan> filter(String className, String teacher, String room) {
+		BitSet matches = null;
+		if (className != null && !className.isBlank()) {
+			Set<String> keys = classKeys(className);
+			for (String key : new ArrayList<>(keys)) {
+				Matcher matcher = CLASS_NAME.matcher(key);
+				if (matcher.matches() && !matcher.group(2).isEmpty()) {
+					keys.add(matcher.group(1));
+				}
+			}
+			matches = restrict(matches, lookup(byClass, keys));
+		}
+		if (teacher != null && !teacher.isBlank()) {
+			matches = restrict(matches, lookup(byTeacher, teacherKeys(teacher)));
+		}
+		if (room != null && !room.isBlank()) {
+			matches = restrict(matches, lookup(byRoom, roomKeys(room)));
+		}
+
+		List<SubstitutionPlan> result = new ArrayList<>(plans.size());
+		for (int i = 0; i < plans.size(); i++) {
+			SubstitutionPlan plan = plans.get(i);
+			SubstitutionPlan filtered = new SubstitutionPlan();
+			filtered.setDate(plan.getDate());
+			filtered.setTitle(plan.getTitle());
+			filtered.setNews(plan.getNews());
+			filtered.setSortPriority(plan.getSortPriority());
+			if (matches == null) {
+				filtered.setEntries(new ArrayList<>(plan.getEntries()));
+			} else {
+				int start = planStarts[i];
+				int end = planStarts[i + 1];
+				List<SubstitutionEntry> entries = new ArrayList<>();
+				for (int position = matches.nextSetBit(start); position >= 0
+						&& position < end; position = matches.nextSetBit(position + 1)) {
+					entries.add(plan.getEntries().get(position - start));
+				}
+				filtered.setEntries(entries);
+			}
+			result.add(filtered);
+		}
+		return result;
+	}
+
+	/**
+	 * Splits an Untis class column such as {@code "7a, 7b"}, {@code "05a"},
+	 * {@code "7a-7c"} or {@code "5-7"} into normalized class names.
+	 */
+	static Set<String> classKeys(String classes) {
+		Set<String> keys = new LinkedHashSet<>();
+		if (classes == null) {
+			return keys;
+		}
+		for (String part : LIST_SEPARATOR.split(classes)) {
+			String token = normalize(part);
+			if (!hasLetterOrDigit(token)) {
+				continue;
+			}
+			Matcher range = CLASS_RANGE.matcher(token);
+			if (range.matches() && expandRange(range, keys)) {
+				continue;
+			}
+			Matcher name = CLASS_NAME.matcher(token);
+			keys.add(name.matches() ? name.group(1) + name.group(2) : token);
+		}
+		return keys;
+	}
+
+	/** Splits an absent or substitute column such as {@code "Mül, Sch"} into teacher keys. */
+	static Set<String> teacherKeys(String teachers) {
+		Set<String> keys = new LinkedHashSet<>();
+		if (teachers == null) {
+			return keys;
+		}
+		for (String part : TEACHER_SEPARATOR.split(teachers)) {
+			String token = normalize(part);
+			if (hasLetterOrDigit(token)) {
+				keys.add(token);
+			}
+		}
+		return keys;
+	}
+
+	/** Splits a room column such as {@code "B12, B13"} into room keys. */
+	static Set<String> roomKeys(String rooms) {
+		Set<String> keys = new LinkedHashSet<>();
+		if (rooms == null) {
+			return keys;
+		}
+		for (String part : LIST_SEPARATOR.split(rooms)) {
+			String token = normalize(part);
+			if (hasLetterOrDigit(token)) {
+				keys.add(token);
+			}
+		}
+		return keys;
+	}
+
+	private static boolean expandRange(Matcher range, Set<String> keys) {
+		int fromGrade = Integer.parseInt(range.group(1));
+		String fromLetter = range.group(2);
+		int toGrade = range.group(3) != null ? Integer.parseInt(range.group(3)) : fromGrade;
+		String toLetter = range.group(4);
+
+		if (fromLetter.isEmpty() && toLetter.isEmpty()) {
+			if (toGrade < fromGrade || toGrade - fromGrade > MAX_GRADE_SPAN) {
+				return false;
+			}
+			for (int grade = fromGrade; grade <= toGrade; grade++) {
+				keys.add(Integer.toString(grade));
+			}
+			return true;
+		}
+		if (fromGrade != toGrade || fromLetter.isEmpty() || toLetter.isEmpty()
+				|| toLetter.charAt(0) < fromLetter.charAt(0)) {
+			return false;
+		}
+		for (char letter = fromLetter.charAt(0); letter <= toLetter.charAt(0); letter++) {
+			keys.add(fromGrade + String.valueOf(letter));
+		}
+		return true;
+	}
+
+	private static String normalize(String value) {
+		return WHITESPACE.matcher(value).replaceAll("").toLowerCase(Locale.ROOT);
+	}
+
+	private static boolean hasLetterOrDigit(String value) {
+		for (int i = 0; i < value.length(); i++) {
+			if (Character.isLetterOrDigit(value.charAt(i))) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static void add(Map<String, List<Integer>> index, Collection<String> keys, int position) {
+		for (String key : keys) {
+			index.computeIfAbsent(key, k -> new ArrayList<>()).add(position);
+		}
+	}
+
+	private static Map<String, int[]> freeze(Map<String, List<Integer>> index) {
+		Map<String, int[]> frozen = new HashMap<>(index.size() * 2);
+		index.forEach((key, positions) -> frozen.put(key, positions.stream().mapToInt(Integer::intValue).toArray()));
+		return Map.copyOf(frozen);
+	}
+
+	private static BitSet lookup(Map<String, int[]> index, Collection<String> keys) {
+		BitSet result = new BitSet();
+		for (String key : keys) {
+			int[] positions = index.get(key);
+			if (positions != null) {
+				for (int position : positions) {
+					result.set(position);
+				}
+			}
+		}
+		return result;
+	}
+
+	private static BitSet restrict(BitSet matches, BitSet criterion) {
+		if (matches == null) {
+			return criterion;
+		}
+		matches.and(criterion);
+		return matches;
+	}
+}
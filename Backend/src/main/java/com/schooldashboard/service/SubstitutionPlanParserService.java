@@ -1,29 +1,87 @@
 package com.schooldashboard.service;
 
+import com.schooldashboard.config.SubstitutionParserProperties;
 import com.schooldashboard.model.DailyNews;
 import com.schooldashboard.model.ParsedPlanDocument;
+import com.schooldashboard.model.RawPlanPage;
 import com.schooldashboard.model.SubstitutionEntry;
 import com.schooldashboard.model.SubstitutionPlan;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 import org.jsoup.Jsoup;
 import org.jsoup.nodes.Document;
 import org.jsoup.nodes.Element;
+import org.jsoup.parser.Parser;
+import org.jsoup.parser.StreamParser;
 import org.jsoup.select.Elements;
+import org.jsoup.select.Evaluator;
+import org.jsoup.select.QueryParser;
 import org.springframework.stereotype.Service;
 
 @Service
 public class SubstitutionPlanParserService {
 
+	private static final int CHARSET_SNIFF_LENGTH = 5120;
+	private static final Pattern META_CHARSET = Pattern
+			.compile("(?i)<meta[^>]+charset\\s*=\\s*[\"']?([A-Za-z0-9._:-]+)");
+
+	private static final Evaluator MON_LIST_TABLE = QueryParser.parse("table.mon_list");
+	private static final Evaluator LIST_ROW = QueryParser.parse("tr.list");
+
+	private final PlanPageClient pageClient;
+	private final SubstitutionParserProperties parserProperties;
+
+	public SubstitutionPlanParserService(PlanPageClient pageClient, SubstitutionParserProperties parserProperties) {
+		this.pageClient = pageClient;
+		this.parserProperties = parserProperties;
+	}
+
 	public SubstitutionPlan parseSubstitutionPlanFromUrl(String url) {
 		return parsePlanDocumentFromUrl(url).getPlan();
 	}
 
 	public ParsedPlanDocument parsePlanDocumentFromUrl(String url) {
+		return parsePlanDocument(fetchPage(url));
+	}
+
+	/** Downloads a plan page without parsing it. */
+	public RawPlanPage fetchPage(String url) {
+		return fetchPage(url, null, null);
+	}
+
+	/**
+	 * Downloads a plan page unless it is unchanged since the response that
+	 * produced {@code eTag} and {@code lastModified}; in that case the returned
+	 * page is {@link RawPlanPage#isNotModified() not modified}.
+	 */
+	public RawPlanPage fetchPage(String url, String eTag, String lastModified) {
+		try {
+			return pageClient.fetch(url, eTag, lastModified);
+		} catch (IOException e) {
+			throw new RuntimeException("Error fetching or parsing substitution plan", e);
+		}
+	}
+
+	/**
+	 * Parses a downloaded plan page with the configured parser mode. The returned
+	 * raw HTML is jsoup's serialized document in DOM mode and the page as served,
+	 * decoded with the announced or detected charset, in streaming mode.
+	 */
+	public ParsedPlanDocument parsePlanDocument(RawPlanPage page) {
 		try {
-			// Connect to the URL and get the document
-			Document doc = Jsoup.connect(url).get();
+			if (parserProperties.getMode() == SubstitutionParserProperties.Mode.STREAMING) {
+				return parsePlanDocumentStreaming(page);
+			}
+			Document doc = Jsoup.parse(new ByteArrayInputStream(page.getBody()), page.getCharset(), page.getUrl());
 			SubstitutionPlan plan = parseDocument(doc);
 			return new ParsedPlanDocument(plan, doc.outerHtml());
 		} catch (IOException e) {
@@ -33,7 +91,89 @@ public class SubstitutionPlanParserService {
 
 	private SubstitutionPlan parseDocument(Document doc) {
 		SubstitutionPlan plan = new SubstitutionPlan();
+		parsePlanHeader(doc, plan);
+
+		// Extract table data for substitutions - first get the headers
+		Element tableElement = doc.selectFirst("table.mon_list");
+		if (tableElement != null) {
+			Elements headerElements = tableElement.select("tr.list th");
+
+			// Create a mapping between column index and field type
+			Map<Integer, String> columnMap = new HashMap<>();
+			for (int i = 0; i < headerElements.size(); i++) {
+				mapColumn(columnMap, i, headerElements.get(i));
+			}
+
+			// Process each row in the table
+			Elements rowElements = tableElement.select("tr.list.odd, tr.list.even");
+			for (Element row : rowElements) {
+				SubstitutionEntry entry = toEntry(row, columnMap);
+				if (entry != null) {
+					entry.setDate(plan.getDate());
+					plan.addEntry(entry);
+				}
+			}
+		}
+
+		return plan;
+	}
+
+	/**
+	 * Streaming variant of {@link #parseDocument(Document)}. Rows of the first
+	 * {@code table.mon_list} are converted to entries as soon as the tokenizer
+	 * closes them and are then removed, so the substitution table never exists as
+	 * a complete DOM. Date, title and news are read from the remaining document.
+	 */
+	private ParsedPlanDocument parsePlanDocumentStreaming(RawPlanPage page) throws IOException {
+		byte[] body = page.getBody();
+		Charset charset = resolveCharset(page);
+		int offset = hasUtf8Bom(body) && charset.equals(StandardCharsets.UTF_8) ? 3 : 0;
+
+		SubstitutionPlan plan = new SubstitutionPlan();
+		Element table = null;
+		Map<Integer, String> columnMap = new HashMap<>();
+		int headerCount = 0;
+		Reader reader = new InputStreamReader(new ByteArrayInputStream(body, offset, body.length - offset), charset);
+		try (StreamParser streamer = new StreamParser(Parser.htmlParser()).parse(reader, page.getUrl())) {
+			Iterator<Element> elements = streamer.iterator();
+			while (elements.hasNext()) {
+				Element element = elements.next();
+				if (table == null && element.is(MON_LIST_TABLE)) {
+					table = element;
+				}
+				if (!element.is(LIST_ROW)) {
+					continue;
+				}
+				Element enclosingTable = element.closest(MON_LIST_TABLE);
+				if (enclosingTable == null || (table != null && table != enclosingTable)) {
+					continue;
+				}
+				table = enclosingTable;
 
+				for (Element header : element.select("th")) {
+					mapColumn(columnMap, headerCount++, header);
+				}
+				if (element.hasClass("odd") || element.hasClass("even")) {
+					SubstitutionEntry entry = toEntry(element, columnMap);
+					if (entry != null) {
+						plan.addEntry(entry);
+					}
+				}
+				element.remove();
+			}
+
+			parsePlanHeader(streamer.document(), plan);
+		}
+
+		// The title may follow the table, so entry dates are filled in afterwards
+		for (SubstitutionEntry entry : plan.getEntries()) {
+			entry.setDate(plan.getDate());
+		}
+		return new ParsedPlanDocument(plan, new String(body, charset));
+	}
+
+	/** Reads date, title and daily news, which surround the substitution table. */
+	private void parsePlanHeader(Document doc, SubstitutionPlan plan) {
 		// Extract date from the page
 		Element titleElement = doc.selectFirst("div.mon_title");
 		if (titleElement != null) {
@@ -58,75 +198,101 @@ public class SubstitutionPlanParserService {
 		// Extract news for the day - look for elements after "Nachrichten zum Tag"
 		// heading
 		extractDailyNews(doc, plan.getNews());
+	}
 
-		// Extract table data for substitutions - first get the headers
-		Element tableElement = doc.selectFirst("table.mon_list");
-		if (tableElement != null) {
-			Elements headerElements = tableElement.select("tr.list th");
+	private void mapColumn(Map<Integer, String> columnMap, int index, Element headerElement) {
+		String header = headerElement.text().toLowerCase().trim();
 
-			// Create a mapping between column index and field type
-			Map<Integer, String> columnMap = new HashMap<>();
-			for (int i = 0; i < headerElements.size(); i++) {
-				String header = headerElements.get(i).text().toLowerCase().trim();
-
-				if (header.contains("klasse")) {
-					columnMap.put(i, "classes");
-				} else if (header.contains("stunde")) {
-					columnMap.put(i, "period");
-				} else if (header.contains("abwesend")) {
-					columnMap.put(i, "absent");
-				} else if (header.contains("vertreter")) {
-					columnMap.put(i, "substitute");
-				} else if (header.contains("(fach)")) {
-					columnMap.put(i, "originalSubject");
-				} else if (header.contains("fach") && !header.contains("(fach)")) {
-					columnMap.put(i, "subject");
-				} else if (header.contains("raum")) {
-					columnMap.put(i, "room");
-				} else if (header.contains("art")) {
-					columnMap.put(i, "type");
-				} else if (header.contains("bemerkung")) {
-					columnMap.put(i, "comment");
-				}
-			}
+		if (header.contains("klasse")) {
+			columnMap.put(index, "classes");
+		} else if (header.contains("stunde")) {
+			columnMap.put(index, "period");
+		} else if (header.contains("abwesend")) {
+			columnMap.put(index, "absent");
+		} else if (header.contains("vertreter")) {
+			columnMap.put(index, "substitute");
+		} else if (header.contains("(fach)")) {
+			columnMap.put(index, "originalSubject");
+		} else if (header.contains("fach") && !header.contains("(fach)")) {
+			columnMap.put(index, "subject");
+		} else if (header.contains("raum")) {
+			columnMap.put(index, "room");
+		} else if (header.contains("art")) {
+			columnMap.put(index, "type");
+		} else if (header.contains("bemerkung")) {
+			columnMap.put(index, "comment");
+		}
+	}
 
-			// Process each row in the table
-			Elements rowElements = tableElement.select("tr.list.odd, tr.list.even");
-			for (Element row : rowElements) {
-				Elements cells = row.select("td");
+	private SubstitutionEntry toEntry(Element row, Map<Integer, String> columnMap) {
+		Elements cells = row.select("td");
+		if (cells.isEmpty()) {
+			return null;
+		}
 
-				if (!cells.isEmpty()) {
-					SubstitutionEntry entry = new SubstitutionEntry();
-					entry.setDate(plan.getDate());
+		SubstitutionEntry entry = new SubstitutionEntry();
 
-					// Map each cell to the appropriate field based on the column index
-					for (int i = 0; i < cells.size(); i++) {
-						String value = cells.get(i).text().trim();
-						String fieldType = columnMap.getOrDefault(i, null);
-
-						if (fieldType != null) {
-							switch (fieldType) {
-								case "classes" -> entry.setClasses(value);
-								case "period" -> entry.setPeriod(value);
-								case "absent" -> entry.setAbsent(value);
-								case "substitute" -> entry.setSubstitute(value);
-								case "originalSubject" -> entry.setOriginalSubject(value);
-								case "subject" -> entry.setSubject(value);
-								case "room" -> entry.setNewRoom(value);
-								case "type" -> entry.setType(value);
-								case "comment" -> entry.setComment(value);
-								default -> {
-								}
-							}
-						}
-					}
+		// Map each cell to the appropriate field based on the column index
+		for (int i = 0; i < cells.size(); i++) {
+			String value = cells.get(i).text().trim();
+			String fieldType = columnMap.getOrDefault(i, null);
 
-					plan.addEntry(entry);
+			if (fieldType != null) {
+				switch (fieldType) {
+					case "classes" -> entry.setClasses(value);
+					case "period" -> entry.setPeriod(value);
+					case "absent" -> entry.setAbsent(value);
+					case "substitute" -> entry.setSubstitute(value);
+					case "originalSubject" -> entry.setOriginalSubject(value);
+					case "subject" -> entry.setSubject(value);
+					case "room" -> entry.setNewRoom(value);
+					case "type" -> entry.setType(value);
+					case "comment" -> entry.setComment(value);
+					default -> {
+					}
 				}
 			}
 		}
+		return entry;
+	}
 
-		return plan;
+	/**
+	 * Uses the charset announced by the server, falling back to a {@code <meta>}
+	 * declaration near the start of the page and finally UTF-8, like jsoup does.
+	 */
+	private Charset resolveCharset(RawPlanPage page) {
+		Charset announced = toCharset(page.getCharset());
+		if (announced != null) {
+			return announced;
+		}
+		byte[] body = page.getBody();
+		if (hasUtf8Bom(body)) {
+			return StandardCharsets.UTF_8;
+		}
+		String head = new String(body, 0, Math.min(body.length, CHARSET_SNIFF_LENGTH), StandardCharsets.ISO_8859_1);
+		Matcher matcher = META_CHARSET.matcher(head);
+		if (matcher.find()) {
+			Charset declared = toCharset(matcher.group(1));
+			if (declared != null) {
+				return declared;
+			}
+		}
+		return StandardCharsets.UTF_8;
+	}
+
+	private static Charset toCharset(String name) {
+		if (name == null || name.isBlank()) {
+			return null;
+		}
+		try {
+			return Charset.forName(name.trim());
+		} catch (IllegalArgumentException e) {
+			return null;
+		}
+	}
+
+	private static boolean hasUtf8Bom(byte[] body) {
+		return body.length >= 3 && (body[0] & 0xFF) == 0xEF && (body[1] & 0xFF) == 0xBB && (body[2] & 0xFF) == 0xBF;
 	}
 
 	private void extractDailyNews(Document doc, DailyNews news) {
@@ -176,7 +176,7 @@ public class SubstitutionPlanPersistenceService {
 		return null;
 	}
 
-	private String hashContent(String content) {
+	String hashContent(String content) {
 		try {
 			MessageDigest digest = MessageDigest.getInstance("SHA-256");
 			byte[] hashBytes = digest.digest(content.getBytes(StandardCharsets.UTF_8));
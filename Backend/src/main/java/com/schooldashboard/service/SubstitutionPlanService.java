@@ -1,17 +1,41 @@
 package com.schooldashboard.service;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.schooldashboard.config.SubstitutionRefreshProperties;
+import com.schooldashboard.model.DailyNews;
 import com.schooldashboard.model.ParsedPlanDocument;
+import com.schooldashboard.model.RawPlanPage;
+import com.schooldashboard.model.SubstitutionEntry;
 import com.schooldashboard.model.SubstitutionPlan;
+import com.schooldashboard.util.ContentHash;
 import com.schooldashboard.util.DSBMobile.TimeTable;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.ReentrantLock;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
@@ -19,24 +43,99 @@ import org.springframework.stereotype.Service;
 public class SubstitutionPlanService {
 
 	private static final Logger logger = LoggerFactory.getLogger(SubstitutionPlanService.class);
+	/** Delay before a failed background refresh is tried again. */
+	private static final Duration RETRY_DELAY = Duration.ofMinutes(1);
 
 	private final DSBService dsbService;
 	private final SubstitutionPlanParserService parserService;
 	private final SubstitutionPlanPersistenceService persistenceService;
 	private final ApiResponseCacheService cacheService;
-	private volatile List<SubstitutionPlan> latestPlans = List.of();
+	private final ObjectMapper objectMapper;
+	private final SubstitutionRefreshProperties refreshProperties;
+	private final ApplicationEventPublisher eventPublisher;
+	private final StaleWhileRevalidate staleWhileRevalidate;
+	private final Map<String, CachedPage> pageCache = new ConcurrentHashMap<>();
+	/** Held while plans are updated, so scheduled and background refreshes never overlap. */
+	private final ReentrantLock updateLock = new ReentrantLock();
+	private volatile SubstitutionPlanSnapshot latestSnapshot = SubstitutionPlanSnapshot.empty();
+	/** When the plans were last confirmed against DSB, {@code null} before the first refresh. */
+	private volatile Instant lastRefreshed;
+	/** Earliest start of the next background refresh, pushed back when one fails. */
+	private volatile long nextRevalidationMillis;
+	private String lastRefreshSignature;
 
 	public SubstitutionPlanService(DSBService dsbService, SubstitutionPlanParserService parserService,
-			SubstitutionPlanPersistenceService persistenceService, ApiResponseCacheService cacheService) {
+			SubstitutionPlanPersistenceService persistenceService, ApiResponseCacheService cacheService,
+			ObjectMapper objectMapper, SubstitutionRefreshProperties refreshProperties,
+			ApplicationEventPublisher eventPublisher, StaleWhileRevalidate staleWhileRevalidate) {
 		this.dsbService = dsbService;
 		this.parserService = parserService;
 		this.persistenceService = persistenceService;
 		this.cacheService = cacheService;
+		this.objectMapper = objectMapper;
+		this.refreshProperties = refreshProperties;
+		this.eventPublisher = eventPublisher;
+		this.staleWhileRevalidate = staleWhileRevalidate;
 	}
 
 	/** Gets the latest substitution plans, either from cache or by fetching them */
 	public List<SubstitutionPlan> getSubstitutionPlans() {
-		return latestPlans;
+		return latestSnapshot.getPlans();
+	}
+
+	/**
+	 * Gets the latest plans together with their pre-serialized and pre-compressed
+	 * JSON bodies. The snapshot is replaced atomically on every successful refresh;
+	 * once it is past its soft TTL an update is started in the background. After
+	 * an update that did not refresh the plans the next one waits for
+	 * {@link #RETRY_DELAY}.
+	 */
+	public SubstitutionPlanSnapshot getSnapshot() {
+		SubstitutionPlanSnapshot snapshot = latestSnapshot;
+		// Before the first refresh the startup update is already on its way
+		if (lastRefreshed != null && getFreshness().isStale(Instant.now())
+				&& System.currentTimeMillis() >= nextRevalidationMillis) {
+			staleWhileRevalidate.revalidate("substitution", this::revalidate);
+		}
+		return snapshot;
+	}
+
+	private void revalidate() {
+		Instant previous = lastRefreshed;
+		updateSubstitutionPlans();
+		// Update failures are logged, not thrown; they leave lastRefreshed as it was
+		if (lastRefreshed == previous) {
+			nextRevalidationMillis = System.currentTimeMillis() + RETRY_DELAY.toMillis();
+		}
+	}
+
+	/** Age of the plans returned by {@link #getSnapshot()}. */
+	public Freshness getFreshness() {
+		return staleWhileRevalidate.freshness(StaleWhileRevalidate.Resource.SUBSTITUTION, lastRefreshed);
+	}
+
+	/**
+	 * Gets the latest plans reduced to the entries matching the given class,
+	 * teacher and room; {@code null} criteria are ignored. Served from the index of
+	 * the current snapshot, or from the stored plans before the first refresh.
+	 */
+	public List<SubstitutionPlan> findSubstitutionPlans(String className, String teacher, String room) {
+		SubstitutionPlanSnapshot snapshot = latestSnapshot;
+		if (!snapshot.isEmpty()) {
+			return snapshot.getIndex().filter(className, teacher, room);
+		}
+		Optional<String> cached = cacheService.getRawJson(ApiResponseCacheKeys.SUBSTITUTION_PLANS);
+		if (cached.isEmpty()) {
+			return List.of();
+		}
+		try {
+			List<SubstitutionPlan> plans = objectMapper.readValue(cached.get(),
+					new TypeReference<List<SubstitutionPlan>>() {
+					});
+			return SubstitutionPlanIndex.build(plans).filter(className, teacher, room);
+		} catch (JsonProcessingException e) {
+			throw new IllegalStateException("Stored substitution plans are not readable", e);
+		}
 	}
 
 	/**
@@ -45,8 +144,20 @@ public class SubstitutionPlanService {
 	 */
 	@Scheduled(fixedRate = 300000) // Run every 5 minutes (300000 ms)
 	@CacheEvict(value = "substitutionPlans", allEntries = true)
-	@SuppressWarnings("CallToPrintStackTrace")
 	public void updateSubstitutionPlans() {
+		if (!updateLock.tryLock()) {
+			logger.info("[SubstitutionPlanService] Plan update already running, skipping");
+			return;
+		}
+		try {
+			runUpdate();
+		} finally {
+			updateLock.unlock();
+		}
+	}
+
+	@SuppressWarnings("CallToPrintStackTrace")
+	private void runUpdate() {
 		logger.info("===============================================================");
 		logger.info("[SubstitutionPlanService] Starting plan update at {}", new java.util.Date());
 		long startTime = System.currentTimeMillis();
@@ -59,23 +170,29 @@ public class SubstitutionPlanService {
 
 			// Group timetables by UUID (same UUID = same day plan)
 			Map<UUID, List<TimeTable>> timeTablesByUuid = new HashMap<>();
+			List<TimeTable> validTables = new ArrayList<>();
 
-			int validTables = 0;
 			for (TimeTable table : timeTables) {
 				if (table.getDetail() != null && !table.getDetail().isEmpty()) {
 					logger.info("[SubstitutionPlanService] Found timetable: UUID={} , Group={} , Detail URL={}",
 							table.getUUID(), table.getGroupName(), table.getDetail());
 					timeTablesByUuid.computeIfAbsent(table.getUUID(), k -> new ArrayList<>()).add(table);
-					validTables++;
+					validTables.add(table);
 				} else {
 					logger.info("[SubstitutionPlanService] Skipping timetable with empty detail URL: {}",
 							table.getTitle());
 				}
 			}
-			logger.info("[SubstitutionPlanService] Found {} valid timetables in {} distinct groups", validTables,
-					timeTablesByUuid.size());
+			logger.info("[SubstitutionPlanService] Found {} valid timetables in {} distinct groups",
+					validTables.size(), timeTablesByUuid.size());
+
+			// Download all detail pages concurrently; only pages whose content changed are
+			// parsed again, failed pages are left out
+			Map<TimeTable, FetchedPage> fetchedPages = fetchPlanPages(validTables);
 
 			List<SubstitutionPlan> combinedPlans = new ArrayList<>();
+			StringBuilder refreshSignature = new StringBuilder();
+			int changedPages = 0;
 
 			// Process each group of timetables (each UUID represents one day's plan)
 			for (UUID uuid : timeTablesByUuid.keySet()) {
@@ -88,26 +205,50 @@ public class SubstitutionPlanService {
 				logger.info("[SubstitutionPlanService] Processing group: {} with {} tables (UUID: {})", groupName,
 						tables.size(), uuid);
 
-				// Create a combined plan for this UUID
+				// Create a combined plan for this UUID, sized for the entries of all its pages
 				SubstitutionPlan combinedPlan = null;
+				int expectedEntries = 0;
+				for (TimeTable table : tables) {
+					FetchedPage fetchedPage = fetchedPages.get(table);
+					if (fetchedPage != null) {
+						expectedEntries += fetchedPage.document().getPlan().getEntries().size();
+					}
+				}
 				int totalEntries = 0;
 				int totalNewsItems = 0;
 
 				for (TimeTable table : tables) {
+					FetchedPage fetchedPage = fetchedPages.get(table);
+					if (fetchedPage == null) {
+						continue;
+					}
 					try {
 						logger.info("[SubstitutionPlanService]   - Processing detail URL: {}", table.getDetail());
-						ParsedPlanDocument parsedDocument = parserService.parsePlanDocumentFromUrl(table.getDetail());
+						ParsedPlanDocument parsedDocument = fetchedPage.document();
 						SubstitutionPlan plan = parsedDocument.getPlan();
-						persistenceService.store(table, plan, parsedDocument.getRawHtml());
+						String tableKey = tableKey(table);
+						CachedPage cachedPage = pageCache.get(table.getDetail());
+						if (cachedPage == null || cachedPage.document() != parsedDocument
+								|| !cachedPage.tableKey().equals(tableKey)) {
+							persistenceService.store(table, plan, parsedDocument.getRawHtml());
+							changedPages++;
+						} else {
+							logger.info("[SubstitutionPlanService]     Page unchanged since last refresh");
+						}
+						pageCache.put(table.getDetail(), new CachedPage(fetchedPage.contentHash(), tableKey,
+								parsedDocument, fetchedPage.eTag(), fetchedPage.lastModified()));
+						refreshSignature.append(tableKey).append('|').append(table.getDetail()).append('|')
+								.append(fetchedPage.contentHash()).append('\n');
 
 						// Log details about the parsed plan
 						logger.info("[SubstitutionPlanService]     Date: {} , Entries: {} , News items: {}",
 								plan.getDate(), plan.getEntries().size(), plan.getNews().getNewsItems().size());
 
-						// For the first plan, initialize the combined plan
+						// For the first plan, initialize the combined plan. Parsed plans are kept in the
+						// page cache and reused by later refreshes, so they are copied instead of mutated.
 						if (combinedPlan == null) {
 							logger.info("[SubstitutionPlanService]     Initializing combined plan with first page");
-							combinedPlan = plan;
+							combinedPlan = copyPlan(plan, expectedEntries);
 							totalEntries = plan.getEntries().size();
 							totalNewsItems = plan.getNews().getNewsItems().size();
 						} else {
@@ -120,14 +261,8 @@ public class SubstitutionPlanService {
 									plan.getEntries().size(), combinedPlan.getEntries().size());
 
 							// Merge news items without duplicates
-							int newNewsItems = 0;
-							for (String newsItem : plan.getNews().getNewsItems()) {
-								if (!combinedPlan.getNews().getNewsItems().contains(newsItem)) {
-									combinedPlan.getNews().addNewsItem(newsItem);
-									newNewsItems++;
-									totalNewsItems++;
-								}
-							}
+							int newNewsItems = mergeNews(combinedPlan, plan);
+							totalNewsItems += newNewsItems;
 							logger.info("[SubstitutionPlanService]     Added {} unique news items. Total now: {}",
 									newNewsItems, combinedPlan.getNews().getNewsItems().size());
 						}
@@ -159,6 +294,22 @@ public class SubstitutionPlanService {
 				}
 			}
 
+			// Forget pages that are no longer listed by DSB
+			Set<String> listedUrls = new HashSet<>();
+			for (TimeTable table : validTables) {
+				listedUrls.add(table.getDetail());
+			}
+			pageCache.keySet().retainAll(listedUrls);
+
+			String signature = refreshSignature.toString();
+			if (changedPages == 0 && !latestSnapshot.isEmpty() && signature.equals(lastRefreshSignature)) {
+				lastRefreshed = Instant.now();
+				long duration = System.currentTimeMillis() - startTime;
+				logger.info("[SubstitutionPlanService] No plan page changed; keeping current plans ({}ms)", duration);
+				logger.info("===============================================================");
+				return;
+			}
+
 			logger.info("[SubstitutionPlanService] Created {} combined plans, now sorting...", combinedPlans.size());
 
 			// Sort plans by priority (heute first, then morgen, then others)
@@ -182,8 +333,16 @@ public class SubstitutionPlanService {
 			}
 
 			if (!combinedPlans.isEmpty()) {
-				this.latestPlans = List.copyOf(combinedPlans);
-				cacheService.store(ApiResponseCacheKeys.SUBSTITUTION_PLANS, combinedPlans);
+				SubstitutionPlanSnapshot snapshot = SubstitutionPlanSnapshot.create(combinedPlans,
+						objectMapper.writeValueAsBytes(combinedPlans));
+				SubstitutionPlanSnapshot previous = this.latestSnapshot;
+				this.latestSnapshot = snapshot;
+				this.lastRefreshSignature = signature;
+				this.lastRefreshed = Instant.now();
+				cacheService.storeJson(ApiResponseCacheKeys.SUBSTITUTION_PLANS, snapshot.getJson());
+				if (!snapshot.getContentHash().equals(previous.getContentHash())) {
+					eventPublisher.publishEvent(new SubstitutionPlansUpdatedEvent(snapshot));
+				}
 			} else {
 				logger.warn("[SubstitutionPlanService] No plans parsed; keeping previously stored plans");
 			}
@@ -198,6 +357,130 @@ public class SubstitutionPlanService {
 		logger.info("===============================================================");
 	}
 
+	/**
+	 * Downloads the detail pages of {@code tables} on virtual threads, running at
+	 * most {@code substitution.refresh.max-parallel-fetches} at once. Known pages are
+	 * requested conditionally, and a page is only parsed when the server reports a
+	 * change and its content hash differs from the cached one; otherwise the cached
+	 * document is returned. Each result is awaited for at most the configured page
+	 * timeout; pages that fail or time out are logged and left out of the returned
+	 * map.
+	 */
+	private Map<TimeTable, FetchedPage> fetchPlanPages(List<TimeTable> tables) {
+		Map<TimeTable, FetchedPage> pages = new IdentityHashMap<>();
+		if (tables.isEmpty()) {
+			return pages;
+		}
+
+		Semaphore permits = new Semaphore(refreshProperties.getMaxParallelFetches());
+		long timeoutMillis = refreshProperties.getPageTimeout().toMillis();
+		ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+		try {
+			List<Future<FetchedPage>> futures = new ArrayList<>(tables.size());
+			for (TimeTable table : tables) {
+				futures.add(executor.submit(() -> {
+					permits.acquire();
+					try {
+						return fetchPlanPage(table.getDetail());
+					} finally {
+						permits.release();
+					}
+				}));
+			}
+
+			for (int i = 0; i < tables.size(); i++) {
+				String detailUrl = tables.get(i).getDetail();
+				Future<FetchedPage> future = futures.get(i);
+				try {
+					pages.put(tables.get(i), future.get(timeoutMillis, TimeUnit.MILLISECONDS));
+				} catch (TimeoutException e) {
+					future.cancel(true);
+					logger.error("[SubstitutionPlanService] ERROR fetching plan from URL {}: timed out after {}ms",
+							detailUrl, timeoutMillis);
+				} catch (ExecutionException e) {
+					logger.error("[SubstitutionPlanService] ERROR parsing plan from URL {}: {}", detailUrl,
+							e.getCause().getMessage(), e.getCause());
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					logger.error("[SubstitutionPlanService] Interrupted while fetching plan pages");
+					break;
+				}
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+		return pages;
+	}
+
+	private FetchedPage fetchPlanPage(String detailUrl) {
+		CachedPage cachedPage = pageCache.get(detailUrl);
+		RawPlanPage page = parserService.fetchPage(detailUrl, cachedPage != null ? cachedPage.eTag() : null,
+				cachedPage != null ? cachedPage.lastModified() : null);
+		if (page.isNotModified()) {
+			if (cachedPage != null) {
+				return new FetchedPage(cachedPage.contentHash(), cachedPage.document(), cachedPage.eTag(),
+						cachedPage.lastModified());
+			}
+			// Without a cached parse a 304 is useless; download the page unconditionally
+			page = parserService.fetchPage(detailUrl, null, null);
+		}
+
+		String contentHash = ContentHash.sha256Hex(page.getBody());
+		if (cachedPage != null && cachedPage.contentHash().equals(contentHash)) {
+			return new FetchedPage(contentHash, cachedPage.document(), page.getETag(), page.getLastModified());
+		}
+		return new FetchedPage(contentHash, parserService.parsePlanDocument(page), page.getETag(),
+				page.getLastModified());
+	}
+
+	private static String tableKey(TimeTable table) {
+		return table.getUUID() + "|" + table.getGroupName() + "|" + table.getDate() + "|" + table.getTitle();
+	}
+
+	/**
+	 * Copies a page plan so the combined plan can be extended without touching the
+	 * cached page. The entry list is sized for {@code entryCapacity} entries.
+	 */
+	static SubstitutionPlan copyPlan(SubstitutionPlan plan, int entryCapacity) {
+		SubstitutionPlan copy = new SubstitutionPlan();
+		copy.setDate(plan.getDate());
+		copy.setTitle(plan.getTitle());
+		List<SubstitutionEntry> entries = new ArrayList<>(Math.max(entryCapacity, plan.getEntries().size()));
+		entries.addAll(plan.getEntries());
+		copy.setEntries(entries);
+		DailyNews news = new DailyNews(plan.getNews().getDate());
+		news.setNewsItems(plan.getNews().getNewsItems());
+		copy.setNews(news);
+		return copy;
+	}
+
+	/**
+	 * Appends the news items of {@code plan} that {@code combinedPlan} does not
+	 * contain yet and returns how many were added.
+	 */
+	static int mergeNews(SubstitutionPlan combinedPlan, SubstitutionPlan plan) {
+		DailyNews combinedNews = combinedPlan.getNews();
+		int added = 0;
+		for (String newsItem : plan.getNews().getNewsItems()) {
+			if (combinedNews.addNewsItemIfAbsent(newsItem)) {
+				added++;
+			}
+		}
+		return added;
+	}
+
+	/** Downloaded page together with its parsed document, which may come from the page cache. */
+	private record FetchedPage(String contentHash, ParsedPlanDocument document, String eTag, String lastModified) {
+	}
+
+	/**
+	 * Last parsed state of a detail page, keyed by its URL, together with the HTTP
+	 * validators used to make the next download conditional.
+	 */
+	private record CachedPage(String contentHash, String tableKey, ParsedPlanDocument document, String eTag,
+			String lastModified) {
+	}
+
 	/** Initialize the plans when the service starts */
 	@Scheduled(initialDelay = 10000, fixedRate = Long.MAX_VALUE)
 	public void initializeSubstitutionPlans() {
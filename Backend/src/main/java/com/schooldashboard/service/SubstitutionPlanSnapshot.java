@@ -0,0 +1,194 @@
+package com.schooldashboard.service;
+
+import com.schooldashboard.model.SubstitutionPlan;
+import com.schooldashboard.util.ContentHash;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Locale;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Immutable, pre-encoded view of the current substitution plans. Built once per
+ * refresh so that requests only pick one of the prepared byte arrays instead of
+ * serializing and compressing the plans themselves.
+ */
+public final class SubstitutionPlanSnapshot {
+
+	private static final SubstitutionPlanSnapshot EMPTY = new SubstitutionPlanSnapshot(List.of(),
+			"[]".getBytes(StandardCharsets.UTF_8), null, null, null, SubstitutionPlanIndex.empty());
+
+	private final List<SubstitutionPlan> plans;
+	private final byte[] json;
+	private final byte[] gzip;
+	private final byte[] deflate;
+	private final String contentHash;
+	private final SubstitutionPlanIndex index;
+
+	private SubstitutionPlanSnapshot(List<SubstitutionPlan> plans, byte[] json, byte[] gzip, byte[] deflate,
+			String contentHash, SubstitutionPlanIndex index) {
+		this.plans = plans;
+		this.json = json;
+		this.gzip = gzip;
+		this.deflate = deflate;
+		this.contentHash = contentHash;
+		this.index = index;
+	}
+
+	public static SubstitutionPlanSnapshot empty() {
+		return EMPTY;
+	}
+
+	/**
+	 * Creates a snapshot from the plans and their UTF-8 JSON serialization. The
+	 * compressed variants, the content hash and the entry index are computed
+	 * eagerly.
+	 */
+	public static SubstitutionPlanSnapshot create(List<SubstitutionPlan> plans, byte[] json) {
+		List<SubstitutionPlan> copy = List.copyOf(plans);
+		return new SubstitutionPlanSnapshot(copy, json.clone(), gzip(json), deflate(json), ContentHash.sha256Hex(json),
+				SubstitutionPlanIndex.build(copy));
+	}
+
+	public List<SubstitutionPlan> getPlans() {
+		return plans;
+	}
+
+	public boolean isEmpty() {
+		return plans.isEmpty();
+	}
+
+	/** Index over the entries of {@link #getPlans()} by class, teacher and room. */
+	public SubstitutionPlanIndex getIndex() {
+		return index;
+	}
+
+	/** SHA-256 hash of the identity JSON body, {@code null} for the empty snapshot. */
+	public String getContentHash() {
+		return contentHash;
+	}
+
+	/** Returns the body for {@code encoding}. The array is shared and must not be modified. */
+	public byte[] body(Encoding encoding) {
+		return switch (encoding) {
+			case GZIP -> gzip;
+			case DEFLATE -> deflate;
+			case IDENTITY -> json;
+		};
+	}
+
+	/**
+	 * Strong entity tag for the representation in {@code encoding}. Compressed
+	 * variants carry a suffix because their bytes differ from the identity body.
+	 */
+	public String eTag(Encoding encoding) {
+		if (contentHash == null) {
+			return null;
+		}
+		return encoding == Encoding.IDENTITY ? contentHash : contentHash + "-" + encoding.token();
+	}
+
+	public String getJson() {
+		return new String(json, StandardCharsets.UTF_8);
+	}
+
+	private static byte[] gzip(byte[] data) {
+		ByteArrayOutputStream buffer = new ByteArrayOutputStream(Math.max(64, data.length / 4));
+		try (OutputStream out = new GZIPOutputStream(buffer) {
+			{
+				def.setLevel(Deflater.BEST_COMPRESSION);
+			}
+		}) {
+			out.write(data);
+		} catch (IOException e) {
+			throw new UncheckedIOException("Failed to gzip substitution plan snapshot", e);
+		}
+		return buffer.toByteArray();
+	}
+
+	private static byte[] deflate(byte[] data) {
+		ByteArrayOutputStream buffer = new ByteArrayOutputStream(Math.max(64, data.length / 4));
+		Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+		try (OutputStream out = new DeflaterOutputStream(buffer, deflater)) {
+			out.write(data);
+		} catch (IOException e) {
+			throw new UncheckedIOException("Failed to deflate substitution plan snapshot", e);
+		} finally {
+			deflater.end();
+		}
+		return buffer.toByteArray();
+	}
+
+	/** Content codings a snapshot is prepared in. */
+	public enum Encoding {
+		IDENTITY("identity"), GZIP("gzip"), DEFLATE("deflate");
+
+		private final String token;
+
+		Encoding(String token) {
+			this.token = token;
+		}
+
+		public String token() {
+			return token;
+		}
+
+		/**
+		 * Picks the best prepared encoding for an {@code Accept-Encoding} header,
+		 * preferring gzip over deflate when both are equally acceptable.
+		 */
+		public static Encoding negotiate(String acceptEncoding) {
+			if (acceptEncoding == null || acceptEncoding.isBlank()) {
+				return IDENTITY;
+			}
+			double gzipQuality = -1;
+			double deflateQuality = -1;
+			double wildcardQuality = -1;
+			for (String part : acceptEncoding.split(",")) {
+				String[] tokens = part.split(";");
+				String coding = tokens[0].trim().toLowerCase(Locale.ROOT);
+				double quality = parseQuality(tokens);
+				switch (coding) {
+					case "gzip", "x-gzip" -> gzipQuality = Math.max(gzipQuality, quality);
+					case "deflate" -> deflateQuality = Math.max(deflateQuality, quality);
+					case "*" -> wildcardQuality = quality;
+					default -> {
+					}
+				}
+			}
+			if (gzipQuality < 0) {
+				gzipQuality = wildcardQuality;
+			}
+			if (deflateQuality < 0) {
+				deflateQuality = wildcardQuality;
+			}
+			if (gzipQuality > 0 && gzipQuality >= deflateQuality) {
+				return GZIP;
+			}
+			if (deflateQuality > 0) {
+				return DEFLATE;
+			}
+			return IDENTITY;
+		}
+
+		private static double parseQuality(String[] tokens) {
+			for (int i = 1; i < tokens.length; i++) {
+				String parameter = tokens[i].trim();
+				if (parameter.length() > 2 && (parameter.charAt(0) == 'q' || parameter.charAt(0) == 'Q')
+						&& parameter.charAt(1) == '=') {
+					try {
+						return Double.parseDouble(parameter.substring(2).trim());
+					} catch (NumberFormatException ex) {
+						return 0;
+					}
+				}
+			}
+			return 1;
+		}
+	}
+}
@@ -0,0 +1,126 @@
+package com.schooldashboard.service;
+
+import com.schooldashboard.config.SubstitutionStreamProperties;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Pushes substitution plan updates to connected clients as server-sent events.
+ * Each {@code plans} event carries the pre-serialized plans JSON and uses the
+ * snapshot content hash as event id, so a reconnecting client that sends
+ * {@code Last-Event-ID} only receives the plans again when they changed in the
+ * meantime. Idle connections are parked in async servlet requests; sends run on
+ * virtual threads so a slow client cannot hold up the others.
+ */
+@Service
+public class SubstitutionPlanStreamService {
+
+	private static final Logger logger = LoggerFactory.getLogger(SubstitutionPlanStreamService.class);
+	static final String PLANS_EVENT = "plans";
+
+	private final SubstitutionPlanService substitutionPlanService;
+	private final SubstitutionStreamProperties properties;
+	private final Set<SseEmitter> emitters = ConcurrentHashMap.newKeySet();
+	private final ExecutorService sendExecutor = Executors.newVirtualThreadPerTaskExecutor();
+	private final ScheduledExecutorService heartbeatExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+		Thread thread = new Thread(runnable, "substitution-stream-heartbeat");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	public SubstitutionPlanStreamService(SubstitutionPlanService substitutionPlanService,
+			SubstitutionStreamProperties properties) {
+		this.substitutionPlanService = substitutionPlanService;
+		this.properties = properties;
+		long heartbeatMillis = properties.getHeartbeatInterval().toMillis();
+		heartbeatExecutor.scheduleAtFixedRate(this::sendHeartbeats, heartbeatMillis, heartbeatMillis,
+				TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Opens a stream. The current plans are sent right away unless
+	 * {@code lastEventId} shows the client already has them.
+	 */
+	public SseEmitter subscribe(String lastEventId) {
+		SseEmitter emitter = new SseEmitter(properties.getTimeout().toMillis());
+		emitter.onCompletion(() -> emitters.remove(emitter));
+		emitter.onTimeout(() -> {
+			emitters.remove(emitter);
+			emitter.complete();
+		});
+		emitter.onError(error -> emitters.remove(emitter));
+		emitters.add(emitter);
+
+		SubstitutionPlanSnapshot snapshot = substitutionPlanService.getSnapshot();
+		try {
+			if (snapshot != null && !snapshot.isEmpty() && !snapshot.getContentHash().equals(lastEventId)) {
+				emitter.send(plansEvent(snapshot));
+			} else {
+				emitter.send(SseEmitter.event().reconnectTime(properties.getReconnectDelay().toMillis())
+						.comment("connected"));
+			}
+		} catch (IOException | IllegalStateException e) {
+			emitters.remove(emitter);
+			emitter.completeWithError(e);
+		}
+		return emitter;
+	}
+
+	@EventListener
+	public void onPlansUpdated(SubstitutionPlansUpdatedEvent event) {
+		SubstitutionPlanSnapshot snapshot = event.snapshot();
+		logger.info("[SubstitutionPlanStreamService] Pushing plans {} to {} clients", snapshot.getContentHash(),
+				emitters.size());
+		for (SseEmitter emitter : emitters) {
+			sendAsync(emitter, plansEvent(snapshot));
+		}
+	}
+
+	int getSubscriberCount() {
+		return emitters.size();
+	}
+
+	void sendHeartbeats() {
+		for (SseEmitter emitter : emitters) {
+			sendAsync(emitter, SseEmitter.event().comment("heartbeat"));
+		}
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		heartbeatExecutor.shutdownNow();
+		for (SseEmitter emitter : emitters) {
+			emitter.complete();
+		}
+		emitters.clear();
+		sendExecutor.shutdownNow();
+	}
+
+	private SseEmitter.SseEventBuilder plansEvent(SubstitutionPlanSnapshot snapshot) {
+		return SseEmitter.event().id(snapshot.getContentHash()).name(PLANS_EVENT)
+				.reconnectTime(properties.getReconnectDelay().toMillis()).data(snapshot.getJson());
+	}
+
+	private void sendAsync(SseEmitter emitter, SseEmitter.SseEventBuilder event) {
+		sendExecutor.execute(() -> {
+			try {
+				emitter.send(event);
+			} catch (IOException | IllegalStateException e) {
+				// The client went away; the container reports the failed request asynchronously
+				emitters.remove(emitter);
+				emitter.completeWithError(e);
+			}
+		});
+	}
+}
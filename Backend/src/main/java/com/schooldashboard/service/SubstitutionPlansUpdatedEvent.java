@@ -0,0 +1,5 @@
+package com.schooldashboard.service;
+
+/** Published after a refresh replaced the plans with a snapshot of different content. */
+public record SubstitutionPlansUpdatedEvent(SubstitutionPlanSnapshot snapshot) {
+}
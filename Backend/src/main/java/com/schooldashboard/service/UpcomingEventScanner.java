@@ -0,0 +1,161 @@
+package com.schooldashboard.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Line-level prefilter for ICS feeds. VEVENT blocks are scanned without building
+ * an object model and dropped when their DTEND (or DTSTART) lies clearly before
+ * the cutoff, so ical4j only parses upcoming and recurring events. Overrides
+ * (RECURRENCE-ID) are always kept, even when they move an occurrence into the
+ * past, because they still hide the occurrence they replace. Everything outside
+ * VEVENT blocks, such as VTIMEZONE definitions, is passed through.
+ *
+ * <p>
+ * Dates are compared as if they were UTC with a margin of two days, which
+ * covers any time zone offset and the implicit end of all-day events. Events
+ * whose end cannot be determined cheaply are kept; the exact check happens
+ * after parsing.
+ */
+final class UpcomingEventScanner {
+
+	private static final long MARGIN_MILLIS = TimeUnit.DAYS.toMillis(2);
+	private static final DateTimeFormatter DATE = DateTimeFormatter.ofPattern("yyyyMMdd", Locale.ROOT);
+	private static final DateTimeFormatter DATE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss", Locale.ROOT);
+
+	private UpcomingEventScanner() {
+	}
+
+	/** Returns {@code ics} without the VEVENT blocks that ended before {@code cutoffMillis}. */
+	static String retainUpcoming(String ics, long cutoffMillis) {
+		StringBuilder retained = new StringBuilder(Math.min(ics.length(), 64 * 1024));
+		List<String> event = null;
+		try (BufferedReader reader = new BufferedReader(new StringReader(ics))) {
+			for (String line; (line = reader.readLine()) != null;) {
+				if (event == null) {
+					if (line.strip().equalsIgnoreCase("BEGIN:VEVENT")) {
+						event = new ArrayList<>();
+						event.add(line);
+					} else {
+						retained.append(line).append("\r\n");
+					}
+					continue;
+				}
+				event.add(line);
+				if (line.strip().equalsIgnoreCase("END:VEVENT")) {
+					if (isUpcoming(event, cutoffMillis)) {
+						for (String eventLine : event) {
+							retained.append(eventLine).append("\r\n");
+						}
+					}
+					event = null;
+				}
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		if (event != null) {
+			// Unterminated block: leave it to ical4j to report
+			for (String eventLine : event) {
+				retained.append(eventLine).append("\r\n");
+			}
+		}
+		return retained.toString();
+	}
+
+	private static boolean isUpcoming(List<String> lines, long cutoffMillis) {
+		String start = null;
+		String end = null;
+		boolean duration = false;
+		int depth = 0;
+		// Skip BEGIN:VEVENT and END:VEVENT; nested components such as VALARM are ignored
+		for (int i = 1; i < lines.size() - 1; i++) {
+			String line = unfold(lines, i);
+			String name = propertyName(line);
+			if (name.equals("BEGIN")) {
+				depth++;
+			} else if (name.equals("END")) {
+				depth--;
+			} else if (depth == 0) {
+				switch (name) {
+					case "RRULE", "RDATE", "EXDATE", "RECURRENCE-ID" -> {
+						return true;
+					}
+					case "DTSTART" -> start = propertyValue(line);
+					case "DTEND" -> end = propertyValue(line);
+					case "DURATION" -> duration = true;
+					default -> {
+					}
+				}
+			}
+		}
+		if (end == null && duration) {
+			return true;
+		}
+		Long endMillis = toEpochMillis(end != null ? end : start);
+		return endMillis == null || endMillis + MARGIN_MILLIS >= cutoffMillis;
+	}
+
+	/** Joins the continuation lines that follow line {@code index}. */
+	private static String unfold(List<String> lines, int index) {
+		String line = lines.get(index);
+		if (line.isEmpty() || isContinuation(line)) {
+			return "";
+		}
+		int next = index + 1;
+		if (next >= lines.size() || !isContinuation(lines.get(next))) {
+			return line;
+		}
+		StringBuilder unfolded = new StringBuilder(line);
+		for (; next < lines.size() && isContinuation(lines.get(next)); next++) {
+			unfolded.append(lines.get(next), 1, lines.get(next).length());
+		}
+		return unfolded.toString();
+	}
+
+	private static boolean isContinuation(String line) {
+		return !line.isEmpty() && (line.charAt(0) == ' ' || line.charAt(0) == '\t');
+	}
+
+	private static String propertyName(String line) {
+		int end = 0;
+		while (end < line.length() && line.charAt(end) != ';' && line.charAt(end) != ':') {
+			end++;
+		}
+		return line.substring(0, end).strip().toUpperCase(Locale.ROOT);
+	}
+
+	private static String propertyValue(String line) {
+		int colon = line.lastIndexOf(':');
+		return colon < 0 ? null : line.substring(colon + 1).strip();
+	}
+
+	private static Long toEpochMillis(String value) {
+		if (value == null) {
+			return null;
+		}
+		try {
+			if (value.length() == 8) {
+				return LocalDate.parse(value, DATE).atStartOfDay().toInstant(ZoneOffset.UTC).toEpochMilli();
+			}
+			if (value.length() >= 15) {
+				return LocalDateTime.parse(value.substring(0, 15), DATE_TIME).toInstant(ZoneOffset.UTC)
+						.toEpochMilli();
+			}
+		} catch (DateTimeParseException ex) {
+			return null;
+		}
+		return null;
+	}
+}
@@ -1,10 +1,8 @@
 package com.schooldashboard.util;
 
-import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.UnsupportedEncodingException;
-import java.util.zip.GZIPInputStream;
 import java.util.zip.GZIPOutputStream;
 
 public class Base64 {
@@ -107,23 +105,6 @@ public class Base64 {
 		}
 	}
 
-	public static String decompress(String data) throws IOException {
-		return decompress(decode(data));
-	}
-
-	public static String decompress(byte[] data) throws IOException {
-		try (GZIPInputStream inputStream = new GZIPInputStream(new ByteArrayInputStream(data));
-				ByteArrayOutputStream outputStream = new ByteArrayOutputStream(inputStream.available())) {
-			byte[] buffer = new byte[1024];
-			int len;
-			while ((len = inputStream.read(buffer)) > 0) {
-				outputStream.write(buffer, 0, len);
-			}
-			byte[] bytes = outputStream.toByteArray();
-			return new String(bytes, "UTF-8");
-		}
-	}
-
 	public static String encode(String data) throws IOException {
 		return encode(compress(data));
 	}
@@ -18,14 +18,16 @@ package com.schooldashboard.util;
  *       {@code URI.create(...).toURL()}.
  *   <li>Code-style modernization: converted legacy switch statement to Java rule-switch syntax.
  *   <li>Cleanup: removed no-longer-needed deprecation suppressions.
+ *   <li>Streaming response decode: the base64/gzip payload is decoded while it is read and only
+ *       the plan and news subtrees are kept (see {@code DSBPayloadDecoder}).
+ *   <li>Single round-trip: timetables and news can be extracted from one pulled response.
  * </ul>
  *
  * @author Sematre
  */
-import java.io.BufferedReader;
+import java.io.BufferedInputStream;
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.io.Reader;
+import java.io.InputStream;
 import java.io.Serializable;
 import java.net.HttpURLConnection;
 import java.net.URI;
@@ -37,6 +39,8 @@ import java.util.HashMap;
 import java.util.Locale;
 import java.util.Objects;
 import java.util.UUID;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
 
 import com.google.gson.Gson;
 import com.google.gson.JsonArray;
@@ -65,8 +69,11 @@ public class DSBMobile implements Serializable {
 	}
 
 	public ArrayList<TimeTable> getTimeTables() {
-		JsonObject mainObject = pullData();
+		return getTimeTables(pullData());
+	}
 
+	/** Extracts the timetables from data returned by {@link #pullData()}. */
+	public ArrayList<TimeTable> getTimeTables(JsonObject mainObject) {
 		int resultCode = mainObject.get("Resultcode").getAsInt();
 		if (resultCode != 0)
 			throw new RuntimeException("Server returned result code is " + resultCode + ": "
@@ -104,8 +111,11 @@ public class DSBMobile implements Serializable {
 	}
 
 	public ArrayList<News> getNews() {
-		JsonObject mainObject = pullData();
+		return getNews(pullData());
+	}
 
+	/** Extracts the news from data returned by {@link #pullData()}. */
+	public ArrayList<News> getNews(JsonObject mainObject) {
 		int resultCode = mainObject.get("Resultcode").getAsInt();
 		if (resultCode != 0)
 			throw new RuntimeException("Server returned result code is " + resultCode + ": "
@@ -152,15 +162,9 @@ public class DSBMobile implements Serializable {
 				out.write(packageArgs().getBytes("UTF-8"));
 			}
 
-			StringBuilder builder = new StringBuilder();
-			try (Reader in = new BufferedReader(new InputStreamReader(connection.getInputStream(), "UTF-8"))) {
-				for (int c; (c = in.read()) >= 0;) {
-					builder.append((char) c);
-				}
+			try (InputStream in = new BufferedInputStream(openResponseStream(connection))) {
+				return DSBPayloadDecoder.decode(in);
 			}
-
-			JsonObject response = gson.fromJson(builder.toString(), JsonObject.class);
-			return gson.fromJson(Base64.decompress(response.get("d").getAsString()), JsonObject.class);
 		} catch (IOException e) {
 			throw new RuntimeException("Unable to pull data from server!", e);
 		} finally {
@@ -170,6 +174,18 @@ public class DSBMobile implements Serializable {
 		}
 	}
 
+	private InputStream openResponseStream(HttpURLConnection connection) throws IOException {
+		InputStream in = connection.getInputStream();
+		String encoding = connection.getContentEncoding();
+		if ("gzip".equalsIgnoreCase(encoding)) {
+			return new GZIPInputStream(in);
+		}
+		if ("deflate".equalsIgnoreCase(encoding)) {
+			return new InflaterInputStream(in);
+		}
+		return in;
+	}
+
 	URL getEndpointUrl() throws IOException {
 		return URI.create("https://www.dsbmobile.de/JsonHandler.ashx/GetData").toURL();
 	}
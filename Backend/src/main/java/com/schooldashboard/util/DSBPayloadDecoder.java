@@ -0,0 +1,210 @@
+package com.schooldashboard.util;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Decodes a DSBmobile {@code GetData} response without materializing it. The
+ * base64 value of the {@code d} field is decoded while it is read from the
+ * response, gunzipped on the fly and fed to a streaming JSON reader that only
+ * keeps the {@code Pläne} and {@code News} subtrees of the {@code Inhalte} menu
+ * item. The returned object has the shape of the full payload with everything
+ * else left out.
+ */
+final class DSBPayloadDecoder {
+
+	private static final String CONTENT_TITLE = "Inhalte";
+	private static final String[] KEPT_CHILD_TITLES = {"Pläne", "News"};
+
+	private DSBPayloadDecoder() {
+	}
+
+	static JsonObject decode(InputStream response) throws IOException {
+		seekDataValue(response);
+		InputStream payload = new GZIPInputStream(java.util.Base64.getMimeDecoder().wrap(new StringValueStream(response)),
+				8192);
+		try (JsonReader reader = new JsonReader(new InputStreamReader(payload, StandardCharsets.UTF_8))) {
+			return readMain(reader);
+		}
+	}
+
+	/** Advances {@code in} to the first character of the {@code "d"} string value. */
+	private static void seekDataValue(InputStream in) throws IOException {
+		int previous2 = -1;
+		int previous1 = -1;
+		for (int c; (c = in.read()) >= 0;) {
+			if (previous2 == '"' && previous1 == 'd' && c == '"') {
+				int next = skipWhitespace(in);
+				if (next == ':' && skipWhitespace(in) == '"') {
+					return;
+				}
+				c = next;
+			}
+			previous2 = previous1;
+			previous1 = c;
+		}
+		throw new IOException("Server response doesn't contain data!");
+	}
+
+	private static int skipWhitespace(InputStream in) throws IOException {
+		int c;
+		do {
+			c = in.read();
+		} while (c == ' ' || c == '\t' || c == '\r' || c == '\n');
+		return c;
+	}
+
+	private static JsonObject readMain(JsonReader reader) throws IOException {
+		JsonObject main = new JsonObject();
+		reader.beginObject();
+		while (reader.hasNext()) {
+			String name = reader.nextName();
+			if ("ResultMenuItems".equals(name) && reader.peek() == JsonToken.BEGIN_ARRAY) {
+				main.add(name, readMenuItems(reader));
+			} else if (isContainer(reader.peek())) {
+				reader.skipValue();
+			} else {
+				main.add(name, JsonParser.parseReader(reader));
+			}
+		}
+		reader.endObject();
+		return main;
+	}
+
+	private static JsonArray readMenuItems(JsonReader reader) throws IOException {
+		JsonArray items = new JsonArray();
+		reader.beginArray();
+		while (reader.hasNext()) {
+			if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+				reader.skipValue();
+				continue;
+			}
+			JsonObject item = readMenuItem(reader);
+			if (item != null) {
+				items.add(item);
+			}
+		}
+		reader.endArray();
+		return items;
+	}
+
+	/** Returns the content menu item reduced to its kept children, or {@code null} for any other item. */
+	private static JsonObject readMenuItem(JsonReader reader) throws IOException {
+		String title = null;
+		JsonArray children = null;
+		reader.beginObject();
+		while (reader.hasNext()) {
+			String name = reader.nextName();
+			if ("Title".equals(name) && reader.peek() == JsonToken.STRING) {
+				title = reader.nextString();
+			} else if ("Childs".equals(name) && reader.peek() == JsonToken.BEGIN_ARRAY
+					&& (title == null || CONTENT_TITLE.equalsIgnoreCase(title))) {
+				children = readContentChildren(reader);
+			} else {
+				reader.skipValue();
+			}
+		}
+		reader.endObject();
+		if (!CONTENT_TITLE.equalsIgnoreCase(title)) {
+			return null;
+		}
+		JsonObject item = new JsonObject();
+		item.addProperty("Title", title);
+		item.add("Childs", children != null ? children : new JsonArray());
+		return item;
+	}
+
+	private static JsonArray readContentChildren(JsonReader reader) throws IOException {
+		JsonArray children = new JsonArray();
+		reader.beginArray();
+		while (reader.hasNext()) {
+			JsonElement child = JsonParser.parseReader(reader);
+			if (child.isJsonObject() && isKeptChild(child.getAsJsonObject())) {
+				children.add(child);
+			}
+		}
+		reader.endArray();
+		return children;
+	}
+
+	private static boolean isKeptChild(JsonObject child) {
+		JsonElement title = child.get("Title");
+		if (title == null || !title.isJsonPrimitive()) {
+			return false;
+		}
+		for (String kept : KEPT_CHILD_TITLES) {
+			if (kept.equalsIgnoreCase(title.getAsString())) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static boolean isContainer(JsonToken token) {
+		return token == JsonToken.BEGIN_ARRAY || token == JsonToken.BEGIN_OBJECT;
+	}
+
+	/**
+	 * Exposes the raw characters of a JSON string value and ends at its closing
+	 * quote. Base64 only needs the {@code \/} escape some serializers emit; any
+	 * other escape cannot occur in valid data.
+	 */
+	private static final class StringValueStream extends InputStream {
+
+		private final InputStream in;
+		private boolean done;
+
+		StringValueStream(InputStream in) {
+			this.in = in;
+		}
+
+		@Override
+		public int read() throws IOException {
+			if (done) {
+				return -1;
+			}
+			int c = in.read();
+			if (c < 0) {
+				throw new EOFException("Unterminated data value in server response");
+			}
+			if (c == '"') {
+				done = true;
+				return -1;
+			}
+			if (c == '\\') {
+				int escaped = in.read();
+				if (escaped != '/') {
+					throw new IOException("Unexpected escape in server response data");
+				}
+				return escaped;
+			}
+			return c;
+		}
+
+		@Override
+		public int read(byte[] buffer, int offset, int length) throws IOException {
+			if (length == 0) {
+				return 0;
+			}
+			int count = 0;
+			while (count < length) {
+				int c = read();
+				if (c < 0) {
+					break;
+				}
+				buffer[offset + count++] = (byte) c;
+			}
+			return count == 0 ? -1 : count;
+		}
+	}
+}
@@ -0,0 +1,57 @@
+package com.schooldashboard.util;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent loads of the same upstream resource. The first caller
+ * for a key runs the loader; callers arriving while it is in flight wait for
+ * that load and receive its result or exception instead of starting their own.
+ * Nothing is cached once the load has finished.
+ */
+public final class SingleFlight<K> {
+
+	private final ConcurrentMap<K, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+
+	@SuppressWarnings("unchecked")
+	public <V> V execute(K key, Supplier<V> loader) {
+		CompletableFuture<Object> call = new CompletableFuture<>();
+		CompletableFuture<Object> existing = inFlight.putIfAbsent(key, call);
+		if (existing != null) {
+			return (V) await(existing);
+		}
+		try {
+			V value = loader.get();
+			call.complete(value);
+			return value;
+		} catch (RuntimeException | Error ex) {
+			call.completeExceptionally(ex);
+			throw ex;
+		} finally {
+			inFlight.remove(key, call);
+		}
+	}
+
+	/** Returns whether a load for {@code key} is currently running. */
+	public boolean isInFlight(K key) {
+		return inFlight.containsKey(key);
+	}
+
+	private static Object await(CompletableFuture<Object> call) {
+		try {
+			return call.join();
+		} catch (CompletionException ex) {
+			Throwable cause = ex.getCause();
+			if (cause instanceof RuntimeException runtimeException) {
+				throw runtimeException;
+			}
+			if (cause instanceof Error error) {
+				throw error;
+			}
+			throw ex;
+		}
+	}
+}
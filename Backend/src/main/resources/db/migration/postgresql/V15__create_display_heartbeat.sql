@@ -0,0 +1,8 @@
+CREATE TABLE IF NOT EXISTS display_heartbeat (
+    display_id VARCHAR(36) PRIMARY KEY,
+    received_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    app_version VARCHAR(64),
+    uptime_seconds BIGINT,
+    render_time_ms INTEGER,
+    CONSTRAINT fk_display_heartbeat_display FOREIGN KEY (display_id) REFERENCES display(id) ON DELETE CASCADE
+);
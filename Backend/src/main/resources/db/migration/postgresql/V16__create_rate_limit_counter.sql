@@ -0,0 +1,10 @@
+CREATE TABLE IF NOT EXISTS rate_limit_counter (
+    bucket_name VARCHAR(64) NOT NULL,
+    client_key VARCHAR(128) NOT NULL,
+    window_start TIMESTAMP WITH TIME ZONE NOT NULL,
+    request_count BIGINT NOT NULL,
+    expires_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    CONSTRAINT pk_rate_limit_counter PRIMARY KEY (bucket_name, client_key, window_start)
+);
+
+CREATE INDEX IF NOT EXISTS idx_rate_limit_counter_expires_at ON rate_limit_counter (expires_at);
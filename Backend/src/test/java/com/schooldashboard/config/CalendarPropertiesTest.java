@@ -0,0 +1,39 @@
+package com.schooldashboard.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+public class CalendarPropertiesTest {
+
+	@Test
+	public void combinesSingleAndListedFeedsWithTheirRefreshIntervals() {
+		CalendarProperties properties = new CalendarProperties();
+		properties.setIcsUrl("http://localhost/school.ics");
+		properties.setIcsUrls(List.of("http://localhost/holidays.ics", " ", "http://localhost/sports.ics"));
+		properties.setRefreshIntervals(List.of(Duration.ofDays(1)));
+
+		assertEquals(List.of(new CalendarProperties.Feed("http://localhost/school.ics", Duration.ofMinutes(15)),
+				new CalendarProperties.Feed("http://localhost/holidays.ics", Duration.ofDays(1)),
+				new CalendarProperties.Feed("http://localhost/sports.ics", Duration.ofMinutes(15))),
+				properties.getFeeds());
+	}
+
+	@Test
+	public void defaultsToTheFullParser() {
+		assertEquals(CalendarProperties.ParserMode.FULL, new CalendarProperties().getParserMode());
+	}
+
+	@Test
+	public void rejectsNonPositiveDurations() {
+		CalendarProperties properties = new CalendarProperties();
+		assertThrows(IllegalArgumentException.class, () -> properties.setRefreshInterval(Duration.ZERO));
+		assertThrows(IllegalArgumentException.class, () -> properties.setExpansionHorizon(null));
+		assertThrows(IllegalArgumentException.class,
+				() -> properties.setRefreshIntervals(Arrays.asList(Duration.ofHours(1), Duration.ofSeconds(-1))));
+	}
+}
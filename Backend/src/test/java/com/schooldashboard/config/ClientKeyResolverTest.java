@@ -0,0 +1,44 @@
+package com.schooldashboard.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+public class ClientKeyResolverTest {
+
+	private final ClientKeyResolver resolver = new ClientKeyResolver(new ApiRateLimitProperties());
+
+	@Test
+	public void untrustedRemoteAddressIsTheClient() {
+		assertEquals("198.51.100.7", resolver.resolve(request("198.51.100.7", "203.0.113.5")));
+	}
+
+	@Test
+	public void forwardedForIsReadFromTheRightPastTrustedProxies() {
+		assertEquals("203.0.113.5", resolver.resolve(request("172.18.0.3", "198.51.100.1, 203.0.113.5, 10.0.0.4")));
+		assertEquals("::1", resolver.resolve(request("127.0.0.1", "::1")));
+		assertEquals("172.18.0.3", resolver.resolve(request("172.18.0.3", null)));
+	}
+
+	@Test
+	public void configuredProxiesReplaceTheDefaults() {
+		ApiRateLimitProperties properties = new ApiRateLimitProperties();
+		properties.setTrustedProxies(List.of("198.51.100.0/24"));
+		ClientKeyResolver configured = new ClientKeyResolver(properties);
+
+		assertEquals("203.0.113.5", configured.resolve(request("198.51.100.7", "203.0.113.5")));
+		assertEquals("10.0.0.4", configured.resolve(request("10.0.0.4", "203.0.113.5")));
+		assertEquals("unknown", configured.resolve(request("198.51.100.7", "unknown")));
+	}
+
+	private MockHttpServletRequest request(String remoteAddr, String forwardedFor) {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/calendar/events");
+		request.setRemoteAddr(remoteAddr);
+		if (forwardedFor != null) {
+			request.addHeader("X-Forwarded-For", forwardedFor);
+		}
+		return request;
+	}
+}
@@ -0,0 +1,130 @@
+package com.schooldashboard.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.schooldashboard.config.ApiRateLimitProperties.Strategy;
+import com.schooldashboard.config.RateLimitFilter.Policy;
+import com.schooldashboard.display.service.InMemoryRateLimitStore;
+import com.schooldashboard.display.service.RequestRateLimiter;
+import com.schooldashboard.display.web.DisplayErrorResponse;
+import com.schooldashboard.survey.web.SurveyErrorResponse;
+import java.time.Instant;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
+
+public class RateLimitFilterTest {
+
+	private final JsonMapper jsonMapper = JsonMapper.builder().build();
+	private RequestRateLimiter rateLimiter;
+	private RateLimitFilter filter;
+
+	@BeforeEach
+	public void setUp() {
+		rateLimiter = new RequestRateLimiter(new InMemoryRateLimitStore(Strategy.TOKEN_BUCKET));
+		filter = new RateLimitFilter(rateLimiter, new ClientKeyResolver(new ApiRateLimitProperties()),
+				List.of(Policy.of("survey-submission", HttpMethod.POST, "/api/surveys/submissions", () -> 1,
+						"SURVEY_RATE_LIMIT_EXCEEDED", "Too many survey submissions. Please retry shortly.",
+						SurveyErrorResponse::new),
+						Policy.of("calendar", HttpMethod.GET, "/api/calendar/**", () -> 2, "RATE_LIMIT_EXCEEDED",
+								"Too many requests. Please retry shortly.", DisplayErrorResponse::new)),
+				jsonMapper);
+	}
+
+	@AfterEach
+	public void tearDown() {
+		rateLimiter.shutdown();
+	}
+
+	@Test
+	public void allowedRequestsCarryRateLimitHeaders() throws Exception {
+		MockHttpServletResponse response = perform("GET", "/api/calendar/events", "10.0.0.1");
+
+		assertEquals(200, response.getStatus());
+		assertEquals("2", response.getHeader("RateLimit-Limit"));
+		assertEquals("1", response.getHeader("RateLimit-Remaining"));
+		assertEquals("30", response.getHeader("RateLimit-Reset"));
+		assertNull(response.getHeader("Retry-After"));
+	}
+
+	@Test
+	public void exceededLimitIsRejectedBeforeTheChain() throws Exception {
+		perform("POST", "/api/surveys/submissions", "10.0.0.1");
+		MockFilterChain chain = new MockFilterChain();
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		filter.doFilter(request("POST", "/api/surveys/submissions", "10.0.0.1"), response, chain);
+
+		assertEquals(429, response.getStatus());
+		assertNull(chain.getRequest());
+		assertEquals("0", response.getHeader("RateLimit-Remaining"));
+		assertNotNull(response.getHeader("Retry-After"));
+		assertTrue(Long.parseLong(response.getHeader("Retry-After")) > 0);
+		JsonNode body = jsonMapper.readTree(response.getContentAsString());
+		assertEquals("SURVEY_RATE_LIMIT_EXCEEDED", body.get("code").asString());
+		assertNotNull(body.get("requestId").asString());
+		// Same shape as the SurveyErrorResponse the exception handlers write
+		assertNotNull(Instant.parse(body.get("timestamp").asString()));
+
+		assertEquals(200, perform("POST", "/api/surveys/submissions", "10.0.0.2").getStatus());
+	}
+
+	@Test
+	public void clientIsIdentifiedByAddressForwardedThroughTrustedProxies() throws Exception {
+		MockHttpServletRequest first = request("POST", "/api/surveys/submissions", "10.0.0.9");
+		first.addHeader("X-Forwarded-For", "203.0.113.5, 10.0.0.9");
+		filter.doFilter(first, new MockHttpServletResponse(), new MockFilterChain());
+
+		MockHttpServletRequest second = request("POST", "/api/surveys/submissions", "10.0.0.10");
+		second.addHeader("X-Forwarded-For", "203.0.113.5");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		filter.doFilter(second, response, new MockFilterChain());
+
+		assertEquals(429, response.getStatus());
+	}
+
+	@Test
+	public void forwardedAddressFromUntrustedClientIsIgnored() throws Exception {
+		MockHttpServletRequest first = request("POST", "/api/surveys/submissions", "198.51.100.20");
+		first.addHeader("X-Forwarded-For", "203.0.113.20");
+		filter.doFilter(first, new MockHttpServletResponse(), new MockFilterChain());
+
+		MockHttpServletRequest second = request("POST", "/api/surveys/submissions", "198.51.100.20");
+		second.addHeader("X-Forwarded-For", "203.0.113.21");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		filter.doFilter(second, response, new MockFilterChain());
+
+		assertEquals(429, response.getStatus());
+	}
+
+	@Test
+	public void unmatchedRequestsAreNotLimited() throws Exception {
+		for (int i = 0; i < 3; i++) {
+			MockHttpServletResponse response = perform("OPTIONS", "/api/calendar/events", "10.0.0.1");
+			assertEquals(200, response.getStatus());
+			assertNull(response.getHeader("RateLimit-Limit"));
+		}
+		assertNull(perform("GET", "/api/admin/displays", "10.0.0.1").getHeader("RateLimit-Limit"));
+	}
+
+	private MockHttpServletResponse perform(String method, String uri, String remoteAddr) throws Exception {
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		filter.doFilter(request(method, uri, remoteAddr), response, new MockFilterChain());
+		return response;
+	}
+
+	private MockHttpServletRequest request(String method, String uri, String remoteAddr) {
+		MockHttpServletRequest request = new MockHttpServletRequest(method, uri);
+		request.setRemoteAddr(remoteAddr);
+		return request;
+	}
+}
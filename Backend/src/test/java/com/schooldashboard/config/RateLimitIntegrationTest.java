@@ -0,0 +1,98 @@
+package com.schooldashboard.config;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.schooldashboard.display.dto.CreateEnrollmentResponse;
+import com.schooldashboard.display.service.DisplayEnrollmentService;
+import com.schooldashboard.survey.dto.CreateSurveySubmissionResponse;
+import com.schooldashboard.survey.service.SurveyPublicService;
+import java.time.Instant;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+
+@SpringBootTest(properties = {"spring.task.scheduling.enabled=false", "display.rate-limit.enrollments-per-minute=1",
+		"survey.rate-limit.submissions-per-minute=1"})
+@AutoConfigureMockMvc
+public class RateLimitIntegrationTest {
+
+	private static final String SUBMISSION = """
+			{
+			  "displayId": "123e4567-e89b-12d3-a456-426614174000",
+			  "category": "PROBLEM",
+			  "message": "Der QR-Code ist zu klein fuer einige Geraete."
+			}
+			""";
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@MockitoBean
+	private DisplayEnrollmentService enrollmentService;
+
+	@MockitoBean
+	private SurveyPublicService surveyPublicService;
+
+	@Test
+	public void createEnrollmentReturns429WhenRateLimitExceeded() throws Exception {
+		when(enrollmentService.createEnrollmentRequest(any()))
+				.thenReturn(new CreateEnrollmentResponse("req-1", "PENDING", 5));
+
+		mockMvc.perform(enrollment("203.0.113.10")).andExpect(status().isCreated())
+				.andExpect(header().string("RateLimit-Remaining", "0"));
+		mockMvc.perform(enrollment("203.0.113.10")).andExpect(status().isTooManyRequests())
+				.andExpect(header().exists("Retry-After")).andExpect(jsonPath("$.code").value("RATE_LIMIT_EXCEEDED"));
+		mockMvc.perform(enrollment("203.0.113.11")).andExpect(status().isCreated());
+	}
+
+	@Test
+	public void createSubmissionReturns429WhenRateLimitExceeded() throws Exception {
+		when(surveyPublicService.createSubmission(any(), anyString()))
+				.thenReturn(new CreateSurveySubmissionResponse("submission-1", Instant.now(), "RECORDED"));
+
+		mockMvc.perform(submission("203.0.113.20")).andExpect(status().isCreated());
+		mockMvc.perform(submission("203.0.113.20")).andExpect(status().isTooManyRequests())
+				.andExpect(jsonPath("$.code").value("SURVEY_RATE_LIMIT_EXCEEDED"));
+	}
+
+	@Test
+	public void untrustedClientCannotChooseItsKey() throws Exception {
+		when(surveyPublicService.createSubmission(any(), anyString()))
+				.thenReturn(new CreateSurveySubmissionResponse("submission-1", Instant.now(), "RECORDED"));
+
+		mockMvc.perform(submission("203.0.113.30").with(remoteAddr("198.51.100.30"))).andExpect(status().isCreated());
+		mockMvc.perform(submission("203.0.113.31").with(remoteAddr("198.51.100.30")))
+				.andExpect(status().isTooManyRequests());
+	}
+
+	// MockMvc requests come from 127.0.0.1, a trusted proxy, like requests through the frontend server
+	private MockHttpServletRequestBuilder enrollment(String clientAddress) {
+		return post("/api/displays/enrollments").header("X-Forwarded-For", clientAddress)
+				.contentType(MediaType.APPLICATION_JSON)
+				.content("{\"enrollmentCode\":\"ABCD1234\",\"proposedDisplayName\":\"Lobby\"}");
+	}
+
+	private MockHttpServletRequestBuilder submission(String clientAddress) {
+		return post("/api/surveys/submissions").header("X-Forwarded-For", clientAddress)
+				.contentType(MediaType.APPLICATION_JSON).content(SUBMISSION);
+	}
+
+	private static RequestPostProcessor remoteAddr(String address) {
+		return request -> {
+			request.setRemoteAddr(address);
+			return request;
+		};
+	}
+}
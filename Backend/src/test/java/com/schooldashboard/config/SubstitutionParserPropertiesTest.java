@@ -0,0 +1,20 @@
+package com.schooldashboard.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+
+public class SubstitutionParserPropertiesTest {
+
+	@Test
+	public void defaultsToDomMode() {
+		assertEquals(SubstitutionParserProperties.Mode.DOM, new SubstitutionParserProperties().getMode());
+	}
+
+	@Test
+	public void rejectsMissingMode() {
+		SubstitutionParserProperties properties = new SubstitutionParserProperties();
+		assertThrows(IllegalArgumentException.class, () -> properties.setMode(null));
+	}
+}
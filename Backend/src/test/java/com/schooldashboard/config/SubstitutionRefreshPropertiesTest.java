@@ -0,0 +1,28 @@
+package com.schooldashboard.config;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.Duration;
+import org.junit.jupiter.api.Test;
+
+public class SubstitutionRefreshPropertiesTest {
+
+	@Test
+	public void rejectsNonPositiveParallelism() {
+		SubstitutionRefreshProperties properties = new SubstitutionRefreshProperties();
+		assertThrows(IllegalArgumentException.class, () -> properties.setMaxParallelFetches(0));
+	}
+
+	@Test
+	public void rejectsNonPositivePageTimeout() {
+		SubstitutionRefreshProperties properties = new SubstitutionRefreshProperties();
+		assertThrows(IllegalArgumentException.class, () -> properties.setPageTimeout(Duration.ZERO));
+		assertThrows(IllegalArgumentException.class, () -> properties.setPageTimeout(null));
+	}
+
+	@Test
+	public void rejectsNonPositiveConnectTimeout() {
+		SubstitutionRefreshProperties properties = new SubstitutionRefreshProperties();
+		assertThrows(IllegalArgumentException.class, () -> properties.setConnectTimeout(Duration.ofSeconds(-1)));
+	}
+}
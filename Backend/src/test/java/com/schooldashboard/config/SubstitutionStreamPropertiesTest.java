@@ -0,0 +1,25 @@
+package com.schooldashboard.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.Duration;
+import org.junit.jupiter.api.Test;
+
+public class SubstitutionStreamPropertiesTest {
+
+	@Test
+	public void defaultsKeepConnectionsAliveBelowProxyTimeouts() {
+		SubstitutionStreamProperties properties = new SubstitutionStreamProperties();
+		assertEquals(Duration.ofSeconds(25), properties.getHeartbeatInterval());
+		assertEquals(Duration.ofMinutes(30), properties.getTimeout());
+	}
+
+	@Test
+	public void rejectsNonPositiveDurations() {
+		SubstitutionStreamProperties properties = new SubstitutionStreamProperties();
+		assertThrows(IllegalArgumentException.class, () -> properties.setHeartbeatInterval(Duration.ZERO));
+		assertThrows(IllegalArgumentException.class, () -> properties.setTimeout(null));
+		assertThrows(IllegalArgumentException.class, () -> properties.setReconnectDelay(Duration.ofSeconds(-1)));
+	}
+}
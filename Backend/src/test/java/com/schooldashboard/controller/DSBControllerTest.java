@@ -1,5 +1,7 @@
 package com.schooldashboard.controller;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Collections;
 import java.util.UUID;
 
@@ -9,14 +11,17 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
 import org.springframework.boot.webmvc.test.autoconfigure.WebMvcTest;
 import org.springframework.cache.CacheManager;
+import org.springframework.http.HttpHeaders;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import com.schooldashboard.service.ApiResponseCacheService;
 import com.schooldashboard.service.DSBService;
+import com.schooldashboard.service.Freshness;
 import com.schooldashboard.util.DSBMobile;
 
 @WebMvcTest(DSBController.class)
@@ -94,4 +99,31 @@ public class DSBControllerTest {
         .andExpect(status().isBadRequest())
         .andExpect(content().string(org.hamcrest.Matchers.containsString("no")));
   }
+
+	@Test
+	public void staleSnapshotIsServedWithAgeAndStaleStatus() throws Exception {
+		when(dsbService.getTimeTables()).thenReturn(Collections.emptyList());
+		when(dsbService.getFreshness())
+				.thenReturn(new Freshness(Instant.now().minus(Duration.ofMinutes(20)), Duration.ofMinutes(10)));
+		mockMvc.perform(get("/api/dsb/timetables")).andExpect(status().isOk())
+				.andExpect(header().string(StalenessHeaders.DATA_STATUS, StalenessHeaders.STALE))
+				.andExpect(header().string(HttpHeaders.AGE, org.hamcrest.Matchers.matchesPattern("12\\d\\d")));
+	}
+
+	@Test
+	public void freshSnapshotHasAgeButNoStatus() throws Exception {
+		when(dsbService.getNews()).thenReturn(Collections.emptyList());
+		when(dsbService.getFreshness()).thenReturn(new Freshness(Instant.now(), Duration.ofMinutes(10)));
+		mockMvc.perform(get("/api/dsb/news")).andExpect(status().isOk())
+				.andExpect(header().doesNotExist(StalenessHeaders.DATA_STATUS))
+				.andExpect(header().exists(HttpHeaders.AGE));
+	}
+
+	@Test
+	public void databaseFallbackIsMarkedAsFailedRevalidation() throws Exception {
+		when(dsbService.getTimeTables()).thenThrow(new RuntimeException("fail"));
+		when(cacheService.getRawJson("api/dsb/timetables")).thenReturn(java.util.Optional.of("[]"));
+		mockMvc.perform(get("/api/dsb/timetables")).andExpect(status().isOk())
+				.andExpect(header().string(StalenessHeaders.DATA_STATUS, StalenessHeaders.REVALIDATION_FAILED));
+	}
 }
@@ -1,13 +1,24 @@
 package com.schooldashboard.controller;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.schooldashboard.model.SubstitutionEntry;
+import com.schooldashboard.model.SubstitutionPlan;
 import com.schooldashboard.service.ApiResponseCacheService;
 import com.schooldashboard.service.SubstitutionPlanService;
+import com.schooldashboard.service.SubstitutionPlanSnapshot;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
 import org.hamcrest.Matchers;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -16,6 +27,7 @@ import org.springframework.boot.webmvc.test.autoconfigure.WebMvcTest;
 import org.springframework.cache.CacheManager;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 @WebMvcTest(SubstitutionController.class)
 @AutoConfigureMockMvc(addFilters = false)
@@ -35,16 +47,16 @@ public class SubstitutionControllerTest {
 
 	@Test
   public void getPlansSuccess() throws Exception {
-    when(service.getSubstitutionPlans())
-        .thenReturn(Collections.singletonList(new com.schooldashboard.model.SubstitutionPlan()));
+    when(service.getSnapshot())
+        .thenReturn(snapshot(Collections.singletonList(new SubstitutionPlan())));
     mockMvc.perform(get("/api/substitution/plans")).andExpect(status().isOk());
   }
 
 	@Test
   public void getPlansEmptyFallsBackToDb() throws Exception {
-    when(service.getSubstitutionPlans()).thenReturn(Collections.emptyList());
+    when(service.getSnapshot()).thenReturn(SubstitutionPlanSnapshot.empty());
     when(cacheService.getRawJson("api/substitution/plans"))
-        .thenReturn(java.util.Optional.of("[{\"date\":\"d\"}]"));
+        .thenReturn(Optional.of("[{\"date\":\"d\"}]"));
     mockMvc
         .perform(get("/api/substitution/plans"))
         .andExpect(status().isOk())
@@ -54,21 +66,20 @@ public class SubstitutionControllerTest {
 
 	@Test
   public void getPlansFailure() throws Exception {
-    when(service.getSubstitutionPlans()).thenThrow(new RuntimeException("bad"));
-    when(cacheService.getRawJson("api/substitution/plans")).thenReturn(java.util.Optional.empty());
+    when(service.getSnapshot()).thenThrow(new RuntimeException("bad"));
+    when(cacheService.getRawJson("api/substitution/plans")).thenReturn(Optional.empty());
     mockMvc
         .perform(get("/api/substitution/plans"))
         .andExpect(status().isBadRequest())
-        .andExpect(content().string(org.hamcrest.Matchers.containsString("bad")));
+        .andExpect(content().string(Matchers.containsString("bad")));
   }
 
 	@Test
 	public void getPlansIncludesDailyNews() throws Exception {
-		com.schooldashboard.model.SubstitutionPlan plan = new com.schooldashboard.model.SubstitutionPlan("2024-01-01",
-				"t");
+		SubstitutionPlan plan = new SubstitutionPlan("2024-01-01", "t");
 		plan.getNews().addNewsItem("Announcement 1");
 		plan.getNews().addNewsItem("Announcement 2");
-		when(service.getSubstitutionPlans()).thenReturn(List.of(plan));
+		when(service.getSnapshot()).thenReturn(snapshot(List.of(plan)));
 
 		mockMvc.perform(get("/api/substitution/plans")).andExpect(status().isOk())
 				.andExpect(jsonPath("$[0].news.date").value("2024-01-01"))
@@ -76,4 +87,126 @@ public class SubstitutionControllerTest {
 				.andExpect(jsonPath("$[0].news.newsItems[0]").value("Announcement 1"))
 				.andExpect(jsonPath("$[0].news.newsItems[1]").value("Announcement 2"));
 	}
+
+	@Test
+	public void getPlansExposesContentHashAsETag() throws Exception {
+		SubstitutionPlanSnapshot snapshot = snapshot(List.of(new SubstitutionPlan("2024-01-01", "t")));
+		when(service.getSnapshot()).thenReturn(snapshot);
+
+		mockMvc.perform(get("/api/substitution/plans")).andExpect(status().isOk())
+				.andExpect(header().string("ETag", "\"" + snapshot.getContentHash() + "\""))
+				.andExpect(header().string("Cache-Control", "no-cache"))
+				.andExpect(header().string("Vary", Matchers.containsString("Accept-Encoding")))
+				.andExpect(header().doesNotExist("Content-Encoding"));
+	}
+
+	@Test
+	public void getPlansReturnsNotModifiedForMatchingETag() throws Exception {
+		SubstitutionPlanSnapshot snapshot = snapshot(List.of(new SubstitutionPlan("2024-01-01", "t")));
+		when(service.getSnapshot()).thenReturn(snapshot);
+		String eTag = "\"" + snapshot.getContentHash() + "\"";
+
+		mockMvc.perform(get("/api/substitution/plans").header("If-None-Match", eTag))
+				.andExpect(status().isNotModified()).andExpect(header().string("ETag", eTag))
+				.andExpect(content().string(""));
+	}
+
+	@Test
+	public void getPlansReturnsBodyForStaleETag() throws Exception {
+		SubstitutionPlanSnapshot snapshot = snapshot(List.of(new SubstitutionPlan("2024-01-01", "t")));
+		when(service.getSnapshot()).thenReturn(snapshot);
+
+		mockMvc.perform(get("/api/substitution/plans").header("If-None-Match", "\"old-hash\""))
+				.andExpect(status().isOk())
+				.andExpect(header().string("ETag", "\"" + snapshot.getContentHash() + "\""))
+				.andExpect(jsonPath("$[0].date").value("2024-01-01"));
+	}
+
+	@Test
+	public void getPlansServesPrecompressedGzipBody() throws Exception {
+		SubstitutionPlanSnapshot snapshot = snapshot(List.of(new SubstitutionPlan("2024-01-01", "t")));
+		when(service.getSnapshot()).thenReturn(snapshot);
+
+		MvcResult result = mockMvc.perform(get("/api/substitution/plans").header("Accept-Encoding", "gzip, deflate"))
+				.andExpect(status().isOk()).andExpect(header().string("Content-Encoding", "gzip"))
+				.andExpect(header().string("ETag", "\"" + snapshot.getContentHash() + "-gzip\"")).andReturn();
+
+		byte[] body = result.getResponse().getContentAsByteArray();
+		try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(body))) {
+			assertEquals(snapshot.getJson(), new String(in.readAllBytes(), StandardCharsets.UTF_8));
+		}
+	}
+
+	@Test
+	public void getPlansServesPrecompressedDeflateBody() throws Exception {
+		SubstitutionPlanSnapshot snapshot = snapshot(List.of(new SubstitutionPlan("2024-01-01", "t")));
+		when(service.getSnapshot()).thenReturn(snapshot);
+
+		MvcResult result = mockMvc.perform(get("/api/substitution/plans").header("Accept-Encoding", "deflate"))
+				.andExpect(status().isOk()).andExpect(header().string("Content-Encoding", "deflate")).andReturn();
+
+		byte[] body = result.getResponse().getContentAsByteArray();
+		try (InflaterInputStream in = new InflaterInputStream(new ByteArrayInputStream(body))) {
+			assertEquals(snapshot.getJson(), new String(in.readAllBytes(), StandardCharsets.UTF_8));
+		}
+	}
+
+	@Test
+	public void getPlansFiltersByClassTeacherAndRoom() throws Exception {
+		SubstitutionPlan plan = new SubstitutionPlan("2024-01-01", "t");
+		SubstitutionEntry match = new SubstitutionEntry();
+		match.setClasses("7b");
+		match.setSubstitute("Mül");
+		match.setNewRoom("B12");
+		plan.addEntry(match);
+		SubstitutionEntry other = new SubstitutionEntry();
+		other.setClasses("8a");
+		plan.addEntry(other);
+		SubstitutionPlanSnapshot snapshot = snapshot(List.of(plan));
+		when(service.getSnapshot()).thenReturn(snapshot);
+
+		mockMvc.perform(get("/api/substitution/plans").param("class", "7b").param("teacher", "Mül").param("room",
+				"B12")).andExpect(status().isOk()).andExpect(jsonPath("$[0].entries", Matchers.hasSize(1)))
+				.andExpect(jsonPath("$[0].entries[0].classes").value("7b"))
+				.andExpect(header().string("ETag", Matchers.startsWith("\"" + snapshot.getContentHash() + "-")));
+		verify(service, never()).findSubstitutionPlans(any(), any(), any());
+	}
+
+	@Test
+	public void getFilteredPlansFallBackToStoredPlansWithoutETag() throws Exception {
+		when(service.getSnapshot()).thenReturn(SubstitutionPlanSnapshot.empty());
+		when(service.findSubstitutionPlans("7b", null, null))
+				.thenReturn(List.of(new SubstitutionPlan("2024-01-01", "t")));
+
+		mockMvc.perform(get("/api/substitution/plans").param("class", "7b")).andExpect(status().isOk())
+				.andExpect(jsonPath("$[0].date").value("2024-01-01")).andExpect(header().doesNotExist("ETag"));
+	}
+
+	@Test
+	public void getFilteredPlansHonoursIfNoneMatch() throws Exception {
+		SubstitutionPlanSnapshot snapshot = snapshot(List.of(new SubstitutionPlan("2024-01-01", "t")));
+		when(service.getSnapshot()).thenReturn(snapshot);
+
+		String eTag = mockMvc.perform(get("/api/substitution/plans").param("class", "7b")).andReturn().getResponse()
+				.getHeader("ETag");
+		String otherETag = mockMvc.perform(get("/api/substitution/plans").param("class", "8a")).andReturn()
+				.getResponse().getHeader("ETag");
+
+		assertNotEquals(eTag, otherETag);
+		mockMvc.perform(get("/api/substitution/plans").param("class", "7b").header("If-None-Match", eTag))
+				.andExpect(status().isNotModified());
+	}
+
+	@Test
+	public void getPlansIgnoresBlankFilters() throws Exception {
+		when(service.getSnapshot()).thenReturn(snapshot(List.of(new SubstitutionPlan("2024-01-01", "t"))));
+
+		mockMvc.perform(get("/api/substitution/plans").param("class", " ")).andExpect(status().isOk())
+				.andExpect(jsonPath("$[0].date").value("2024-01-01"));
+		verify(service, never()).findSubstitutionPlans(any(), any(), any());
+	}
+
+	private SubstitutionPlanSnapshot snapshot(List<SubstitutionPlan> plans) throws Exception {
+		return SubstitutionPlanSnapshot.create(plans, new ObjectMapper().writeValueAsBytes(plans));
+	}
 }
@@ -0,0 +1,97 @@
+package com.schooldashboard.controller;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import com.schooldashboard.config.SubstitutionStreamProperties;
+import com.schooldashboard.model.SubstitutionPlan;
+import com.schooldashboard.service.SubstitutionPlanService;
+import com.schooldashboard.service.SubstitutionPlanSnapshot;
+import com.schooldashboard.service.SubstitutionPlanStreamService;
+import com.schooldashboard.service.SubstitutionPlansUpdatedEvent;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.boot.webmvc.test.autoconfigure.WebMvcTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+@WebMvcTest(SubstitutionStreamController.class)
+@AutoConfigureMockMvc(addFilters = false)
+@Import({SubstitutionPlanStreamService.class, SubstitutionStreamProperties.class})
+public class SubstitutionStreamControllerTest {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private SubstitutionPlanStreamService streamService;
+
+	@MockitoBean
+	private SubstitutionPlanService service;
+
+	@MockitoBean
+	private CacheManager cacheManager;
+
+	@Test
+	public void streamSendsCurrentPlansOnConnect() throws Exception {
+		SubstitutionPlanSnapshot snapshot = snapshot("d1");
+		when(service.getSnapshot()).thenReturn(snapshot);
+
+		MvcResult result = mockMvc.perform(get("/api/substitution/stream")).andExpect(request().asyncStarted())
+				.andReturn();
+
+		String body = result.getResponse().getContentAsString();
+		assertTrue(body.contains("id:" + snapshot.getContentHash()));
+		assertTrue(body.contains("event:plans"));
+		assertTrue(body.contains("data:" + snapshot.getJson()));
+		mockMvc.perform(get("/api/substitution/stream"))
+				.andExpect(header().string("Content-Type", containsString(MediaType.TEXT_EVENT_STREAM_VALUE)))
+				.andExpect(header().string("X-Accel-Buffering", "no"));
+	}
+
+	@Test
+	public void streamSkipsPlansTheClientAlreadyHas() throws Exception {
+		SubstitutionPlanSnapshot snapshot = snapshot("d1");
+		when(service.getSnapshot()).thenReturn(snapshot);
+
+		MvcResult result = mockMvc.perform(get("/api/substitution/stream").header("Last-Event-ID",
+				snapshot.getContentHash())).andExpect(request().asyncStarted()).andReturn();
+
+		assertFalse(result.getResponse().getContentAsString().contains("event:plans"));
+	}
+
+	@Test
+	public void streamPushesUpdatedPlans() throws Exception {
+		SubstitutionPlanSnapshot first = snapshot("d1");
+		when(service.getSnapshot()).thenReturn(first);
+		MvcResult result = mockMvc.perform(get("/api/substitution/stream").header("Last-Event-ID",
+				first.getContentHash())).andExpect(request().asyncStarted()).andReturn();
+
+		SubstitutionPlanSnapshot second = snapshot("d2");
+		streamService.onPlansUpdated(new SubstitutionPlansUpdatedEvent(second));
+
+		long deadline = System.currentTimeMillis() + 5000;
+		while (!result.getResponse().getContentAsString().contains("id:" + second.getContentHash())
+				&& System.currentTimeMillis() < deadline) {
+			Thread.sleep(10);
+		}
+		assertTrue(result.getResponse().getContentAsString().contains("data:" + second.getJson()));
+	}
+
+	private static SubstitutionPlanSnapshot snapshot(String date) {
+		List<SubstitutionPlan> plans = List.of(new SubstitutionPlan(date, "t"));
+		String json = "[{\"date\":\"" + date + "\"}]";
+		return SubstitutionPlanSnapshot.create(plans, json.getBytes(StandardCharsets.UTF_8));
+	}
+}
@@ -18,6 +18,7 @@ import com.schooldashboard.display.dto.DisplaySummaryResponse;
 import com.schooldashboard.display.dto.AdminAuditLogResponse;
 import com.schooldashboard.display.service.AdminAuditLogService;
 import com.schooldashboard.display.service.DisplayEnrollmentService;
+import com.schooldashboard.display.service.DisplayHeartbeatService;
 import java.time.Instant;
 import java.util.List;
 import org.junit.jupiter.api.Test;
@@ -40,6 +41,9 @@ public class AdminDisplayControllerTest {
 	@MockitoBean
 	private AdminAuditLogService adminAuditLogService;
 
+	@MockitoBean
+	private DisplayHeartbeatService heartbeatService;
+
 	@MockitoBean
 	@SuppressWarnings("unused")
 	private CacheManager cacheManager;
@@ -7,13 +7,13 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
-import com.schooldashboard.display.config.DisplayRateLimitProperties;
 import com.schooldashboard.display.config.DisplayEnrollmentProperties;
 import com.schooldashboard.display.dto.CreateEnrollmentResponse;
+import com.schooldashboard.display.dto.DisplayHeartbeatRequest;
 import com.schooldashboard.display.dto.DisplaySessionValidationResponse;
 import com.schooldashboard.display.dto.EnrollmentStatusResponse;
 import com.schooldashboard.display.service.DisplayEnrollmentService;
-import com.schooldashboard.display.service.RequestRateLimiter;
+import com.schooldashboard.display.service.DisplayHeartbeatService;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
@@ -33,13 +33,10 @@ public class DisplayPublicControllerTest {
 	private DisplayEnrollmentService enrollmentService;
 
 	@MockitoBean
-	private RequestRateLimiter rateLimiter;
-
-	@MockitoBean
-	private DisplayRateLimitProperties rateLimitProperties;
+	private DisplayEnrollmentProperties enrollmentProperties;
 
 	@MockitoBean
-	private DisplayEnrollmentProperties enrollmentProperties;
+	private DisplayHeartbeatService heartbeatService;
 
 	@MockitoBean
 	@SuppressWarnings("unused")
@@ -47,8 +44,6 @@ public class DisplayPublicControllerTest {
 
 	@Test
 	public void createEnrollmentReturnsCreated() throws Exception {
-		when(rateLimitProperties.getEnrollmentsPerMinute()).thenReturn(20);
-		when(rateLimiter.tryAcquire(anyString(), anyString(), eq(20), any())).thenReturn(true);
 		when(enrollmentService.createEnrollmentRequest(any()))
 				.thenReturn(new CreateEnrollmentResponse("req-1", "PENDING", 5));
 
@@ -60,8 +55,6 @@ public class DisplayPublicControllerTest {
 
 	@Test
 	public void validateSessionReturnsValidityPayload() throws Exception {
-		when(rateLimitProperties.getSessionValidationsPerMinute()).thenReturn(120);
-		when(rateLimiter.tryAcquire(anyString(), anyString(), eq(120), any())).thenReturn(true);
 		when(enrollmentService.validateSession("token-123")).thenReturn(
 				new DisplaySessionValidationResponse(true, "display-1", "lobby", "default", "default",
 						"/display/display-1"));
@@ -72,17 +65,6 @@ public class DisplayPublicControllerTest {
 				.andExpect(jsonPath("$.themeId").value("default"));
 	}
 
-	@Test
-	public void createEnrollmentReturns429WhenRateLimitExceeded() throws Exception {
-		when(rateLimitProperties.getEnrollmentsPerMinute()).thenReturn(1);
-		when(rateLimiter.tryAcquire(anyString(), anyString(), eq(1), any())).thenReturn(false);
-
-		mockMvc.perform(post("/api/displays/enrollments").contentType("application/json")
-				.content("{\"enrollmentCode\":\"ABCD1234\",\"proposedDisplayName\":\"Lobby\"}"))
-				.andExpect(status().isTooManyRequests())
-				.andExpect(jsonPath("$.code").value("RATE_LIMIT_EXCEEDED"));
-	}
-
 	@Test
 	public void getEnrollmentStatusSetsHttpOnlySessionCookieWhenApproved() throws Exception {
 		when(enrollmentProperties.getSessionTtlSeconds()).thenReturn(Integer.MAX_VALUE);
@@ -97,8 +79,6 @@ public class DisplayPublicControllerTest {
 
 	@Test
 	public void validateSessionRefreshesCookieWhenSessionIsValid() throws Exception {
-		when(rateLimitProperties.getSessionValidationsPerMinute()).thenReturn(120);
-		when(rateLimiter.tryAcquire(anyString(), anyString(), eq(120), any())).thenReturn(true);
 		when(enrollmentProperties.getSessionTtlSeconds()).thenReturn(Integer.MAX_VALUE);
 		when(enrollmentService.validateSession("token-123")).thenReturn(
 				new DisplaySessionValidationResponse(true, "display-1", "lobby", "default", "default",
@@ -110,4 +90,31 @@ public class DisplayPublicControllerTest {
 				.andExpect(header().string("Set-Cookie", org.hamcrest.Matchers.containsString("Max-Age=2147483647")))
 				.andExpect(jsonPath("$.valid").value(true));
 	}
+
+	@Test
+	public void heartbeatIsRecordedForValidSession() throws Exception {
+		when(enrollmentService.validateSession("token-123")).thenReturn(
+				new DisplaySessionValidationResponse(true, "display-1", "lobby", "default", "default",
+						"/display/display-1"));
+
+		mockMvc.perform(post("/api/displays/heartbeat").header("Authorization", "Bearer token-123")
+				.contentType("application/json")
+				.content("{\"appVersion\":\"1.4.0\",\"uptimeSeconds\":3600,\"renderTimeMs\":12}"))
+				.andExpect(status().isNoContent());
+
+		verify(heartbeatService).record(eq("display-1"),
+				eq(new DisplayHeartbeatRequest("1.4.0", 3600L, 12)), any());
+	}
+
+	@Test
+	public void heartbeatIsRejectedForInvalidSession() throws Exception {
+		when(enrollmentService.validateSession(any()))
+				.thenReturn(new DisplaySessionValidationResponse(false, null, null, null, null, null));
+
+		mockMvc.perform(post("/api/displays/heartbeat").header("Authorization", "Bearer revoked")
+				.contentType("application/json").content("{}")).andExpect(status().isUnauthorized())
+				.andExpect(jsonPath("$.code").value("DISPLAY_SESSION_INVALID"));
+
+		verify(heartbeatService, never()).record(any(), any(), any());
+	}
 }
@@ -11,19 +11,23 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
+import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.schooldashboard.display.dto.ApproveEnrollmentRequest;
 import com.schooldashboard.display.dto.CreateEnrollmentCodeRequest;
 import com.schooldashboard.display.dto.CreateEnrollmentRequest;
 import com.schooldashboard.display.dto.DeviceInfoDto;
 import com.schooldashboard.display.dto.RejectEnrollmentRequest;
+import com.schooldashboard.display.service.DisplayHeartbeatService;
 import com.schooldashboard.security.auth.dto.AdminLoginRequest;
+import java.util.List;
 import java.util.Map;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
 import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.mock.web.MockHttpSession;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
@@ -41,6 +45,12 @@ public class DisplayEnrollmentFlowIntegrationTest {
 	@Autowired
 	private ObjectMapper objectMapper;
 
+	@Autowired
+	private DisplayHeartbeatService heartbeatService;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
 	@Test
 	public void enrollApproveValidateAndRevokeFlowWorks() throws Exception {
 		MockHttpSession adminSession = loginAsAdmin();
@@ -104,6 +114,33 @@ public class DisplayEnrollmentFlowIntegrationTest {
 		assertEquals(asString(approveResponse, "displayId"), asString(validationResponse, "displayId"));
 		assertEquals("default", asString(validationResponse, "themeId"));
 
+		mockMvc.perform(post("/api/displays/heartbeat").header("Authorization", "Bearer " + approvedSessionToken)
+				.contentType(MediaType.APPLICATION_JSON)
+				.content("{\"appVersion\":\"1.4.0\",\"uptimeSeconds\":60,\"renderTimeMs\":8}"))
+				.andExpect(status().isNoContent());
+		heartbeatService.flush();
+		assertEquals("1.4.0", jdbcTemplate.queryForObject(
+				"SELECT app_version FROM display_heartbeat WHERE display_id = ?", String.class,
+				asString(approveResponse, "displayId")));
+		List<Map<String, Object>> liveness = objectMapper.readValue(
+				mockMvc.perform(get("/api/admin/displays/liveness").session(adminSession)).andExpect(status().isOk())
+						.andReturn().getResponse().getContentAsString(),
+				new TypeReference<List<Map<String, Object>>>() {
+				});
+		Map<String, Object> displayLiveness = liveness.stream()
+				.filter(entry -> asString(approveResponse, "displayId").equals(entry.get("displayId"))).findFirst()
+				.orElseThrow();
+		assertEquals("ONLINE", asString(displayLiveness, "status"));
+		assertEquals(8, displayLiveness.get("renderTimeMs"));
+
+		mockMvc.perform(post("/api/displays/heartbeat").header("Authorization", "Bearer " + approvedSessionToken)
+				.contentType(MediaType.APPLICATION_JSON).content("{\"appVersion\":\"1.5.0\"}"))
+				.andExpect(status().isNoContent());
+		heartbeatService.flush();
+		assertEquals("1.5.0", jdbcTemplate.queryForObject(
+				"SELECT app_version FROM display_heartbeat WHERE display_id = ?", String.class,
+				asString(approveResponse, "displayId")));
+
 		Map<String, Object> themeUpdateResponse = readMap(mockMvc
 				.perform(patch("/api/admin/displays/{displayId}", asString(approveResponse, "displayId"))
 						.session(adminSession).with(csrf()).contentType(MediaType.APPLICATION_JSON)
@@ -146,6 +183,8 @@ public class DisplayEnrollmentFlowIntegrationTest {
 				mockMvc.perform(get("/api/displays/session").header("Authorization", "Bearer " + approvedSessionToken))
 						.andExpect(status().isOk()).andReturn().getResponse().getContentAsString());
 		assertEquals(Boolean.FALSE, deletedValidationResponse.get("valid"));
+		assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM display_heartbeat WHERE display_id = ?",
+				Integer.class, asString(approveResponse, "displayId")));
 	}
 
 	@Test
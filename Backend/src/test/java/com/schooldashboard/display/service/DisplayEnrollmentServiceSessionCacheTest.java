@@ -0,0 +1,109 @@
+package com.schooldashboard.display.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.schooldashboard.display.config.DisplayEnrollmentProperties;
+import com.schooldashboard.display.dto.DisplaySessionValidationResponse;
+import com.schooldashboard.display.dto.UpdateDisplayRequest;
+import com.schooldashboard.display.entity.DisplayEntity;
+import com.schooldashboard.display.entity.DisplaySessionEntity;
+import com.schooldashboard.display.entity.DisplayStatus;
+import com.schooldashboard.display.repository.DisplayEnrollmentCodeRepository;
+import com.schooldashboard.display.repository.DisplayEnrollmentRequestRepository;
+import com.schooldashboard.display.repository.DisplayRepository;
+import com.schooldashboard.display.repository.DisplaySessionRepository;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class DisplayEnrollmentServiceSessionCacheTest {
+
+	private DisplayRepository displayRepository;
+	private DisplaySessionRepository sessionRepository;
+	private DisplayLastSeenRecorder lastSeenRecorder;
+	private DisplayEnrollmentService service;
+	private DisplayEntity display;
+	private DisplaySessionEntity session;
+
+	@BeforeEach
+	public void setUp() {
+		displayRepository = mock(DisplayRepository.class);
+		sessionRepository = mock(DisplaySessionRepository.class);
+		lastSeenRecorder = mock(DisplayLastSeenRecorder.class);
+		TokenHashService tokenHashService = mock(TokenHashService.class);
+		when(tokenHashService.hash("token-1")).thenReturn("hash-1");
+
+		DisplayEnrollmentProperties properties = new DisplayEnrollmentProperties();
+		service = new DisplayEnrollmentService(mock(DisplayEnrollmentCodeRepository.class),
+				mock(DisplayEnrollmentRequestRepository.class), displayRepository, sessionRepository, properties,
+				tokenHashService, mock(RandomTokenService.class), mock(SlugService.class),
+				mock(AdminAuditLogService.class), new ObjectMapper(), new DisplaySessionCache(properties),
+				lastSeenRecorder, mock(DisplayHeartbeatService.class));
+
+		display = new DisplayEntity("Lobby", "lobby", "Main Hall", "profile-1");
+		Instant issuedAt = Instant.now().minusSeconds(60);
+		session = new DisplaySessionEntity(display.getId(), "hash-1", issuedAt, issuedAt.plusSeconds(86400));
+		when(sessionRepository.findByTokenHash("hash-1")).thenReturn(Optional.of(session));
+		when(displayRepository.findById(display.getId())).thenReturn(Optional.of(display));
+	}
+
+	@Test
+	public void repeatedValidationIsServedFromCacheWithoutWrites() {
+		DisplaySessionValidationResponse first = service.validateSession("token-1");
+		DisplaySessionValidationResponse second = service.validateSession("token-1");
+
+		assertTrue(first.valid());
+		assertTrue(second.valid());
+		assertEquals(display.getId(), second.displayId());
+		assertEquals("profile-1", second.assignedProfileId());
+		verify(sessionRepository, times(1)).findByTokenHash("hash-1");
+		verify(displayRepository, times(1)).findById(display.getId());
+		verify(sessionRepository, never()).save(any());
+		verify(lastSeenRecorder, times(2)).record(eq(session.getId()), any(Instant.class));
+	}
+
+	@Test
+	public void updatingDisplayInvalidatesCachedSession() {
+		assertTrue(service.validateSession("token-1").valid());
+
+		when(displayRepository.save(any(DisplayEntity.class))).thenAnswer(invocation -> invocation.getArgument(0));
+		service.updateDisplay(display.getId(),
+				new UpdateDisplayRequest(null, null, null, null, DisplayStatus.INACTIVE, null), "admin-1");
+
+		assertFalse(service.validateSession("token-1").valid());
+		verify(sessionRepository, times(2)).findByTokenHash("hash-1");
+	}
+
+	@Test
+	public void revokingDisplayInvalidatesCachedSession() {
+		assertTrue(service.validateSession("token-1").valid());
+
+		when(sessionRepository.findByDisplayId(display.getId())).thenReturn(List.of(session));
+		service.revokeDisplaySession(display.getId(), "admin-1");
+
+		assertFalse(service.validateSession("token-1").valid());
+		verify(lastSeenRecorder, times(1)).record(eq(session.getId()), any(Instant.class));
+	}
+
+	@Test
+	public void deletingDisplayInvalidatesCachedSession() {
+		assertTrue(service.validateSession("token-1").valid());
+
+		service.deleteDisplay(display.getId(), "admin-1");
+		when(sessionRepository.findByTokenHash("hash-1")).thenReturn(Optional.empty());
+
+		assertFalse(service.validateSession("token-1").valid());
+	}
+}
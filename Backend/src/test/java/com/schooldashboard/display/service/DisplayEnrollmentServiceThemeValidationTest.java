@@ -33,7 +33,9 @@ public class DisplayEnrollmentServiceThemeValidationTest {
 		service = new DisplayEnrollmentService(mock(DisplayEnrollmentCodeRepository.class),
 				mock(DisplayEnrollmentRequestRepository.class), displayRepository, mock(DisplaySessionRepository.class),
 				new DisplayEnrollmentProperties(), mock(TokenHashService.class), mock(RandomTokenService.class),
-				mock(SlugService.class), mock(AdminAuditLogService.class), new ObjectMapper());
+				mock(SlugService.class), mock(AdminAuditLogService.class), new ObjectMapper(),
+				new DisplaySessionCache(new DisplayEnrollmentProperties()), mock(DisplayLastSeenRecorder.class),
+				mock(DisplayHeartbeatService.class));
 	}
 
 	@Test
@@ -0,0 +1,82 @@
+package com.schooldashboard.display.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.schooldashboard.display.config.DisplayHeartbeatProperties;
+import com.schooldashboard.display.dto.DisplayHeartbeatRequest;
+import com.schooldashboard.display.dto.DisplayLivenessResponse;
+import java.time.Instant;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+public class DisplayHeartbeatServiceTest {
+
+	@Test
+	public void displaysWithoutHeartbeatAreReportedOfflineFirst() {
+		JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+		when(jdbcTemplate.queryForList(anyString(), eq(String.class)))
+				.thenReturn(List.of("display-reporting", "display-stale"));
+		DisplayHeartbeatService service = new DisplayHeartbeatService(jdbcTemplate, new DisplayHeartbeatProperties());
+		service.refreshDisplays();
+		service.register("display-silent");
+		Instant now = Instant.parse("2026-03-02T08:00:00Z");
+
+		service.record("display-reporting", new DisplayHeartbeatRequest("1.4.0", 60L, 8), now.minusSeconds(10));
+		service.record("display-stale", null, now.minusSeconds(300));
+		List<DisplayLivenessResponse> liveness = service.liveness(now);
+
+		assertEquals(List.of("display-silent", "display-stale", "display-reporting"),
+				liveness.stream().map(DisplayLivenessResponse::displayId).toList());
+		assertEquals(List.of("OFFLINE", "STALE", "ONLINE"),
+				liveness.stream().map(DisplayLivenessResponse::status).toList());
+		assertNull(liveness.get(0).lastHeartbeatAt());
+		assertNull(liveness.get(0).secondsSinceHeartbeat());
+		assertEquals(10L, liveness.get(2).secondsSinceHeartbeat());
+		// Served from memory; the displays are only read on refresh
+		verify(jdbcTemplate, times(1)).queryForList(anyString(), eq(String.class));
+	}
+
+	@Test
+	public void heartbeatsOfDeletedDisplaysAreNotListed() {
+		JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+		when(jdbcTemplate.queryForList(anyString(), eq(String.class))).thenReturn(List.of());
+		DisplayHeartbeatService service = new DisplayHeartbeatService(jdbcTemplate, new DisplayHeartbeatProperties());
+		Instant now = Instant.parse("2026-03-02T08:00:00Z");
+
+		service.record("deleted-here", null, now);
+		service.forget("deleted-here");
+		service.record("deleted-elsewhere", null, now);
+		service.refreshDisplays();
+
+		assertEquals(List.of(), service.liveness(now));
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void flushWritesOneUpsertBatch() {
+		JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+		DisplayHeartbeatService service = new DisplayHeartbeatService(jdbcTemplate, new DisplayHeartbeatProperties());
+		Instant now = Instant.parse("2026-03-02T08:00:00Z");
+		service.record("display-1", null, now.minusSeconds(30));
+		service.record("display-1", new DisplayHeartbeatRequest("1.4.0", 60L, 8), now);
+		service.record("display-2", null, now);
+
+		service.flush();
+
+		ArgumentCaptor<List<Object[]>> batch = ArgumentCaptor.forClass(List.class);
+		verify(jdbcTemplate, times(1)).batchUpdate(startsWith("MERGE INTO display_heartbeat"), batch.capture());
+		verify(jdbcTemplate, times(1)).batchUpdate(anyString(), anyList());
+		assertEquals(2, batch.getValue().size());
+	}
+}
@@ -0,0 +1,69 @@
+package com.schooldashboard.display.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+public class DisplayLastSeenRecorderTest {
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void flushWritesLatestTimePerSessionInOneBatch() {
+		JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+		DisplayLastSeenRecorder recorder = new DisplayLastSeenRecorder(jdbcTemplate);
+		Instant earlier = Instant.parse("2026-03-02T08:00:00Z");
+		Instant later = earlier.plusSeconds(60);
+
+		recorder.record("session-1", later);
+		recorder.record("session-1", earlier);
+		recorder.record("session-2", earlier);
+		recorder.flush();
+
+		ArgumentCaptor<List<Object[]>> batch = ArgumentCaptor.forClass(List.class);
+		verify(jdbcTemplate, times(1)).batchUpdate(anyString(), batch.capture());
+		assertEquals(2, batch.getValue().size());
+		Object[] first = batch.getValue().stream().filter(args -> "session-1".equals(args[1])).findFirst()
+				.orElseThrow();
+		assertEquals(OffsetDateTime.ofInstant(later, ZoneOffset.UTC), first[0]);
+
+		recorder.flush();
+		verify(jdbcTemplate, times(1)).batchUpdate(anyString(), anyList());
+	}
+
+	@Test
+	public void failedFlushKeepsPendingUpdates() {
+		JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+		when(jdbcTemplate.batchUpdate(anyString(), anyList()))
+				.thenThrow(new DataAccessResourceFailureException("database down")).thenReturn(new int[]{1});
+		DisplayLastSeenRecorder recorder = new DisplayLastSeenRecorder(jdbcTemplate);
+
+		recorder.record("session-1", Instant.parse("2026-03-02T08:00:00Z"));
+		recorder.flush();
+		recorder.flush();
+		recorder.flush();
+
+		verify(jdbcTemplate, times(2)).batchUpdate(anyString(), anyList());
+	}
+
+	@Test
+	public void flushWithoutPendingUpdatesDoesNotQuery() {
+		JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+		new DisplayLastSeenRecorder(jdbcTemplate).flush();
+
+		verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList());
+	}
+}
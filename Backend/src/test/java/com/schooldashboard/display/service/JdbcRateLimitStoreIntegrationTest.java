@@ -0,0 +1,131 @@
+package com.schooldashboard.display.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.schooldashboard.display.service.RequestRateLimiter.Decision;
+import java.time.Duration;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+@SpringBootTest(properties = {"spring.task.scheduling.enabled=false", "dsb.username=foo", "dsb.password=bar"})
+public class JdbcRateLimitStoreIntegrationTest {
+
+	private static final Duration WINDOW = Duration.ofMinutes(1);
+	private static final RateLimitKey KEY = new RateLimitKey("calendar", "203.0.113.5");
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private final long[] now = {Duration.ofHours(1).toMillis() + 1_000};
+	private JdbcRateLimitStore first;
+	private JdbcRateLimitStore second;
+
+	@BeforeEach
+	public void setUp() {
+		jdbcTemplate.update("DELETE FROM rate_limit_counter");
+		first = new JdbcRateLimitStore(jdbcTemplate, () -> now[0]);
+		second = new JdbcRateLimitStore(jdbcTemplate, () -> now[0]);
+	}
+
+	@Test
+	public void incrementsAreBatchedIntoOneRowPerWindow() {
+		for (int i = 0; i < 3; i++) {
+			assertTrue(first.acquire(KEY, 10, WINDOW).allowed());
+		}
+		assertEquals(0, countRows());
+
+		first.flush();
+		assertTrue(first.acquire(KEY, 10, WINDOW).allowed());
+		first.flush();
+
+		assertEquals(1, countRows());
+		assertEquals(4L, jdbcTemplate.queryForObject(
+				"SELECT request_count FROM rate_limit_counter WHERE bucket_name = ? AND client_key = ?", Long.class,
+				KEY.bucketName(), KEY.key()));
+	}
+
+	@Test
+	public void instancesShareCountsAfterFlush() {
+		assertTrue(first.acquire(KEY, 3, WINDOW).allowed());
+		assertTrue(first.acquire(KEY, 3, WINDOW).allowed());
+		first.flush();
+
+		assertTrue(second.acquire(KEY, 3, WINDOW).allowed());
+		second.flush();
+		Decision rejected = second.acquire(KEY, 3, WINDOW);
+		assertFalse(rejected.allowed());
+		assertEquals(59, rejected.retryAfterSeconds());
+
+		first.flush();
+		assertFalse(first.acquire(KEY, 3, WINDOW).allowed());
+	}
+
+	@Test
+	public void nextWindowStartsFromZeroAndCleanupDropsExpiredRows() {
+		assertTrue(first.acquire(KEY, 1, WINDOW).allowed());
+		assertFalse(first.acquire(KEY, 1, WINDOW).allowed());
+		first.flush();
+
+		now[0] += WINDOW.toMillis();
+		Decision decision = first.acquire(KEY, 1, WINDOW);
+		assertTrue(decision.allowed());
+		assertEquals(0, decision.remaining());
+		first.flush();
+		assertEquals(2, countRows());
+
+		first.cleanup();
+		assertEquals(1, countRows());
+	}
+
+	@Test
+	public void writtenIncrementsAreNotRepeatedWhenTheReadFails() {
+		ReadFailingJdbcTemplate failingReads = new ReadFailingJdbcTemplate(jdbcTemplate);
+		JdbcRateLimitStore store = new JdbcRateLimitStore(failingReads, () -> now[0]);
+		assertTrue(store.acquire(KEY, 2, WINDOW).allowed());
+		assertTrue(store.acquire(KEY, 2, WINDOW).allowed());
+
+		store.flush();
+		store.flush();
+
+		assertEquals(2L, jdbcTemplate.queryForObject(
+				"SELECT request_count FROM rate_limit_counter WHERE bucket_name = ? AND client_key = ?", Long.class,
+				KEY.bucketName(), KEY.key()));
+		assertFalse(store.acquire(KEY, 2, WINDOW).allowed());
+	}
+
+	@Test
+	public void idleStoreDoesNotQuery() {
+		ReadFailingJdbcTemplate failingReads = new ReadFailingJdbcTemplate(jdbcTemplate);
+		JdbcRateLimitStore store = new JdbcRateLimitStore(failingReads, () -> now[0]);
+
+		store.flush();
+
+		assertEquals(0, failingReads.reads);
+	}
+
+	private int countRows() {
+		return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM rate_limit_counter", Integer.class);
+	}
+
+	private static final class ReadFailingJdbcTemplate extends JdbcTemplate {
+
+		private int reads;
+
+		private ReadFailingJdbcTemplate(JdbcTemplate delegate) {
+			super(delegate.getDataSource());
+		}
+
+		@Override
+		public void query(String sql, RowCallbackHandler rowCallbackHandler, Object... args) {
+			reads++;
+			throw new DataAccessResourceFailureException("read failed");
+		}
+	}
+}
@@ -4,6 +4,7 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import com.schooldashboard.config.ApiRateLimitProperties.Strategy;
 import java.time.Duration;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -15,7 +16,7 @@ public class RequestRateLimiterTest {
 
 	@BeforeEach
 	public void setUp() {
-		limiter = new RequestRateLimiter();
+		limiter = new RequestRateLimiter(new InMemoryRateLimitStore(Strategy.SLIDING_WINDOW));
 	}
 
 	@AfterEach
@@ -40,4 +41,52 @@ public class RequestRateLimiterTest {
 		assertTrue(limiter.tryAcquire("bucket", "key", 2, Duration.ofSeconds(5)));
 		assertFalse(limiter.tryAcquire("bucket", "key", 2, Duration.ofSeconds(5)));
 	}
+
+	@Test
+	public void tokenBucketRefillsOneRequestPerEmissionInterval() {
+		long[] now = {0};
+		RequestRateLimiter tokenBucket = new RequestRateLimiter(
+				new InMemoryRateLimitStore(Strategy.TOKEN_BUCKET, () -> now[0]));
+		try {
+			for (int i = 0; i < 4; i++) {
+				assertTrue(tokenBucket.tryAcquire("bucket", "key", 4, Duration.ofSeconds(4)));
+			}
+			assertFalse(tokenBucket.tryAcquire("bucket", "key", 4, Duration.ofSeconds(4)));
+
+			now[0] = Duration.ofMillis(999).toNanos();
+			assertFalse(tokenBucket.tryAcquire("bucket", "key", 4, Duration.ofSeconds(4)));
+			now[0] = Duration.ofSeconds(1).toNanos();
+			assertTrue(tokenBucket.tryAcquire("bucket", "key", 4, Duration.ofSeconds(4)));
+			assertFalse(tokenBucket.tryAcquire("bucket", "key", 4, Duration.ofSeconds(4)));
+		} finally {
+			tokenBucket.shutdown();
+		}
+	}
+
+	@Test
+	public void slidingWindowAllowsFullLimitAgainAfterWindow() {
+		long[] now = {0};
+		RequestRateLimiter slidingWindow = new RequestRateLimiter(
+				new InMemoryRateLimitStore(Strategy.SLIDING_WINDOW, () -> now[0]));
+		try {
+			assertTrue(slidingWindow.tryAcquire("bucket", "key", 2, Duration.ofSeconds(4)));
+			now[0] = Duration.ofSeconds(1).toNanos();
+			assertTrue(slidingWindow.tryAcquire("bucket", "key", 2, Duration.ofSeconds(4)));
+
+			now[0] = Duration.ofSeconds(4).toNanos();
+			assertFalse(slidingWindow.tryAcquire("bucket", "key", 2, Duration.ofSeconds(4)));
+			now[0] = Duration.ofSeconds(4).toNanos() + 1;
+			assertTrue(slidingWindow.tryAcquire("bucket", "key", 2, Duration.ofSeconds(4)));
+			assertFalse(slidingWindow.tryAcquire("bucket", "key", 2, Duration.ofSeconds(4)));
+		} finally {
+			slidingWindow.shutdown();
+		}
+	}
+
+	@Test
+	public void bucketNameAndKeyAreNotConcatenated() {
+		assertTrue(limiter.tryAcquire("a:b", "c", 1, Duration.ofSeconds(5)));
+		assertTrue(limiter.tryAcquire("a", "b:c", 1, Duration.ofSeconds(5)));
+		assertFalse(limiter.tryAcquire("a", "b:c", 1, Duration.ofSeconds(5)));
+	}
 }
@@ -2,6 +2,7 @@ package com.schooldashboard.model;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import java.util.List;
 import org.junit.jupiter.api.Test;
 
@@ -36,4 +37,48 @@ public class DailyNewsTest {
 		news.setDate("2024-01-02");
 		assertEquals("2024-01-02", news.getDate());
 	}
+
+	@Test
+	public void addNewsItemIfAbsentSkipsDuplicatesAndKeepsOrder() {
+		DailyNews news = new DailyNews();
+		news.addNewsItem("First");
+		assertTrue(news.addNewsItemIfAbsent("Second"));
+		assertFalse(news.addNewsItemIfAbsent(" First "));
+		assertFalse(news.addNewsItemIfAbsent("   "));
+		assertTrue(news.addNewsItemIfAbsent("Third"));
+		assertEquals(List.of("First", "Second", "Third"), news.getNewsItems());
+	}
+
+	@Test
+	public void addNewsItemIfAbsentSeesSetAndAddedItems() {
+		DailyNews news = new DailyNews();
+		news.setNewsItems(List.of("A", "B"));
+		assertFalse(news.addNewsItemIfAbsent("B"));
+		news.addNewsItem("C");
+		assertFalse(news.addNewsItemIfAbsent("C"));
+		news.setNewsItems(List.of("D"));
+		assertTrue(news.addNewsItemIfAbsent("A"));
+		assertEquals(List.of("D", "A"), news.getNewsItems());
+	}
+
+	@Test
+	public void newsItemsAreReadOnly() {
+		DailyNews news = new DailyNews();
+		assertThrows(UnsupportedOperationException.class, () -> news.getNewsItems().add("X"));
+	}
+
+	@Test
+	public void serializesNewsItemsAsJsonList() throws Exception {
+		ObjectMapper mapper = new ObjectMapper();
+		DailyNews news = new DailyNews("2024-01-01");
+		news.addNewsItem("First");
+		news.addNewsItemIfAbsent("Second");
+
+		String json = mapper.writeValueAsString(news);
+		assertEquals("{\"date\":\"2024-01-01\",\"newsItems\":[\"First\",\"Second\"]}", json);
+
+		DailyNews read = mapper.readValue(json, DailyNews.class);
+		assertEquals(List.of("First", "Second"), read.getNewsItems());
+		assertFalse(read.addNewsItemIfAbsent("Second"));
+	}
 }
@@ -4,11 +4,15 @@ import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.schooldashboard.config.ApiResponseCacheProperties;
 import com.schooldashboard.persistence.entity.ApiResponseCache;
 import com.schooldashboard.persistence.repository.ApiResponseCacheRepository;
+import com.schooldashboard.util.ContentHash;
+import java.time.Duration;
 import java.util.List;
 import java.util.Optional;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.springframework.dao.DataIntegrityViolationException;
 
 public class ApiResponseCacheServiceTest {
@@ -17,31 +21,36 @@ public class ApiResponseCacheServiceTest {
 	public void storeWritesNewEntry() {
 		ApiResponseCacheRepository repo = mock(ApiResponseCacheRepository.class);
 		when(repo.findById("k")).thenReturn(Optional.empty());
-		ApiResponseCacheService service = new ApiResponseCacheService(repo, new ObjectMapper());
+		ApiResponseCacheService service = new ApiResponseCacheService(repo, new ObjectMapper(),
+				new ApiResponseCacheProperties());
 
-		service.store("k", List.of("a", "b"));
+		String contentHash = service.store("k", List.of("a", "b"));
 
-		verify(repo).save(any(ApiResponseCache.class));
+		ArgumentCaptor<ApiResponseCache> captor = ArgumentCaptor.forClass(ApiResponseCache.class);
+		verify(repo).save(captor.capture());
+		assertEquals(64, contentHash.length());
+		assertEquals(captor.getValue().getContentHash(), contentHash);
 	}
 
 	@Test
 	public void storeSkipsWhenUnchanged() {
 		ApiResponseCacheRepository repo = mock(ApiResponseCacheRepository.class);
 		when(repo.findById("k")).thenReturn(Optional.empty());
-		ApiResponseCacheService service = new ApiResponseCacheService(repo, new ObjectMapper());
+		ApiResponseCacheService service = new ApiResponseCacheService(repo, new ObjectMapper(),
+				new ApiResponseCacheProperties());
 
 		service.store("k", List.of("x"));
-		org.mockito.ArgumentCaptor<ApiResponseCache> captor = org.mockito.ArgumentCaptor
-				.forClass(ApiResponseCache.class);
+		ArgumentCaptor<ApiResponseCache> captor = ArgumentCaptor.forClass(ApiResponseCache.class);
 		verify(repo).save(captor.capture());
 		ApiResponseCache saved = captor.getValue();
 
 		reset(repo);
 		when(repo.findById("k")).thenReturn(Optional.of(saved));
 
-		service.store("k", List.of("x"));
+		String contentHash = service.store("k", List.of("x"));
 
 		verify(repo, never()).save(any());
+		assertEquals(saved.getContentHash(), contentHash);
 	}
 
 	@Test
@@ -51,15 +60,100 @@ public class ApiResponseCacheServiceTest {
 		when(repo.findById("k")).thenReturn(Optional.empty()).thenReturn(Optional.of(existing));
 		doThrow(new DataIntegrityViolationException("duplicate")).doAnswer(invocation -> invocation.getArgument(0))
 				.when(repo).save(any(ApiResponseCache.class));
-		ApiResponseCacheService service = new ApiResponseCacheService(repo, new ObjectMapper());
+		ApiResponseCacheService service = new ApiResponseCacheService(repo, new ObjectMapper(),
+				new ApiResponseCacheProperties());
 
 		service.store("k", List.of("new"));
 
-		org.mockito.ArgumentCaptor<ApiResponseCache> captor = org.mockito.ArgumentCaptor
-				.forClass(ApiResponseCache.class);
+		ArgumentCaptor<ApiResponseCache> captor = ArgumentCaptor.forClass(ApiResponseCache.class);
 		verify(repo, times(2)).save(captor.capture());
 		ApiResponseCache updated = captor.getAllValues().get(1);
 		assertEquals("k", updated.getCacheKey());
 		assertEquals("[\"new\"]", updated.getJsonBody());
 	}
+
+	@Test
+	public void readsAreServedFromMemoryAfterFirstLoad() {
+		ApiResponseCacheRepository repo = mock(ApiResponseCacheRepository.class);
+		when(repo.findById("k")).thenReturn(Optional.of(new ApiResponseCache("k", "[\"a\"]", "hash")));
+		ApiResponseCacheService service = new ApiResponseCacheService(repo, new ObjectMapper(),
+				new ApiResponseCacheProperties());
+
+		assertEquals(Optional.of("[\"a\"]"), service.getRawJson("k"));
+		assertEquals("a", service.getJson("k").orElseThrow().get(0).asText());
+
+		verify(repo, times(1)).findById("k");
+	}
+
+	@Test
+	public void unchangedStoreAfterWriteDoesNotQueryDatabase() {
+		ApiResponseCacheRepository repo = mock(ApiResponseCacheRepository.class);
+		when(repo.findById("k")).thenReturn(Optional.empty());
+		ApiResponseCacheService service = new ApiResponseCacheService(repo, new ObjectMapper(),
+				new ApiResponseCacheProperties());
+
+		service.store("k", List.of("x"));
+		service.store("k", List.of("x"));
+
+		verify(repo, times(1)).findById("k");
+		verify(repo, times(1)).save(any(ApiResponseCache.class));
+		assertEquals(Optional.of("[\"x\"]"), service.getRawJson("k"));
+		verifyNoMoreInteractions(repo);
+	}
+
+	@Test
+	public void memoryTierIsBounded() {
+		ApiResponseCacheRepository repo = mock(ApiResponseCacheRepository.class);
+		when(repo.findById(anyString()))
+				.thenAnswer(invocation -> Optional.of(new ApiResponseCache(invocation.getArgument(0), "[]", "h")));
+		ApiResponseCacheProperties properties = new ApiResponseCacheProperties();
+		properties.setMemoryMaxEntries(2);
+		ApiResponseCacheService service = new ApiResponseCacheService(repo, new ObjectMapper(), properties);
+
+		service.getRawJson("a");
+		service.getRawJson("b");
+		service.getRawJson("c");
+		service.getRawJson("a");
+
+		verify(repo, times(2)).findById("a");
+		verify(repo, times(1)).findById("c");
+	}
+
+	@Test
+	public void expiredMemoryEntriesAreReadFromTheDatabaseAgain() {
+		ApiResponseCacheRepository repo = mock(ApiResponseCacheRepository.class);
+		when(repo.findById("k")).thenReturn(Optional.empty());
+		ApiResponseCacheService service = new ApiResponseCacheService(repo, new ObjectMapper(), expiringAtOnce());
+		service.store("k", List.of("x"));
+
+		// Another instance stored a newer response
+		when(repo.findById("k")).thenReturn(Optional.of(newerRow()));
+
+		assertEquals(Optional.of("[\"y\"]"), service.getRawJson("k"));
+	}
+
+	@Test
+	public void storeOfAnExpiredEntryIsComparedWithTheDatabase() {
+		ApiResponseCacheRepository repo = mock(ApiResponseCacheRepository.class);
+		when(repo.findById("k")).thenReturn(Optional.empty());
+		ApiResponseCacheService service = new ApiResponseCacheService(repo, new ObjectMapper(), expiringAtOnce());
+		service.store("k", List.of("x"));
+		when(repo.findById("k")).thenReturn(Optional.of(newerRow()));
+
+		service.store("k", List.of("x"));
+
+		ArgumentCaptor<ApiResponseCache> captor = ArgumentCaptor.forClass(ApiResponseCache.class);
+		verify(repo, times(2)).save(captor.capture());
+		assertEquals("[\"x\"]", captor.getAllValues().get(1).getJsonBody());
+	}
+
+	private static ApiResponseCacheProperties expiringAtOnce() {
+		ApiResponseCacheProperties properties = new ApiResponseCacheProperties();
+		properties.setMemoryTtl(Duration.ofNanos(1));
+		return properties;
+	}
+
+	private static ApiResponseCache newerRow() {
+		return new ApiResponseCache("k", "[\"y\"]", ContentHash.sha256Hex("[\"y\"]"));
+	}
 }
@@ -0,0 +1,55 @@
+package com.schooldashboard.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import com.schooldashboard.model.CalendarEvent;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+public class CalendarEventIndexTest {
+
+	@Test
+	public void upcomingSkipsEndedOccurrencesAndAppliesLimit() {
+		CalendarEventIndex.Builder builder = CalendarEventIndex.builder();
+		add(builder, new CalendarEvent("later", "", "", 300, 400, false));
+		add(builder, new CalendarEvent("long", "", "", 0, 500, false));
+		add(builder, new CalendarEvent("next", "", "", 100, 200, false));
+		add(builder, new CalendarEvent("ended", "", "", 10, 20, false));
+		CalendarEventIndex index = builder.build();
+
+		List<CalendarEvent> result = index.upcoming(50, 2);
+
+		assertEquals(List.of("long", "next"), result.stream().map(CalendarEvent::getSummary).toList());
+		assertEquals(3, index.upcoming(50, 0).size());
+		assertEquals(0, index.upcoming(1000, 5).size());
+	}
+
+	@Test
+	public void occurrencesShareTheirTemplate() {
+		CalendarEvent weekly = new CalendarEvent("AG", "Raum 1", "", 0, 10, false);
+		CalendarEventIndex.Builder builder = CalendarEventIndex.builder();
+		int eventIndex = builder.addEvent(weekly);
+		builder.addOccurrence(eventIndex, 200, 210).addOccurrence(eventIndex, 0, 10).addOccurrence(eventIndex, 100,
+				110);
+		CalendarEventIndex index = builder.build();
+
+		List<CalendarEvent> all = index.toList();
+
+		assertEquals(3, index.size());
+		assertSame(weekly, all.get(0));
+		assertEquals(List.of(0L, 100L, 200L), all.stream().map(CalendarEvent::getStartDate).toList());
+		assertEquals("Raum 1", all.get(2).getDescription());
+		assertEquals(210L, all.get(2).getEndDate());
+	}
+
+	@Test
+	public void emptyIndexHasNoOccurrences() {
+		assertEquals(0, CalendarEventIndex.builder().build().size());
+		assertEquals(List.of(), CalendarEventIndex.empty().upcoming(0, 10));
+	}
+
+	private static void add(CalendarEventIndex.Builder builder, CalendarEvent event) {
+		builder.addOccurrence(builder.addEvent(event), event.getStartDate(), event.getEndDate());
+	}
+}
@@ -1,21 +1,40 @@
 package com.schooldashboard.service;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.header;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.headerDoesNotExist;
 import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withServerError;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withStatus;
 import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.schooldashboard.config.CalendarProperties;
+import com.schooldashboard.config.StaleWhileRevalidateProperties;
 import com.schooldashboard.model.CalendarEvent;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.test.web.client.ExpectedCount;
 import org.springframework.test.web.client.MockRestServiceServer;
 import org.springframework.web.client.RestTemplate;
 
@@ -31,6 +50,8 @@ public class CalendarServiceTest {
 	@Mock
 	private ApiResponseCacheService cacheService;
 
+	private final StaleWhileRevalidate staleWhileRevalidate = new StaleWhileRevalidate(
+			new StaleWhileRevalidateProperties(), Runnable::run);
 	private CalendarService service;
 	private RestTemplate restTemplate;
 	private MockRestServiceServer server;
@@ -41,7 +62,8 @@ public class CalendarServiceTest {
 		server = MockRestServiceServer.createServer(restTemplate);
 		CalendarProperties properties = new CalendarProperties();
 		properties.setIcsUrl("http://localhost/calendar.ics");
-		service = new CalendarService(properties, restTemplate, cacheService);
+		service = new CalendarService(properties, restTemplate, cacheService, new ObjectMapper(),
+				staleWhileRevalidate);
 	}
 
 	@Test
@@ -53,7 +75,7 @@ public class CalendarServiceTest {
 
 		assertEquals(1, events.size());
 		assertEquals("Neujahr", events.get(0).getSummary());
-		verify(cacheService).store(eq(ApiResponseCacheKeys.CALENDAR_EVENTS), any());
+		verify(cacheService).storeJson(eq(ApiResponseCacheKeys.CALENDAR_EVENTS), any());
 		server.verify();
 	}
 
@@ -61,7 +83,8 @@ public class CalendarServiceTest {
 	public void trimsQuotedCalendarUrl() {
 		CalendarProperties properties = new CalendarProperties();
 		properties.setIcsUrl("\"http://localhost/calendar.ics\"");
-		CalendarService quotedService = new CalendarService(properties, restTemplate, cacheService);
+		CalendarService quotedService = new CalendarService(properties, restTemplate, cacheService, new ObjectMapper(),
+				staleWhileRevalidate);
 		server.expect(requestTo("http://localhost/calendar.ics"))
 				.andRespond(withSuccess(ICS_DATA, MediaType.TEXT_PLAIN));
 
@@ -70,4 +93,221 @@ public class CalendarServiceTest {
 		assertEquals(1, events.size());
 		server.verify();
 	}
+
+	@Test
+	public void concurrentRequestsShareOneDownload() throws Exception {
+		server.expect(ExpectedCount.once(), requestTo("http://localhost/calendar.ics"))
+				.andRespond(request -> {
+					try {
+						Thread.sleep(200);
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+					}
+					return withSuccess(ICS_DATA, MediaType.TEXT_PLAIN).createResponse(request);
+				});
+
+		try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+			Future<List<CalendarEvent>> first = executor.submit(() -> service.getUpcomingEvents(10));
+			Future<List<CalendarEvent>> second = executor.submit(() -> service.getUpcomingEvents(1));
+			assertEquals(1, first.get(5, TimeUnit.SECONDS).size());
+			assertEquals(1, second.get(5, TimeUnit.SECONDS).size());
+		}
+		server.verify();
+	}
+
+	@Test
+	public void servesRefreshedEventsFromMemory() {
+		server.expect(ExpectedCount.once(), requestTo("http://localhost/calendar.ics"))
+				.andRespond(withSuccess(ICS_DATA, MediaType.TEXT_PLAIN));
+
+		service.refreshEvents();
+		List<CalendarEvent> first = service.getUpcomingEvents(5);
+		List<CalendarEvent> second = service.getUpcomingEvents(1);
+
+		assertEquals(1, first.size());
+		assertEquals("Neujahr", second.get(0).getSummary());
+		server.verify();
+	}
+
+	@Test
+	public void storesCacheOnlyWhenEventsChange() {
+		server.expect(ExpectedCount.twice(), requestTo("http://localhost/calendar.ics"))
+				.andRespond(withSuccess(ICS_DATA, MediaType.TEXT_PLAIN));
+
+		service.refreshEvents();
+		service.refreshEvents();
+
+		verify(cacheService, times(1)).storeJson(eq(ApiResponseCacheKeys.CALENDAR_EVENTS), any());
+		server.verify();
+	}
+
+	@Test
+	public void revalidatesWithStoredValidatorsAndKeepsEventsOnNotModified() {
+		HttpHeaders validators = new HttpHeaders();
+		validators.setETag("\"v1\"");
+		validators.set(HttpHeaders.LAST_MODIFIED, "Sun, 01 Jun 2025 10:00:00 GMT");
+		server.expect(requestTo("http://localhost/calendar.ics"))
+				.andExpect(headerDoesNotExist(HttpHeaders.IF_NONE_MATCH))
+				.andRespond(withSuccess(ICS_DATA, MediaType.TEXT_PLAIN).headers(validators));
+		server.expect(requestTo("http://localhost/calendar.ics"))
+				.andExpect(header(HttpHeaders.IF_NONE_MATCH, "\"v1\""))
+				.andExpect(header(HttpHeaders.IF_MODIFIED_SINCE, "Sun, 01 Jun 2025 10:00:00 GMT"))
+				.andRespond(withStatus(HttpStatus.NOT_MODIFIED));
+
+		service.refreshEvents();
+		service.refreshEvents();
+
+		assertEquals("Neujahr", service.getUpcomingEvents(5).get(0).getSummary());
+		verify(cacheService, times(1)).storeJson(eq(ApiResponseCacheKeys.CALENDAR_EVENTS), any());
+		server.verify();
+	}
+
+	@Test
+	public void keepsPreviousEventsWhenRefreshFails() {
+		server.expect(requestTo("http://localhost/calendar.ics"))
+				.andRespond(withSuccess(ICS_DATA, MediaType.TEXT_PLAIN));
+		server.expect(requestTo("http://localhost/calendar.ics")).andRespond(withServerError());
+
+		service.refreshEvents();
+		service.refreshEvents();
+
+		assertEquals(1, service.getUpcomingEvents(5).size());
+		server.verify();
+	}
+
+	@Test
+	public void parserModesProduceTheSameEvents() {
+		CalendarProperties streaming = new CalendarProperties();
+		streaming.setParserMode(CalendarProperties.ParserMode.STREAMING);
+		CalendarService streamingService = new CalendarService(streaming, restTemplate, cacheService,
+				new ObjectMapper(), staleWhileRevalidate);
+		Instant now = Instant.parse("2025-06-01T12:00:00Z");
+
+		List<CalendarEvent> streamed = streamingService.parseFeed(ICS_DATA, now).toList();
+		List<CalendarEvent> parsed = service.parseFeed(ICS_DATA, now).toList();
+
+		assertEquals(1, streamed.size());
+		assertEquals(parsed.size(), streamed.size());
+		assertEquals(parsed.get(0).getSummary(), streamed.get(0).getSummary());
+		assertEquals(parsed.get(0).getStartDate(), streamed.get(0).getStartDate());
+	}
+
+	@Test
+	public void parserModesAgreeWhenOverrideMovesOccurrenceIntoThePast() {
+		CalendarProperties streaming = new CalendarProperties();
+		streaming.setParserMode(CalendarProperties.ParserMode.STREAMING);
+		CalendarService streamingService = new CalendarService(streaming, restTemplate, cacheService,
+				new ObjectMapper(), staleWhileRevalidate);
+		String ics = String.join("\r\n", "BEGIN:VCALENDAR", "VERSION:2.0", "PRODID:-//GGL//Calendar//EN",
+				"BEGIN:VEVENT", "UID:weekly", "DTSTART:20250602T080000Z", "DTEND:20250602T090000Z",
+				"RRULE:FREQ=WEEKLY;COUNT=3", "SUMMARY:AG", "END:VEVENT", "BEGIN:VEVENT", "UID:weekly",
+				"RECURRENCE-ID:20250609T080000Z", "DTSTART:20250520T080000Z", "DTEND:20250520T090000Z",
+				"SUMMARY:AG (vorgezogen)", "END:VEVENT", "END:VCALENDAR") + "\r\n";
+		Instant now = Instant.parse("2025-06-01T00:00:00Z");
+
+		List<Long> streamed = streamingService.parseFeed(ics, now).toList().stream()
+				.map(CalendarEvent::getStartDate).toList();
+		List<Long> parsed = service.parseFeed(ics, now).toList().stream().map(CalendarEvent::getStartDate)
+				.toList();
+
+		assertEquals(List.of(Instant.parse("2025-06-02T08:00:00Z").toEpochMilli(),
+				Instant.parse("2025-06-16T08:00:00Z").toEpochMilli()), parsed);
+		assertEquals(parsed, streamed);
+	}
+
+	@Test
+	public void expandsWeeklyRecurrenceWithExdateAndOverride() {
+		String ics = String.join("\r\n", "BEGIN:VCALENDAR", "VERSION:2.0", "PRODID:-//GGL//Calendar//EN",
+				"BEGIN:VEVENT", "UID:weekly", "DTSTART:20250602T080000Z", "DTEND:20250602T090000Z",
+				"RRULE:FREQ=WEEKLY;COUNT=5", "EXDATE:20250609T080000Z", "SUMMARY:AG", "END:VEVENT", "BEGIN:VEVENT",
+				"UID:weekly", "RECURRENCE-ID:20250616T080000Z", "DTSTART:20250616T100000Z",
+				"DTEND:20250616T110000Z", "SUMMARY:AG (verschoben)", "END:VEVENT", "END:VCALENDAR") + "\r\n";
+
+		List<CalendarEvent> events = service.parseFeed(ics, Instant.parse("2025-06-01T00:00:00Z")).toList();
+
+		assertEquals(List.of("AG", "AG (verschoben)", "AG", "AG"),
+				events.stream().map(CalendarEvent::getSummary).toList());
+		assertEquals(List.of(Instant.parse("2025-06-02T08:00:00Z"), Instant.parse("2025-06-16T10:00:00Z"),
+				Instant.parse("2025-06-23T08:00:00Z"), Instant.parse("2025-06-30T08:00:00Z")),
+				events.stream().map(event -> Instant.ofEpochMilli(event.getStartDate())).toList());
+		assertEquals(Instant.parse("2025-06-23T09:00:00Z").toEpochMilli(), events.get(2).getEndDate());
+	}
+
+	@Test
+	public void stopsExpandingAtHorizon() {
+		CalendarProperties properties = new CalendarProperties();
+		properties.setExpansionHorizon(Duration.ofDays(30));
+		CalendarService shortHorizon = new CalendarService(properties, restTemplate, cacheService,
+				new ObjectMapper(),
+				staleWhileRevalidate);
+		String ics = String.join("\r\n", "BEGIN:VCALENDAR", "VERSION:2.0", "PRODID:-//GGL//Calendar//EN",
+				"BEGIN:VEVENT", "UID:daily", "DTSTART;VALUE=DATE:20200101", "DTEND;VALUE=DATE:20200102",
+				"RRULE:FREQ=DAILY", "SUMMARY:Täglich", "END:VEVENT", "END:VCALENDAR") + "\r\n";
+		Instant now = Instant.parse("2025-06-01T12:00:00Z");
+
+		List<CalendarEvent> events = shortHorizon.parseFeed(ics, now).toList();
+
+		assertTrue(events.size() >= 30 && events.size() <= 32, "occurrences: " + events.size());
+		assertTrue(events.get(0).getEndDate() >= now.toEpochMilli());
+		assertTrue(events.get(events.size() - 1).getStartDate() <= now.plus(Duration.ofDays(30)).toEpochMilli());
+	}
+
+	@Test
+	public void expandsFloatingRecurrence() {
+		String ics = String.join("\r\n", "BEGIN:VCALENDAR", "VERSION:2.0", "PRODID:-//GGL//Calendar//EN",
+				"BEGIN:VEVENT", "UID:floating", "DTSTART:20250602T080000", "DTEND:20250602T090000",
+				"RRULE:FREQ=DAILY;COUNT=3", "SUMMARY:Frühdienst", "END:VEVENT", "END:VCALENDAR") + "\r\n";
+
+		List<CalendarEvent> events = service.parseFeed(ics, Instant.parse("2025-06-01T00:00:00Z")).toList();
+
+		assertEquals(3, events.size());
+		assertEquals(Duration.ofDays(1).toMillis(), events.get(1).getStartDate() - events.get(0).getStartDate());
+	}
+
+	@Test
+	public void mergesFeedsInStartOrderUpToLimit() {
+		MockRestServiceServer feedServer = MockRestServiceServer.bindTo(restTemplate).ignoreExpectOrder(true).build();
+		feedServer.expect(requestTo("http://localhost/school.ics"))
+				.andRespond(withSuccess(feed("school", "20990105", "20990101"), MediaType.TEXT_PLAIN));
+		feedServer.expect(requestTo("http://localhost/holidays.ics"))
+				.andRespond(withSuccess(feed("holidays", "20990103", "20990102"), MediaType.TEXT_PLAIN));
+
+		List<CalendarEvent> events = multiFeedService().getUpcomingEvents(3);
+
+		assertEquals(List.of("school-20990101", "holidays-20990102", "holidays-20990103"),
+				events.stream().map(CalendarEvent::getSummary).toList());
+		feedServer.verify();
+	}
+
+	@Test
+	public void failingFeedFallsBackToItsCachedCopy() {
+		MockRestServiceServer feedServer = MockRestServiceServer.bindTo(restTemplate).ignoreExpectOrder(true).build();
+		feedServer.expect(requestTo("http://localhost/school.ics"))
+				.andRespond(withSuccess(feed("school", "20990105"), MediaType.TEXT_PLAIN));
+		feedServer.expect(requestTo("http://localhost/holidays.ics")).andRespond(withServerError());
+		when(cacheService.getRawJson(ApiResponseCacheKeys.calendarFeed("http://localhost/holidays.ics")))
+				.thenReturn(Optional.of("[{\"summary\":\"Ferien\",\"description\":\"\",\"location\":\"\","
+						+ "\"startDate\":4070908800000,\"endDate\":4070995200000,\"allDay\":true}]"));
+
+		List<CalendarEvent> events = multiFeedService().getUpcomingEvents(10);
+
+		assertEquals(List.of("Ferien", "school-20990105"), events.stream().map(CalendarEvent::getSummary).toList());
+		feedServer.verify();
+	}
+
+	private CalendarService multiFeedService() {
+		CalendarProperties properties = new CalendarProperties();
+		properties.setIcsUrls(List.of("http://localhost/school.ics", "http://localhost/holidays.ics"));
+		return new CalendarService(properties, restTemplate, cacheService, new ObjectMapper(),
+				staleWhileRevalidate);
+	}
+
+	private static String feed(String name, String... days) {
+		StringBuilder ics = new StringBuilder("BEGIN:VCALENDAR\r\nVERSION:2.0\r\nPRODID:-//GGL//Calendar//EN\r\n");
+		for (String day : days) {
+			ics.append("BEGIN:VEVENT\r\nUID:").append(name).append(day).append("\r\nDTSTART;VALUE=DATE:").append(day)
+					.append("\r\nSUMMARY:").append(name).append('-').append(day).append("\r\nEND:VEVENT\r\n");
+		}
+		return ics.append("END:VCALENDAR\r\n").toString();
+	}
 }
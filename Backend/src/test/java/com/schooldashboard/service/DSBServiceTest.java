@@ -2,13 +2,18 @@ package com.schooldashboard.service;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.*;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.schooldashboard.config.StaleWhileRevalidateProperties;
 import com.schooldashboard.util.DSBMobile;
 import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -17,8 +22,6 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.cache.annotation.CacheEvict;
-import org.springframework.cache.annotation.Cacheable;
 import org.springframework.scheduling.annotation.Scheduled;
 
 @ExtendWith(MockitoExtension.class)
@@ -34,25 +37,99 @@ public class DSBServiceTest {
 
 	@BeforeEach
 	void setUp() {
-		service = new DSBService(dsbClient, cacheService);
+		service = new DSBService(dsbClient, cacheService,
+				new StaleWhileRevalidate(new StaleWhileRevalidateProperties(), Runnable::run));
 	}
 
 	@Test
 	public void annotationsPresent() throws Exception {
-		Method getTT = DSBService.class.getDeclaredMethod("getTimeTables");
-		assertNotNull(getTT.getAnnotation(Cacheable.class));
-		Method getNews = DSBService.class.getDeclaredMethod("getNews");
-		assertNotNull(getNews.getAnnotation(Cacheable.class));
-		Method clear = DSBService.class.getDeclaredMethod("clearCache");
-		assertNotNull(clear.getAnnotation(CacheEvict.class));
-		assertNotNull(clear.getAnnotation(Scheduled.class));
+		Method refresh = DSBService.class.getDeclaredMethod("refreshSnapshot");
+		assertNotNull(refresh.getAnnotation(Scheduled.class));
+	}
+
+	@Test
+	public void staleSnapshotIsServedWhileRefreshRunsInBackground() {
+		List<Runnable> background = new ArrayList<>();
+		StaleWhileRevalidateProperties properties = new StaleWhileRevalidateProperties();
+		properties.setDsbSoftTtl(Duration.ofNanos(1));
+		service = new DSBService(dsbClient, cacheService, new StaleWhileRevalidate(properties, background::add));
+		DSBMobile mobile = new DSBMobile("u", "p");
+		DSBMobile.News first = mobile.new News(UUID.randomUUID(), "2025-01-01", "first", "detail");
+		DSBMobile.News second = mobile.new News(UUID.randomUUID(), "2025-01-02", "second", "detail");
+		when(dsbClient.fetchSnapshot()).thenReturn(new DsbSnapshot(List.of(), List.of(first)),
+				new DsbSnapshot(List.of(), List.of(second)));
+
+		assertEquals(List.of(first), service.getNews());
+		assertEquals(List.of(first), service.getNews());
+		assertEquals(1, background.size());
+		verify(dsbClient, times(1)).fetchSnapshot();
+
+		background.get(0).run();
+
+		assertEquals(List.of(second), service.getNews());
+	}
+
+	@Test
+	public void failedBackgroundRefreshIsNotRetriedOnEveryRequest() {
+		StaleWhileRevalidateProperties properties = new StaleWhileRevalidateProperties();
+		properties.setDsbSoftTtl(Duration.ofNanos(1));
+		service = new DSBService(dsbClient, cacheService, new StaleWhileRevalidate(properties, Runnable::run));
+		when(dsbClient.fetchSnapshot()).thenReturn(new DsbSnapshot(List.of(), List.of()))
+				.thenThrow(new RuntimeException("offline"));
+
+		service.getNews();
+		service.getNews();
+		service.getNews();
+
+		verify(dsbClient, times(2)).fetchSnapshot();
+	}
+
+	@Test
+	public void persistedCopyIsServedBeforeTheFirstPull() throws Exception {
+		List<Runnable> background = new ArrayList<>();
+		service = new DSBService(dsbClient, cacheService,
+				new StaleWhileRevalidate(new StaleWhileRevalidateProperties(), background::add));
+		ObjectMapper mapper = new ObjectMapper();
+		when(cacheService.getJson(ApiResponseCacheKeys.DSB_TIMETABLES)).thenReturn(Optional.of(mapper.readTree(
+				"[{\"uuid\":\"a05eab4c-af64-49f8-b8e6-e608269ebc05\",\"groupName\":\"g\",\"date\":\"d\","
+						+ "\"title\":\"t\",\"detail\":\"u\"}]")));
+		when(cacheService.getJson(ApiResponseCacheKeys.DSB_NEWS)).thenReturn(Optional.of(mapper.readTree(
+				"[{\"uuid\":\"b05eab4c-af64-49f8-b8e6-e608269ebc05\",\"date\":\"d\",\"title\":\"stored\","
+						+ "\"detail\":\"x\"}]")));
+		DSBMobile.News fresh = new DSBMobile("u", "p").new News(UUID.randomUUID(), "d", "fresh", "x");
+		when(dsbClient.fetchSnapshot()).thenReturn(new DsbSnapshot(List.of(), List.of(fresh)));
+
+		assertEquals("g", service.getTimeTables().get(0).getGroupName());
+		@SuppressWarnings("unchecked")
+		List<DSBMobile.News> stored = (List<DSBMobile.News>) service.getNews();
+		assertEquals("stored", stored.get(0).getTitle());
+		assertNull(service.getFreshness().refreshedAt());
+		verify(dsbClient, never()).fetchSnapshot();
+		assertEquals(1, background.size());
+
+		background.get(0).run();
+
+		assertEquals(List.of(fresh), service.getNews());
+		verify(cacheService).store(ApiResponseCacheKeys.DSB_NEWS, List.of(fresh));
+	}
+
+	@Test
+	public void failedRefreshKeepsPreviousSnapshot() {
+		when(dsbClient.fetchSnapshot()).thenReturn(new DsbSnapshot(List.of(), List.of()))
+				.thenThrow(new RuntimeException("offline"));
+
+		service.getNews();
+		service.refreshSnapshot();
+
+		assertEquals(List.of(), service.getNews());
+		assertNotNull(service.getFreshness().refreshedAt());
 	}
 
 	@Test
 	public void getTimeTablesCachesSuccessfulResponse() {
 		DSBMobile.TimeTable table = new DSBMobile("u", "p").new TimeTable(
 				UUID.fromString("a05eab4c-af64-49f8-b8e6-e608269ebc05"), "group", "2025-01-01", "title", "detail");
-		when(dsbClient.getTimeTables()).thenReturn(List.of(table));
+		when(dsbClient.fetchSnapshot()).thenReturn(new DsbSnapshot(List.of(table), List.of()));
 
 		List<DSBMobile.TimeTable> result = service.getTimeTables();
 
@@ -62,7 +139,7 @@ public class DSBServiceTest {
 
 	@Test
   public void getTimeTablesFallsBackToCacheOnFailure() throws Exception {
-    when(dsbClient.getTimeTables()).thenThrow(new RuntimeException("offline"));
+    when(dsbClient.fetchSnapshot()).thenThrow(new RuntimeException("offline"));
     ObjectMapper mapper = new ObjectMapper();
     JsonNode cached =
         mapper.readTree(
@@ -77,11 +154,36 @@ public class DSBServiceTest {
 
 	@Test
   public void getTimeTablesReturnsEmptyWhenNoCache() {
-    when(dsbClient.getTimeTables()).thenThrow(new RuntimeException("offline"));
+    when(dsbClient.fetchSnapshot()).thenThrow(new RuntimeException("offline"));
     when(cacheService.getJson(ApiResponseCacheKeys.DSB_TIMETABLES)).thenReturn(Optional.empty());
 
     List<DSBMobile.TimeTable> result = service.getTimeTables();
 
     assertTrue(result.isEmpty());
   }
+
+	@Test
+	public void timeTablesAndNewsShareOneUpstreamRequest() {
+		DSBMobile mobile = new DSBMobile("u", "p");
+		DSBMobile.TimeTable table = mobile.new TimeTable(UUID.fromString("a05eab4c-af64-49f8-b8e6-e608269ebc05"),
+				"group", "2025-01-01", "title", "detail");
+		DSBMobile.News news = mobile.new News(UUID.fromString("b05eab4c-af64-49f8-b8e6-e608269ebc05"), "2025-01-01",
+				"news", "detail");
+		when(dsbClient.fetchSnapshot()).thenReturn(new DsbSnapshot(List.of(table), List.of(news)));
+
+		assertEquals(List.of(table), service.getTimeTables());
+		assertEquals(List.of(news), service.getNews());
+		verify(dsbClient, times(1)).fetchSnapshot();
+
+		service.refreshSnapshot();
+		service.getNews();
+		verify(dsbClient, times(2)).fetchSnapshot();
+	}
+
+	@Test
+	public void getNewsFailsWhenResponseHasNoNews() {
+		when(dsbClient.fetchSnapshot()).thenReturn(new DsbSnapshot(List.of(), null));
+
+		assertThrows(IllegalStateException.class, service::getNews);
+	}
 }
@@ -0,0 +1,94 @@
+package com.schooldashboard.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.schooldashboard.config.SubstitutionRefreshProperties;
+import com.schooldashboard.model.RawPlanPage;
+import com.sun.net.httpserver.HttpServer;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPOutputStream;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+public class PlanPageClientTest {
+
+	private static final String HTML = "<html><div class='mon_title'>01.01.2024</div></html>";
+	private static final String ETAG = "\"v1\"";
+	private static final String LAST_MODIFIED = "Mon, 01 Jan 2024 08:00:00 GMT";
+
+	private static HttpServer server;
+	private static String baseUrl;
+
+	@BeforeAll
+	public static void startServer() throws IOException {
+		server = HttpServer.create(new InetSocketAddress(0), 0);
+		server.createContext("/plan", e -> {
+			String ifNoneMatch = e.getRequestHeaders().getFirst("If-None-Match");
+			if (ETAG.equals(ifNoneMatch)) {
+				e.sendResponseHeaders(304, -1);
+				e.close();
+				return;
+			}
+			byte[] body = HTML.getBytes(StandardCharsets.ISO_8859_1);
+			String acceptEncoding = e.getRequestHeaders().getFirst("Accept-Encoding");
+			if (acceptEncoding != null && acceptEncoding.contains("gzip")) {
+				ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+				try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+					gzip.write(body);
+				}
+				body = compressed.toByteArray();
+				e.getResponseHeaders().set("Content-Encoding", "gzip");
+			}
+			e.getResponseHeaders().set("Content-Type", "text/html; charset=ISO-8859-1");
+			e.getResponseHeaders().set("ETag", ETAG);
+			e.getResponseHeaders().set("Last-Modified", LAST_MODIFIED);
+			e.sendResponseHeaders(200, body.length);
+			try (OutputStream os = e.getResponseBody()) {
+				os.write(body);
+			}
+		});
+		server.createContext("/missing", e -> {
+			e.sendResponseHeaders(404, -1);
+			e.close();
+		});
+		server.start();
+		baseUrl = "http://localhost:" + server.getAddress().getPort();
+	}
+
+	@AfterAll
+	public static void stopServer() {
+		server.stop(0);
+	}
+
+	@Test
+	public void fetchReturnsDecodedBodyWithValidators() throws Exception {
+		PlanPageClient client = new PlanPageClient(new SubstitutionRefreshProperties());
+		RawPlanPage page = client.fetch(baseUrl + "/plan", null, null);
+
+		assertFalse(page.isNotModified());
+		assertEquals(HTML, new String(page.getBody(), StandardCharsets.ISO_8859_1));
+		assertEquals("ISO-8859-1", page.getCharset());
+		assertEquals(ETAG, page.getETag());
+		assertEquals(LAST_MODIFIED, page.getLastModified());
+	}
+
+	@Test
+	public void conditionalFetchReportsNotModified() throws Exception {
+		PlanPageClient client = new PlanPageClient(new SubstitutionRefreshProperties());
+		RawPlanPage page = client.fetch(baseUrl + "/plan", ETAG, LAST_MODIFIED);
+
+		assertTrue(page.isNotModified());
+		assertEquals(0, page.getBody().length);
+	}
+
+	@Test
+	public void fetchFailsOnErrorStatus() {
+		PlanPageClient client = new PlanPageClient(new SubstitutionRefreshProperties());
+		assertThrows(IOException.class, () -> client.fetch(baseUrl + "/missing", null, null));
+	}
+}
@@ -0,0 +1,56 @@
+package com.schooldashboard.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.schooldashboard.config.StaleWhileRevalidateProperties;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+public class StaleWhileRevalidateTest {
+
+	@Test
+	public void runsOneRefreshPerKeyAtATime() {
+		List<Runnable> queued = new ArrayList<>();
+		StaleWhileRevalidate staleWhileRevalidate = new StaleWhileRevalidate(new StaleWhileRevalidateProperties(),
+				queued::add);
+		AtomicInteger runs = new AtomicInteger();
+
+		assertTrue(staleWhileRevalidate.revalidate("dsb", runs::incrementAndGet));
+		assertFalse(staleWhileRevalidate.revalidate("dsb", runs::incrementAndGet));
+		assertTrue(staleWhileRevalidate.revalidate("calendar", runs::incrementAndGet));
+
+		queued.forEach(Runnable::run);
+		assertEquals(2, runs.get());
+		assertTrue(staleWhileRevalidate.revalidate("dsb", runs::incrementAndGet));
+	}
+
+	@Test
+	public void failedRefreshReleasesItsKey() {
+		StaleWhileRevalidate staleWhileRevalidate = new StaleWhileRevalidate(new StaleWhileRevalidateProperties(),
+				Runnable::run);
+
+		staleWhileRevalidate.revalidate("dsb", () -> {
+			throw new IllegalStateException("offline");
+		});
+
+		assertTrue(staleWhileRevalidate.revalidate("dsb", () -> {
+		}));
+	}
+
+	@Test
+	public void freshnessComparesAgeWithSoftTtl() {
+		Instant now = Instant.parse("2025-06-01T12:00:00Z");
+		Freshness freshness = new Freshness(now.minus(Duration.ofMinutes(5)), Duration.ofMinutes(10));
+
+		assertEquals(Duration.ofMinutes(5), freshness.age(now));
+		assertFalse(freshness.isStale(now));
+		assertTrue(freshness.isStale(now.plus(Duration.ofMinutes(6))));
+		assertTrue(new Freshness(null, Duration.ofMinutes(10)).isStale(now));
+	}
+}
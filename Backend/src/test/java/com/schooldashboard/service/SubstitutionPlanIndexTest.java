@@ -0,0 +1,99 @@
+package com.schooldashboard.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.schooldashboard.model.SubstitutionEntry;
+import com.schooldashboard.model.SubstitutionPlan;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+public class SubstitutionPlanIndexTest {
+
+	@Test
+	public void classKeysSplitListsAndExpandRanges() {
+		assertEquals(Set.of("7a", "7b"), SubstitutionPlanIndex.classKeys("7a, 7b"));
+		assertEquals(Set.of("5a", "5b"), SubstitutionPlanIndex.classKeys("05a,05b"));
+		assertEquals(Set.of("7a", "7b", "7c"), SubstitutionPlanIndex.classKeys("7a - 7c"));
+		assertEquals(Set.of("8b", "8c", "8d"), SubstitutionPlanIndex.classKeys("8b-d"));
+		assertEquals(Set.of("5", "6", "7"), SubstitutionPlanIndex.classKeys("5-7"));
+		assertEquals(Set.of("q1"), SubstitutionPlanIndex.classKeys("Q1"));
+		assertTrue(SubstitutionPlanIndex.classKeys("---").isEmpty());
+		assertTrue(SubstitutionPlanIndex.classKeys(null).isEmpty());
+	}
+
+	@Test
+	public void teacherAndRoomKeysIgnorePlaceholders() {
+		assertEquals(Set.of("mül", "sch"), SubstitutionPlanIndex.teacherKeys("Mül, Sch"));
+		assertTrue(SubstitutionPlanIndex.teacherKeys("---").isEmpty());
+		assertEquals(Set.of("b12", "sporthalle1"), SubstitutionPlanIndex.roomKeys("B12; Sporthalle 1"));
+	}
+
+	@Test
+	public void filterByClassMatchesListsRangesAndWholeGrade() {
+		SubstitutionPlanIndex index = SubstitutionPlanIndex.build(List.of(
+				plan("d1", entry("7a, 7b", "Mül", "Sch", "B12"), entry("8a", "Abc", "---", "C1"),
+						entry("7a-7c", "Xyz", "Mül", "B13")),
+				plan("d2", entry("7", "Def", "Ghi", "A1"), entry("9c", "Mül", "+", "B12"))));
+
+		List<SubstitutionPlan> result = index.filter("7B", null, null);
+
+		assertEquals(2, result.size());
+		assertEquals(List.of("7a, 7b", "7a-7c"), classes(result.get(0)));
+		assertEquals(List.of("7"), classes(result.get(1)));
+		assertEquals("d2", result.get(1).getDate());
+	}
+
+	@Test
+	public void filterCombinesCriteria() {
+		SubstitutionPlanIndex index = SubstitutionPlanIndex.build(List.of(
+				plan("d1", entry("7a", "Mül", "Sch", "B12"), entry("8a", "Abc", "Mül", "C1"),
+						entry("9a", "Mül", "---", "B12"))));
+
+		assertEquals(List.of("7a", "8a", "9a"), classes(index.filter(null, "mül", null).get(0)));
+		assertEquals(List.of("7a", "9a"), classes(index.filter(null, "Mül", "b12").get(0)));
+		assertEquals(List.of("9a"), classes(index.filter("9a", "Mül", "B12").get(0)));
+		assertTrue(index.filter("10a", null, null).get(0).getEntries().isEmpty());
+	}
+
+	@Test
+	public void filterKeepsPlanMetadataAndDoesNotTouchSourcePlans() {
+		SubstitutionPlan source = plan("d1", entry("7a", "A", "B", "R1"), entry("8a", "C", "D", "R2"));
+		source.getNews().addNewsItem("News");
+		source.setSortPriority(1);
+		SubstitutionPlanIndex index = SubstitutionPlanIndex.build(List.of(source));
+
+		SubstitutionPlan filtered = index.filter("8a", null, null).get(0);
+
+		assertEquals(1, filtered.getSortPriority());
+		assertEquals(List.of("News"), filtered.getNews().getNewsItems());
+		assertEquals(1, filtered.getEntries().size());
+		assertEquals(2, source.getEntries().size());
+	}
+
+	@Test
+	public void emptyIndexReturnsNoPlans() {
+		assertTrue(SubstitutionPlanIndex.empty().filter("7a", null, null).isEmpty());
+	}
+
+	private static SubstitutionPlan plan(String date, SubstitutionEntry... entries) {
+		SubstitutionPlan plan = new SubstitutionPlan(date, "t");
+		for (SubstitutionEntry entry : entries) {
+			plan.addEntry(entry);
+		}
+		return plan;
+	}
+
+	private static SubstitutionEntry entry(String classes, String absent, String substitute, String room) {
+		SubstitutionEntry entry = new SubstitutionEntry();
+		entry.setClasses(classes);
+		entry.setAbsent(absent);
+		entry.setSubstitute(substitute);
+		entry.setNewRoom(room);
+		return entry;
+	}
+
+	private static List<String> classes(SubstitutionPlan plan) {
+		return plan.getEntries().stream().map(SubstitutionEntry::getClasses).toList();
+	}
+}
@@ -2,13 +2,21 @@ package com.schooldashboard.service;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.schooldashboard.config.SubstitutionParserProperties;
+import com.schooldashboard.config.SubstitutionRefreshProperties;
+import com.schooldashboard.model.ParsedPlanDocument;
+import com.schooldashboard.model.RawPlanPage;
+import com.schooldashboard.model.SubstitutionEntry;
 import com.schooldashboard.model.SubstitutionPlan;
 import com.sun.net.httpserver.HttpServer;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.lang.reflect.Method;
 import java.net.InetSocketAddress;
+import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
+import java.util.List;
 import org.jsoup.Jsoup;
 import org.jsoup.nodes.Document;
 import org.junit.jupiter.api.AfterAll;
@@ -26,6 +34,33 @@ public class SubstitutionPlanParserServiceTest {
 			+ "<table class='mon_list'><tr class='list'><th>Klasse</th><th>Stunde</th><th>Bemerkung</th></tr>"
 			+ "<tr class='list odd'><td>10A</td><td>1</td><td>Bem</td></tr></table></html>";
 
+	private static final String NEWS_BEFORE_TABLE_HTML = "<html><h2>Nachrichten zum Tag</h2>"
+			+ "<p>First</p><span>Ignore</span><div>Second</div>"
+			+ "<table class='mon_list'><tr><td>Table</td></tr></table>" + "<p>AfterTable</p></html>";
+
+	private static final String NEWS_IN_INFO_TABLE_HTML = "<html><table class='info'>"
+			+ "<tr class='info'><td>Nachrichten zum Tag</td></tr>"
+			+ "<tr class='info'><td>Unterrichtsfrei 4-12 Std.</td></tr>"
+			+ "<tr class='info'><td>Die Sportflächen sind gesperrt.</td></tr>" + "</table>"
+			+ "<table class='mon_list'><tr><td>Table</td></tr></table>" + "</html>";
+
+	private static final String WITHOUT_NEWS_HTML = "<html><div class='mon_title'>02.02.2024</div>"
+			+ "<table class='mon_list'><tr class='list'><th>Klasse</th><th>Vertreter</th></tr>"
+			+ "<tr class='list odd'><td>9B</td><td>MrX</td></tr></table></html>";
+
+	private static final String FULL_PLAN_HTML = "<html><head><meta http-equiv='Content-Type' "
+			+ "content='text/html; charset=iso-8859-1'></head><body>"
+			+ "<div class='mon_title'>03.03.2024 Montag, Woche A</div>"
+			+ "<table class='info'><tr class='info'><th colspan='2'>Nachrichten zum Tag</th></tr>"
+			+ "<tr class='info'><td colspan='2'>Prüfungen im Raum 101</td></tr></table>"
+			+ "<table class='mon_list'><tr class='list'><th>Klasse(n)</th><th>Stunde</th><th>Vertreter</th>"
+			+ "<th>(Fach)</th><th>Fach</th><th>Raum</th><th>Art</th><th>Bemerkung</th></tr>"
+			+ "<tr class='list odd'><td>5a</td><td>1 - 2</td><td>Mül</td><td>De</td><td>Ma</td><td>B12</td>"
+			+ "<td>Vertretung</td><td>Buch mitbringen</td></tr>"
+			+ "<tr class='list even'><td>7c, 7d</td><td>3</td><td>---</td><td>En</td><td>---</td><td>---</td>"
+			+ "<td>Entfall</td><td>&nbsp;</td></tr>" + "<tr class='list'><td>kein Eintrag</td></tr></table>"
+			+ "<p>Untis Stundenplan Software</p></body></html>";
+
 	@BeforeAll
 	public static void startServer() throws IOException {
 		server = HttpServer.create(new InetSocketAddress(0), 0);
@@ -41,6 +76,16 @@ public class SubstitutionPlanParserServiceTest {
 		baseUrl = "http://localhost:" + server.getAddress().getPort() + "/plan";
 	}
 
+	private static SubstitutionPlanParserService newParser() {
+		return newParser(SubstitutionParserProperties.Mode.DOM);
+	}
+
+	private static SubstitutionPlanParserService newParser(SubstitutionParserProperties.Mode mode) {
+		SubstitutionParserProperties properties = new SubstitutionParserProperties();
+		properties.setMode(mode);
+		return new SubstitutionPlanParserService(new PlanPageClient(new SubstitutionRefreshProperties()), properties);
+	}
+
 	@AfterAll
 	public static void stopServer() {
 		server.stop(0);
@@ -48,7 +93,7 @@ public class SubstitutionPlanParserServiceTest {
 
 	@Test
 	public void parseFromUrl() {
-		SubstitutionPlanParserService svc = new SubstitutionPlanParserService();
+		SubstitutionPlanParserService svc = newParser();
 		SubstitutionPlan plan = svc.parseSubstitutionPlanFromUrl(baseUrl);
 		assertEquals("01.01.2024", plan.getDate());
 		assertEquals("Info1 Info2", plan.getTitle());
@@ -60,12 +105,31 @@ public class SubstitutionPlanParserServiceTest {
 		assertFalse(plan.getNews().getNewsItems().stream().anyMatch(item -> item.contains("10A")));
 	}
 
+	@Test
+	public void fetchPageReturnsRawBodyForLaterParsing() {
+		SubstitutionPlanParserService svc = newParser();
+		RawPlanPage page = svc.fetchPage(baseUrl);
+		assertArrayEquals(HTML.getBytes(StandardCharsets.UTF_8), page.getBody());
+
+		ParsedPlanDocument parsed = svc.parsePlanDocument(page);
+		assertEquals(Jsoup.parse(HTML, baseUrl).outerHtml(), parsed.getRawHtml());
+		assertEquals("01.01.2024", parsed.getPlan().getDate());
+		assertEquals(1, parsed.getPlan().getEntries().size());
+	}
+
+	@Test
+	public void streamingModeKeepsThePageAsServed() {
+		SubstitutionPlanParserService streaming = newParser(SubstitutionParserProperties.Mode.STREAMING);
+		RawPlanPage page = streaming.fetchPage(baseUrl);
+
+		assertEquals(HTML, streaming.parsePlanDocument(page).getRawHtml());
+	}
+
 	@Test
 	public void parseDocumentFiltersDailyNews() throws Exception {
-		String html = "<html><h2>Nachrichten zum Tag</h2>" + "<p>First</p><span>Ignore</span><div>Second</div>"
-				+ "<table class='mon_list'><tr><td>Table</td></tr></table>" + "<p>AfterTable</p></html>";
+		String html = NEWS_BEFORE_TABLE_HTML;
 		Document doc = Jsoup.parse(html);
-		SubstitutionPlanParserService svc = new SubstitutionPlanParserService();
+		SubstitutionPlanParserService svc = newParser();
 		Method m = SubstitutionPlanParserService.class.getDeclaredMethod("parseDocument", Document.class);
 		m.setAccessible(true);
 		SubstitutionPlan plan = (SubstitutionPlan) m.invoke(svc, doc);
@@ -77,12 +141,9 @@ public class SubstitutionPlanParserServiceTest {
 
 	@Test
 	public void parseDocumentReadsNewsFromInfoTableRows() throws Exception {
-		String html = "<html><table class='info'>" + "<tr class='info'><td>Nachrichten zum Tag</td></tr>"
-				+ "<tr class='info'><td>Unterrichtsfrei 4-12 Std.</td></tr>"
-				+ "<tr class='info'><td>Die Sportflächen sind gesperrt.</td></tr>" + "</table>"
-				+ "<table class='mon_list'><tr><td>Table</td></tr></table>" + "</html>";
+		String html = NEWS_IN_INFO_TABLE_HTML;
 		Document doc = Jsoup.parse(html);
-		SubstitutionPlanParserService svc = new SubstitutionPlanParserService();
+		SubstitutionPlanParserService svc = newParser();
 		Method m = SubstitutionPlanParserService.class.getDeclaredMethod("parseDocument", Document.class);
 		m.setAccessible(true);
 		SubstitutionPlan plan = (SubstitutionPlan) m.invoke(svc, doc);
@@ -93,11 +154,9 @@ public class SubstitutionPlanParserServiceTest {
 
 	@Test
 	public void parseDocumentWithoutNews() throws Exception {
-		String html = "<html><div class='mon_title'>02.02.2024</div>"
-				+ "<table class='mon_list'><tr class='list'><th>Klasse</th><th>Vertreter</th></tr>"
-				+ "<tr class='list odd'><td>9B</td><td>MrX</td></tr></table></html>";
+		String html = WITHOUT_NEWS_HTML;
 		Document doc = Jsoup.parse(html);
-		SubstitutionPlanParserService svc = new SubstitutionPlanParserService();
+		SubstitutionPlanParserService svc = newParser();
 		Method m = SubstitutionPlanParserService.class.getDeclaredMethod("parseDocument", Document.class);
 		m.setAccessible(true);
 		SubstitutionPlan plan = (SubstitutionPlan) m.invoke(svc, doc);
@@ -106,4 +165,46 @@ public class SubstitutionPlanParserServiceTest {
 		assertEquals(1, plan.getEntries().size());
 		assertEquals("MrX", plan.getEntries().get(0).getSubstitute());
 	}
+
+	@Test
+	public void streamingModeMatchesDomModeOnFixtures() throws Exception {
+		ObjectMapper mapper = new ObjectMapper();
+		SubstitutionPlanParserService dom = newParser(SubstitutionParserProperties.Mode.DOM);
+		SubstitutionPlanParserService streaming = newParser(SubstitutionParserProperties.Mode.STREAMING);
+		List<RawPlanPage> pages = List.of(page(HTML, StandardCharsets.UTF_8, "UTF-8"),
+				page(NEWS_BEFORE_TABLE_HTML, StandardCharsets.UTF_8, null),
+				page(NEWS_IN_INFO_TABLE_HTML, StandardCharsets.UTF_8, null),
+				page(WITHOUT_NEWS_HTML, StandardCharsets.UTF_8, null),
+				page(FULL_PLAN_HTML, StandardCharsets.ISO_8859_1, null));
+
+		for (RawPlanPage page : pages) {
+			ParsedPlanDocument expected = dom.parsePlanDocument(page);
+			ParsedPlanDocument actual = streaming.parsePlanDocument(page);
+			assertEquals(mapper.writeValueAsString(expected.getPlan()), mapper.writeValueAsString(actual.getPlan()));
+		}
+	}
+
+	@Test
+	public void streamingModeParsesFullPlan() {
+		SubstitutionPlanParserService streaming = newParser(SubstitutionParserProperties.Mode.STREAMING);
+		SubstitutionPlan plan = streaming
+				.parsePlanDocument(page(FULL_PLAN_HTML, StandardCharsets.ISO_8859_1, null)).getPlan();
+
+		assertEquals("03.03.2024 Montag, Woche A", plan.getDate());
+		assertEquals(List.of("Prüfungen im Raum 101"), plan.getNews().getNewsItems());
+		assertEquals(2, plan.getEntries().size());
+		SubstitutionEntry first = plan.getEntries().get(0);
+		assertEquals("5a", first.getClasses());
+		assertEquals("Mül", first.getSubstitute());
+		assertEquals("De", first.getOriginalSubject());
+		assertEquals("Ma", first.getSubject());
+		assertEquals("B12", first.getNewRoom());
+		assertEquals("Buch mitbringen", first.getComment());
+		assertEquals("03.03.2024 Montag, Woche A", first.getDate());
+		assertEquals("Entfall", plan.getEntries().get(1).getType());
+	}
+
+	private static RawPlanPage page(String html, Charset encoding, String announcedCharset) {
+		return new RawPlanPage("http://localhost/plan", html.getBytes(encoding), announcedCharset);
+	}
 }
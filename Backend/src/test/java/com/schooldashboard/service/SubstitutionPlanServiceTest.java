@@ -3,15 +3,27 @@ package com.schooldashboard.service;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.schooldashboard.config.StaleWhileRevalidateProperties;
+import com.schooldashboard.config.SubstitutionRefreshProperties;
 import com.schooldashboard.model.ParsedPlanDocument;
+import com.schooldashboard.model.RawPlanPage;
+import com.schooldashboard.model.SubstitutionEntry;
 import com.schooldashboard.model.SubstitutionPlan;
+import com.schooldashboard.util.ContentHash;
 import com.schooldashboard.util.DSBMobile;
 import com.schooldashboard.util.DSBMobile.TimeTable;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
 
 public class SubstitutionPlanServiceTest {
 
@@ -19,6 +31,8 @@ public class SubstitutionPlanServiceTest {
 	private SubstitutionPlanParserService parser;
 	private SubstitutionPlanPersistenceService persistence;
 	private ApiResponseCacheService cacheService;
+	private SubstitutionRefreshProperties refreshProperties;
+	private ApplicationEventPublisher eventPublisher;
 	private SubstitutionPlanService service;
 
 	@BeforeEach
@@ -27,7 +41,11 @@ public class SubstitutionPlanServiceTest {
 		parser = mock(SubstitutionPlanParserService.class);
 		persistence = mock(SubstitutionPlanPersistenceService.class);
 		cacheService = mock(ApiResponseCacheService.class);
-		service = new SubstitutionPlanService(dsbService, parser, persistence, cacheService);
+		refreshProperties = new SubstitutionRefreshProperties();
+		eventPublisher = mock(ApplicationEventPublisher.class);
+		service = new SubstitutionPlanService(dsbService, parser, persistence, cacheService, new ObjectMapper(),
+				refreshProperties, eventPublisher,
+				new StaleWhileRevalidate(new StaleWhileRevalidateProperties(), Runnable::run));
 	}
 
 	private TimeTable tt(UUID uuid, String group, String detail) {
@@ -52,9 +70,9 @@ public class SubstitutionPlanServiceTest {
 		SubstitutionPlan p3 = new SubstitutionPlan("d2", "t3");
 		p3.addEntry(new com.schooldashboard.model.SubstitutionEntry());
 
-		when(parser.parsePlanDocumentFromUrl("u1-1")).thenReturn(parsed(p1));
-		when(parser.parsePlanDocumentFromUrl("u1-2")).thenReturn(parsed(p2));
-		when(parser.parsePlanDocumentFromUrl("u2")).thenReturn(parsed(p3));
+		stubPage("u1-1", p1);
+		stubPage("u1-2", p2);
+		stubPage("u2", p3);
 
 		service.updateSubstitutionPlans();
 
@@ -67,17 +85,303 @@ public class SubstitutionPlanServiceTest {
 		SubstitutionPlan second = result.get(1);
 		assertEquals(2, second.getSortPriority());
 
-		verify(cacheService).store(eq(ApiResponseCacheKeys.SUBSTITUTION_PLANS), any());
+		verify(cacheService).storeJson(ApiResponseCacheKeys.SUBSTITUTION_PLANS, service.getSnapshot().getJson());
+	}
+
+	@Test
+	public void updateSubstitutionPlansBuildsEncodedSnapshot() throws Exception {
+		UUID u1 = UUID.randomUUID();
+		when(dsbService.getTimeTables()).thenReturn(List.of(tt(u1, "heute", "u")));
+		stubPage("u", new SubstitutionPlan("d1", "t1"));
+
+		assertNull(service.getSnapshot().getContentHash());
+		service.updateSubstitutionPlans();
+
+		SubstitutionPlanSnapshot snapshot = service.getSnapshot();
+		assertEquals(new ObjectMapper().writeValueAsString(snapshot.getPlans()), snapshot.getJson());
+		assertEquals(ContentHash.sha256Hex(snapshot.getJson()), snapshot.getContentHash());
+		assertNotNull(snapshot.body(SubstitutionPlanSnapshot.Encoding.GZIP));
+		assertNotNull(snapshot.body(SubstitutionPlanSnapshot.Encoding.DEFLATE));
+	}
+
+	@Test
+	public void failedBackgroundUpdateIsNotRetriedOnEveryRequest() {
+		StaleWhileRevalidateProperties properties = new StaleWhileRevalidateProperties();
+		properties.setSubstitutionSoftTtl(Duration.ofNanos(1));
+		service = new SubstitutionPlanService(dsbService, parser, persistence, cacheService, new ObjectMapper(),
+				refreshProperties, eventPublisher, new StaleWhileRevalidate(properties, Runnable::run));
+		when(dsbService.getTimeTables()).thenReturn(List.of(tt(UUID.randomUUID(), "heute", "u")))
+				.thenThrow(new RuntimeException("offline"));
+		stubPage("u", planWithEntry("d1", "c1"));
+		service.updateSubstitutionPlans();
+
+		service.getSnapshot();
+		service.getSnapshot();
+		service.getSnapshot();
+
+		verify(dsbService, times(2)).getTimeTables();
 	}
 
 	@Test
 	public void updateContinuesOnParserError() {
 		UUID u1 = UUID.randomUUID();
 		when(dsbService.getTimeTables()).thenReturn(List.of(tt(u1, "heute", "u")));
-		when(parser.parsePlanDocumentFromUrl("u")).thenThrow(new RuntimeException("err"));
+		when(parser.fetchPage(eq("u"), any(), any())).thenThrow(new RuntimeException("err"));
 		service.updateSubstitutionPlans();
 		assertTrue(service.getSubstitutionPlans().isEmpty());
-		verify(cacheService, never()).store(eq(ApiResponseCacheKeys.SUBSTITUTION_PLANS), any());
+		verify(cacheService, never()).storeJson(eq(ApiResponseCacheKeys.SUBSTITUTION_PLANS), any());
+		verify(eventPublisher, never()).publishEvent(any());
+	}
+
+	@Test
+	public void updateFetchesPagesConcurrently() {
+		UUID u1 = UUID.randomUUID();
+		when(dsbService.getTimeTables()).thenReturn(List.of(tt(u1, "heute", "a"), tt(u1, "heute", "b")));
+		CountDownLatch bothStarted = new CountDownLatch(2);
+		when(parser.fetchPage(anyString(), any(), any())).thenAnswer(invocation -> {
+			bothStarted.countDown();
+			// Only completes promptly when the other page is being fetched at the same time
+			if (!bothStarted.await(5, TimeUnit.SECONDS)) {
+				throw new IllegalStateException("pages were fetched sequentially");
+			}
+			return page(invocation.getArgument(0), "html");
+		});
+		parseEntryPerUrl();
+
+		service.updateSubstitutionPlans();
+
+		assertEquals(2, service.getSubstitutionPlans().get(0).getEntries().size());
+	}
+
+	@Test
+	public void updateKeepsPageOrderWhenPagesFinishOutOfOrder() {
+		UUID u1 = UUID.randomUUID();
+		when(dsbService.getTimeTables())
+				.thenReturn(List.of(tt(u1, "heute", "p1"), tt(u1, "heute", "p2"), tt(u1, "heute", "p3")));
+		when(parser.fetchPage(anyString(), any(), any())).thenAnswer(invocation -> {
+			String url = invocation.getArgument(0);
+			Thread.sleep("p1".equals(url) ? 200 : "p2".equals(url) ? 100 : 0);
+			return page(url, "html");
+		});
+		parseEntryPerUrl();
+
+		service.updateSubstitutionPlans();
+
+		List<String> order = service.getSubstitutionPlans().get(0).getEntries().stream()
+				.map(SubstitutionEntry::getComment).toList();
+		assertEquals(List.of("p1", "p2", "p3"), order);
+	}
+
+	@Test
+	public void updateSkipsPagesExceedingTimeout() {
+		refreshProperties.setPageTimeout(Duration.ofMillis(200));
+		UUID u1 = UUID.randomUUID();
+		when(dsbService.getTimeTables()).thenReturn(List.of(tt(u1, "heute", "slow"), tt(u1, "heute", "fast")));
+		when(parser.fetchPage(eq("slow"), any(), any())).thenAnswer(invocation -> {
+			Thread.sleep(10_000);
+			return page("slow", "html");
+		});
+		when(parser.fetchPage(eq("fast"), any(), any())).thenReturn(page("fast", "html"));
+		parseEntryPerUrl();
+
+		service.updateSubstitutionPlans();
+
+		List<SubstitutionEntry> entries = service.getSubstitutionPlans().get(0).getEntries();
+		assertEquals(1, entries.size());
+		assertEquals("fast", entries.get(0).getComment());
+	}
+
+	@Test
+	public void updateRespectsParallelismCap() {
+		refreshProperties.setMaxParallelFetches(1);
+		UUID u1 = UUID.randomUUID();
+		when(dsbService.getTimeTables())
+				.thenReturn(List.of(tt(u1, "heute", "a"), tt(u1, "heute", "b"), tt(u1, "heute", "c")));
+		AtomicInteger running = new AtomicInteger();
+		AtomicInteger maxRunning = new AtomicInteger();
+		when(parser.fetchPage(anyString(), any(), any())).thenAnswer(invocation -> {
+			maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+			Thread.sleep(20);
+			running.decrementAndGet();
+			return page(invocation.getArgument(0), "html");
+		});
+		parseEntryPerUrl();
+
+		service.updateSubstitutionPlans();
+
+		assertEquals(1, maxRunning.get());
+		assertEquals(3, service.getSubstitutionPlans().get(0).getEntries().size());
+	}
+
+	@Test
+	public void updateSkipsParsingAndStorageForUnchangedPages() {
+		UUID u1 = UUID.randomUUID();
+		when(dsbService.getTimeTables()).thenReturn(List.of(tt(u1, "heute", "u")));
+		stubPage("u", planWithEntry("d1", "c1"));
+
+		service.updateSubstitutionPlans();
+		SubstitutionPlanSnapshot first = service.getSnapshot();
+		service.updateSubstitutionPlans();
+
+		verify(parser, times(2)).fetchPage(eq("u"), any(), any());
+		verify(parser, times(1)).parsePlanDocument(any());
+		verify(persistence, times(1)).store(any(), any(), any());
+		verify(cacheService, times(1)).storeJson(eq(ApiResponseCacheKeys.SUBSTITUTION_PLANS), any());
+		verify(eventPublisher, times(1)).publishEvent(new SubstitutionPlansUpdatedEvent(first));
+		assertSame(first, service.getSnapshot());
+	}
+
+	@Test
+	public void updateReparsesChangedPages() {
+		UUID u1 = UUID.randomUUID();
+		when(dsbService.getTimeTables()).thenReturn(List.of(tt(u1, "heute", "u")));
+		when(parser.fetchPage(eq("u"), any(), any())).thenReturn(page("u", "v1"), page("u", "v2"));
+		when(parser.parsePlanDocument(any())).thenReturn(parsed(planWithEntry("d1", "old")),
+				parsed(planWithEntry("d1", "new")));
+
+		service.updateSubstitutionPlans();
+		service.updateSubstitutionPlans();
+
+		verify(parser, times(2)).parsePlanDocument(any());
+		verify(persistence, times(2)).store(any(), any(), any());
+		verify(cacheService, times(2)).storeJson(eq(ApiResponseCacheKeys.SUBSTITUTION_PLANS), any());
+		verify(eventPublisher, times(2)).publishEvent(any(SubstitutionPlansUpdatedEvent.class));
+		assertEquals("new", service.getSubstitutionPlans().get(0).getEntries().get(0).getComment());
+	}
+
+	@Test
+	public void updateRebuildsPlansWhenPageDisappears() {
+		UUID u1 = UUID.randomUUID();
+		when(dsbService.getTimeTables()).thenReturn(List.of(tt(u1, "heute", "a"), tt(u1, "heute", "b")),
+				List.of(tt(u1, "heute", "a")));
+		when(parser.fetchPage(anyString(), any(), any()))
+				.thenAnswer(invocation -> page(invocation.getArgument(0), "html"));
+		parseEntryPerUrl();
+
+		service.updateSubstitutionPlans();
+		service.updateSubstitutionPlans();
+
+		assertEquals(1, service.getSubstitutionPlans().get(0).getEntries().size());
+		verify(cacheService, times(2)).storeJson(eq(ApiResponseCacheKeys.SUBSTITUTION_PLANS), any());
+	}
+
+	@Test
+	public void updateDoesNotMutateCachedPagePlans() {
+		UUID u1 = UUID.randomUUID();
+		SubstitutionPlan firstPage = planWithEntry("d1", "a");
+		firstPage.getNews().addNewsItem("n1");
+		SubstitutionPlan secondPage = planWithEntry("d1", "b");
+		secondPage.getNews().addNewsItem("n2");
+		when(dsbService.getTimeTables()).thenReturn(List.of(tt(u1, "heute", "a"), tt(u1, "heute", "b")));
+		stubPage("a", firstPage);
+		stubPage("b", secondPage);
+
+		service.updateSubstitutionPlans();
+
+		assertEquals(1, firstPage.getEntries().size());
+		assertEquals(List.of("n1"), firstPage.getNews().getNewsItems());
+		assertEquals(2, service.getSubstitutionPlans().get(0).getEntries().size());
+		assertEquals(List.of("n1", "n2"), service.getSubstitutionPlans().get(0).getNews().getNewsItems());
+	}
+
+	@Test
+	public void updateSendsValidatorsAndReusesParseOnNotModified() {
+		UUID u1 = UUID.randomUUID();
+		when(dsbService.getTimeTables()).thenReturn(List.of(tt(u1, "heute", "u")));
+		when(parser.fetchPage("u", null, null)).thenReturn(new RawPlanPage("u",
+				"html".getBytes(StandardCharsets.UTF_8), "UTF-8", "\"v1\"", "Mon, 01 Jan 2024 08:00:00 GMT"));
+		when(parser.fetchPage("u", "\"v1\"", "Mon, 01 Jan 2024 08:00:00 GMT"))
+				.thenReturn(RawPlanPage.notModified("u"));
+		parseEntryPerUrl();
+
+		service.updateSubstitutionPlans();
+		SubstitutionPlanSnapshot first = service.getSnapshot();
+		service.updateSubstitutionPlans();
+
+		verify(parser).fetchPage("u", "\"v1\"", "Mon, 01 Jan 2024 08:00:00 GMT");
+		verify(parser, times(1)).parsePlanDocument(any());
+		verify(persistence, times(1)).store(any(), any(), any());
+		assertSame(first, service.getSnapshot());
+	}
+
+	@Test
+	public void updateRefetchesUnconditionallyWhenNotModifiedWithoutCachedParse() {
+		UUID u1 = UUID.randomUUID();
+		when(dsbService.getTimeTables()).thenReturn(List.of(tt(u1, "heute", "u")));
+		when(parser.fetchPage("u", null, null)).thenReturn(RawPlanPage.notModified("u"), page("u", "html"));
+		parseEntryPerUrl();
+
+		service.updateSubstitutionPlans();
+
+		verify(parser, times(2)).fetchPage("u", null, null);
+		assertEquals("u", service.getSubstitutionPlans().get(0).getEntries().get(0).getComment());
+	}
+
+	@Test
+	public void mergeNewsAddsOnlyUnseenItemsInOrder() {
+		SubstitutionPlan combined = SubstitutionPlanService.copyPlan(new SubstitutionPlan("d1", "t"), 0);
+		combined.getNews().addNewsItem("a");
+		SubstitutionPlan page = new SubstitutionPlan("d1", "t");
+		page.getNews().addNewsItem("b");
+		page.getNews().addNewsItem("a");
+		page.getNews().addNewsItem("c");
+
+		assertEquals(2, SubstitutionPlanService.mergeNews(combined, page));
+		assertEquals(List.of("a", "b", "c"), combined.getNews().getNewsItems());
+	}
+
+	@Test
+	public void findSubstitutionPlansUsesSnapshotIndex() {
+		UUID u1 = UUID.randomUUID();
+		when(dsbService.getTimeTables()).thenReturn(List.of(tt(u1, "heute", "u")));
+		SubstitutionPlan plan = planWithEntry("d1", "c1");
+		plan.getEntries().get(0).setClasses("7a, 7b");
+		SubstitutionEntry other = new SubstitutionEntry();
+		other.setClasses("8a");
+		plan.addEntry(other);
+		stubPage("u", plan);
+		service.updateSubstitutionPlans();
+
+		List<SubstitutionPlan> result = service.findSubstitutionPlans("7b", null, null);
+
+		assertEquals(1, result.get(0).getEntries().size());
+		assertEquals("c1", result.get(0).getEntries().get(0).getComment());
+	}
+
+	@Test
+	public void findSubstitutionPlansFallsBackToStoredPlans() {
+		when(cacheService.getRawJson(ApiResponseCacheKeys.SUBSTITUTION_PLANS)).thenReturn(java.util.Optional
+				.of("[{\"date\":\"d\",\"entries\":[{\"classes\":\"5a\"},{\"classes\":\"6a\"}]}]"));
+
+		List<SubstitutionPlan> result = service.findSubstitutionPlans("6a", null, null);
+
+		assertEquals(1, result.get(0).getEntries().size());
+		assertEquals("6a", result.get(0).getEntries().get(0).getClasses());
+	}
+
+	private void stubPage(String url, SubstitutionPlan plan) {
+		when(parser.fetchPage(eq(url), any(), any())).thenReturn(page(url, url));
+		when(parser.parsePlanDocument(argThat(page -> page != null && url.equals(page.getUrl()))))
+				.thenReturn(parsed(plan));
+	}
+
+	private void parseEntryPerUrl() {
+		when(parser.parsePlanDocument(any())).thenAnswer(invocation -> {
+			RawPlanPage page = invocation.getArgument(0);
+			return parsed(planWithEntry("d1", page.getUrl()));
+		});
+	}
+
+	private RawPlanPage page(String url, String html) {
+		return new RawPlanPage(url, html.getBytes(StandardCharsets.UTF_8), "UTF-8");
+	}
+
+	private SubstitutionPlan planWithEntry(String date, String comment) {
+		SubstitutionPlan plan = new SubstitutionPlan(date, "t");
+		SubstitutionEntry entry = new SubstitutionEntry();
+		entry.setComment(comment);
+		plan.addEntry(entry);
+		return plan;
 	}
 
 	private ParsedPlanDocument parsed(SubstitutionPlan plan) {
@@ -0,0 +1,64 @@
+package com.schooldashboard.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.schooldashboard.model.SubstitutionPlan;
+import com.schooldashboard.service.SubstitutionPlanSnapshot.Encoding;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+import org.junit.jupiter.api.Test;
+
+public class SubstitutionPlanSnapshotTest {
+
+	private static final byte[] JSON = "[{\"date\":\"d\"}]".getBytes(StandardCharsets.UTF_8);
+
+	@Test
+	public void createPreparesAllEncodings() throws Exception {
+		SubstitutionPlanSnapshot snapshot = SubstitutionPlanSnapshot.create(List.of(new SubstitutionPlan()), JSON);
+
+		assertArrayEquals(JSON, snapshot.body(Encoding.IDENTITY));
+		try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(snapshot.body(Encoding.GZIP)))) {
+			assertArrayEquals(JSON, in.readAllBytes());
+		}
+		try (InflaterInputStream in = new InflaterInputStream(
+				new ByteArrayInputStream(snapshot.body(Encoding.DEFLATE)))) {
+			assertArrayEquals(JSON, in.readAllBytes());
+		}
+		assertEquals(64, snapshot.getContentHash().length());
+	}
+
+	@Test
+	public void eTagDiffersPerEncoding() {
+		SubstitutionPlanSnapshot snapshot = SubstitutionPlanSnapshot.create(List.of(new SubstitutionPlan()), JSON);
+
+		assertEquals(snapshot.getContentHash(), snapshot.eTag(Encoding.IDENTITY));
+		assertEquals(snapshot.getContentHash() + "-gzip", snapshot.eTag(Encoding.GZIP));
+		assertEquals(snapshot.getContentHash() + "-deflate", snapshot.eTag(Encoding.DEFLATE));
+	}
+
+	@Test
+	public void emptySnapshotHasNoETag() {
+		SubstitutionPlanSnapshot snapshot = SubstitutionPlanSnapshot.empty();
+
+		assertTrue(snapshot.isEmpty());
+		assertNull(snapshot.eTag(Encoding.GZIP));
+		assertEquals("[]", snapshot.getJson());
+	}
+
+	@Test
+	public void negotiateHonoursQualityValues() {
+		assertEquals(Encoding.IDENTITY, Encoding.negotiate(null));
+		assertEquals(Encoding.IDENTITY, Encoding.negotiate(""));
+		assertEquals(Encoding.IDENTITY, Encoding.negotiate("br"));
+		assertEquals(Encoding.GZIP, Encoding.negotiate("gzip, deflate, br"));
+		assertEquals(Encoding.GZIP, Encoding.negotiate("deflate, gzip"));
+		assertEquals(Encoding.DEFLATE, Encoding.negotiate("gzip;q=0.5, deflate"));
+		assertEquals(Encoding.DEFLATE, Encoding.negotiate("gzip;q=0, *"));
+		assertEquals(Encoding.GZIP, Encoding.negotiate("*"));
+		assertEquals(Encoding.IDENTITY, Encoding.negotiate("gzip;q=0, deflate;q=0"));
+		assertEquals(Encoding.IDENTITY, Encoding.negotiate("gzip;q=abc"));
+	}
+}
@@ -0,0 +1,73 @@
+package com.schooldashboard.service;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Instant;
+import org.junit.jupiter.api.Test;
+
+public class UpcomingEventScannerTest {
+
+	private static final long NOW = Instant.parse("2025-06-01T12:00:00Z").toEpochMilli();
+
+	@Test
+	public void dropsPastEventsAndKeepsEverythingElse() {
+		String ics = calendar(event("past", "DTSTART:20240101T100000Z", "DTEND:20240101T110000Z"),
+				event("future", "DTSTART:20250701T100000Z", "DTEND:20250701T110000Z"));
+
+		String retained = UpcomingEventScanner.retainUpcoming(ics, NOW);
+
+		assertFalse(retained.contains("UID:past"));
+		assertTrue(retained.contains("UID:future"));
+		assertTrue(retained.contains("BEGIN:VTIMEZONE"));
+		assertTrue(retained.endsWith("END:VCALENDAR\r\n"));
+	}
+
+	@Test
+	public void keepsRecurringEventsThatStartedInThePast() {
+		String ics = calendar(
+				event("weekly", "DTSTART:20200101T100000Z", "DTEND:20200101T110000Z", "RRULE:FREQ=WEEKLY"),
+				event("extra", "DTSTART:20200101T100000Z", "DTEND:20200101T110000Z", "RDATE:20990101T100000Z"));
+
+		String retained = UpcomingEventScanner.retainUpcoming(ics, NOW);
+
+		assertTrue(retained.contains("UID:weekly"));
+		assertTrue(retained.contains("UID:extra"));
+	}
+
+	@Test
+	public void readsFoldedEndAndIgnoresNestedComponents() {
+		String ics = calendar(
+				event("folded", "DTSTART;TZID=Europe/Berlin:20240101T100000", "DTEND;TZID=Europe/Berlin:2024",
+						" 0101T110000"),
+				event("alarm", "DTSTART:20240101T100000Z", "DTEND:20240101T110000Z", "BEGIN:VALARM",
+						"DTSTART:20990101T100000Z", "END:VALARM"));
+
+		String retained = UpcomingEventScanner.retainUpcoming(ics, NOW);
+
+		assertFalse(retained.contains("UID:folded"));
+		assertFalse(retained.contains("UID:alarm"));
+	}
+
+	@Test
+	public void keepsEventsWhoseEndIsNearTheCutoffOrUnknown() {
+		String ics = calendar(event("today", "DTSTART;VALUE=DATE:20250601"),
+				event("duration", "DTSTART:20240101T100000Z", "DURATION:P1000D"),
+				event("odd", "DTSTART:sometime"));
+
+		String retained = UpcomingEventScanner.retainUpcoming(ics, NOW);
+
+		assertTrue(retained.contains("UID:today"));
+		assertTrue(retained.contains("UID:duration"));
+		assertTrue(retained.contains("UID:odd"));
+	}
+
+	private static String calendar(String... events) {
+		return "BEGIN:VCALENDAR\r\nVERSION:2.0\r\nBEGIN:VTIMEZONE\r\nTZID:Europe/Berlin\r\nEND:VTIMEZONE\r\n"
+				+ String.join("", events) + "END:VCALENDAR\r\n";
+	}
+
+	private static String event(String uid, String... properties) {
+		return "BEGIN:VEVENT\r\nUID:" + uid + "\r\n" + String.join("\r\n", properties) + "\r\nEND:VEVENT\r\n";
+	}
+}
@@ -2,15 +2,14 @@ package com.schooldashboard.survey.controller;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
-import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
-import com.schooldashboard.display.service.RequestRateLimiter;
-import com.schooldashboard.survey.config.SurveyRateLimitProperties;
+import com.schooldashboard.config.ApiRateLimitProperties;
+import com.schooldashboard.config.ClientKeyResolver;
 import com.schooldashboard.survey.dto.CreateSurveySubmissionResponse;
 import com.schooldashboard.survey.dto.SurveyDisplayContextResponse;
 import com.schooldashboard.survey.service.SurveyPublicService;
@@ -19,11 +18,13 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
 import org.springframework.boot.webmvc.test.autoconfigure.WebMvcTest;
 import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Import;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 
 @WebMvcTest(SurveyPublicController.class)
 @AutoConfigureMockMvc(addFilters = false)
+@Import({ClientKeyResolver.class, ApiRateLimitProperties.class})
 public class SurveyPublicControllerTest {
 
 	@Autowired
@@ -32,12 +33,6 @@ public class SurveyPublicControllerTest {
 	@MockitoBean
 	private SurveyPublicService surveyPublicService;
 
-	@MockitoBean
-	private RequestRateLimiter requestRateLimiter;
-
-	@MockitoBean
-	private SurveyRateLimitProperties surveyRateLimitProperties;
-
 	@MockitoBean
 	@SuppressWarnings("unused")
 	private CacheManager cacheManager;
@@ -55,8 +50,6 @@ public class SurveyPublicControllerTest {
 
 	@Test
 	public void createSubmissionReturnsCreated() throws Exception {
-		when(surveyRateLimitProperties.getSubmissionsPerMinute()).thenReturn(5);
-		when(requestRateLimiter.tryAcquire(anyString(), anyString(), eq(5), any())).thenReturn(true);
 		when(surveyPublicService.createSubmission(any(), anyString()))
 				.thenReturn(new CreateSurveySubmissionResponse("submission-1", java.time.Instant.parse("2026-03-09T10:15:30Z"),
 						"RECORDED"));
@@ -78,8 +71,6 @@ public class SurveyPublicControllerTest {
 
 	@Test
 	public void createSubmissionRejectsEmptyMessage() throws Exception {
-		when(surveyRateLimitProperties.getSubmissionsPerMinute()).thenReturn(5);
-		when(requestRateLimiter.tryAcquire(anyString(), anyString(), eq(5), any())).thenReturn(true);
 
 		mockMvc.perform(post("/api/surveys/submissions").contentType("application/json")
 				.content("""
@@ -92,21 +83,4 @@ public class SurveyPublicControllerTest {
 				.andExpect(status().isBadRequest()).andExpect(jsonPath("$.code").value("SURVEY_VALIDATION_ERROR"))
 				.andExpect(jsonPath("$.message").value(org.hamcrest.Matchers.containsString("Nachricht ist erforderlich")));
 	}
-
-	@Test
-	public void createSubmissionReturns429WhenRateLimitExceeded() throws Exception {
-		when(surveyRateLimitProperties.getSubmissionsPerMinute()).thenReturn(1);
-		when(requestRateLimiter.tryAcquire(anyString(), anyString(), eq(1), any())).thenReturn(false);
-
-		mockMvc.perform(post("/api/surveys/submissions").contentType("application/json")
-				.content("""
-						{
-						  "displayId": "123e4567-e89b-12d3-a456-426614174000",
-						  "category": "PROBLEM",
-						  "message": "Der QR-Code ist zu klein fuer einige Geraete."
-						}
-						"""))
-				.andExpect(status().isTooManyRequests())
-				.andExpect(jsonPath("$.code").value("SURVEY_RATE_LIMIT_EXCEEDED"));
-	}
 }
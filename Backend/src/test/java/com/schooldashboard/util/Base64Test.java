@@ -2,20 +2,15 @@ package com.schooldashboard.util;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
+import java.util.zip.GZIPInputStream;
 import org.junit.jupiter.api.Test;
 
 public class Base64Test {
 
-	@Test
-	public void compressRoundTrip() throws IOException {
-		String text = "Hello World";
-		String compressed = Base64.encode(Base64.compress(text));
-		String decompressed = Base64.decompress(compressed);
-		assertEquals(text, decompressed);
-	}
-
 	@Test
 	public void encodeDecodeBytes() {
 		byte[] data = {1, 2, 3, 4, 5};
@@ -28,8 +23,9 @@ public class Base64Test {
 	public void encodeStringAndDecode() throws IOException {
 		String text = "small";
 		String encoded = Base64.encode(text);
-		String decoded = Base64.decompress(encoded);
-		assertEquals(text, decoded);
+		try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(Base64.decode(encoded)))) {
+			assertEquals(text, new String(in.readAllBytes(), StandardCharsets.UTF_8));
+		}
 	}
 
 	@Test
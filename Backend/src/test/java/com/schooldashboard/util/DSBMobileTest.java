@@ -286,4 +286,47 @@ public class DSBMobileTest {
 			server.stop(0);
 		}
 	}
+
+	@Test
+	public void pullDataKeepsOnlyPlanAndNewsSubtrees() throws Exception {
+		JsonObject data = createData();
+		JsonObject content = data.getAsJsonArray("ResultMenuItems").get(0).getAsJsonObject();
+		JsonObject notice = new JsonObject();
+		notice.addProperty("Title", "Aushänge");
+		content.getAsJsonArray("Childs").add(notice);
+		JsonObject otherItem = new JsonObject();
+		otherItem.add("Childs", new JsonArray());
+		otherItem.addProperty("Title", "Sonstiges");
+		data.getAsJsonArray("ResultMenuItems").add(otherItem);
+		data.add("Extra", new JsonArray());
+
+		// Serializers may escape the slashes of the base64 alphabet
+		String encoded = Base64.encode(data.toString()).replace("/", "\\/");
+		byte[] payload = ("{\"d\" : \"" + encoded + "\"}").getBytes(StandardCharsets.UTF_8);
+		FakeHttpURLConnection connection = new FakeHttpURLConnection(URI.create("http://localhost/test").toURL(),
+				new ByteArrayInputStream(payload), new ByteArrayOutputStream());
+		DSBMobile mobile = new ConnectionDSBMobile(connection, connection.getURL());
+
+		JsonObject result = mobile.pullData();
+
+		assertEquals(0, result.get("Resultcode").getAsInt());
+		assertFalse(result.has("Extra"));
+		JsonArray menu = result.getAsJsonArray("ResultMenuItems");
+		assertEquals(1, menu.size());
+		JsonArray children = menu.get(0).getAsJsonObject().getAsJsonArray("Childs");
+		assertEquals(2, children.size());
+		assertEquals("Pläne", children.get(0).getAsJsonObject().get("Title").getAsString());
+		assertEquals("News", children.get(1).getAsJsonObject().get("Title").getAsString());
+	}
+
+	@Test
+	public void pullDataRejectsResponseWithoutData() throws Exception {
+		FakeHttpURLConnection connection = new FakeHttpURLConnection(URI.create("http://localhost/test").toURL(),
+				new ByteArrayInputStream("{\"Message\":\"error\"}".getBytes(StandardCharsets.UTF_8)),
+				new ByteArrayOutputStream());
+		DSBMobile mobile = new ConnectionDSBMobile(connection, connection.getURL());
+
+		RuntimeException ex = assertThrows(RuntimeException.class, mobile::pullData);
+		assertEquals("Server response doesn't contain data!", ex.getCause().getMessage());
+	}
 }
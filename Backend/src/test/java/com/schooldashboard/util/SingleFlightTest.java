@@ -0,0 +1,92 @@
+package com.schooldashboard.util;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+public class SingleFlightTest {
+
+	@Test
+	public void concurrentCallersShareOneLoad() throws Exception {
+		SingleFlight<String> flight = new SingleFlight<>();
+		AtomicInteger loads = new AtomicInteger();
+		CountDownLatch release = new CountDownLatch(1);
+
+		try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+			List<Future<String>> results = new ArrayList<>();
+			results.add(executor.submit(() -> flight.execute("key", () -> {
+				loads.incrementAndGet();
+				awaitQuietly(release);
+				return "value";
+			})));
+			waitUntilInFlight(flight, "key");
+			for (int i = 0; i < 8; i++) {
+				results.add(executor.submit(() -> flight.execute("key", () -> {
+					loads.incrementAndGet();
+					return "other";
+				})));
+			}
+			Thread.sleep(50);
+			release.countDown();
+
+			for (Future<String> result : results) {
+				assertEquals("value", result.get(5, TimeUnit.SECONDS));
+			}
+		}
+		assertEquals(1, loads.get());
+		assertFalse(flight.isInFlight("key"));
+	}
+
+	@Test
+	public void failuresReachAllWaitersAndAreNotRemembered() throws Exception {
+		SingleFlight<String> flight = new SingleFlight<>();
+		CountDownLatch release = new CountDownLatch(1);
+
+		try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+			Future<String> leader = executor.submit(() -> flight.execute("key", () -> {
+				awaitQuietly(release);
+				throw new IllegalStateException("offline");
+			}));
+			waitUntilInFlight(flight, "key");
+			Future<String> follower = executor.submit(() -> flight.execute("key", () -> "unused"));
+			Thread.sleep(50);
+			release.countDown();
+
+			for (Future<String> result : List.of(leader, follower)) {
+				Exception ex = assertThrows(Exception.class, () -> result.get(5, TimeUnit.SECONDS));
+				assertInstanceOf(IllegalStateException.class, ex.getCause());
+			}
+		}
+		assertEquals("fresh", flight.execute("key", () -> "fresh"));
+	}
+
+	@Test
+	public void differentKeysLoadIndependently() {
+		SingleFlight<String> flight = new SingleFlight<>();
+		assertEquals("a", flight.execute("a", () -> flight.execute("b", () -> "b").replace("b", "a")));
+	}
+
+	private static void waitUntilInFlight(SingleFlight<String> flight, String key) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + 5000;
+		while (!flight.isInFlight(key) && System.currentTimeMillis() < deadline) {
+			Thread.sleep(5);
+		}
+		assertTrue(flight.isInFlight(key));
+	}
+
+	private static void awaitQuietly(CountDownLatch latch) {
+		try {
+			latch.await(5, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -1,10 +1,16 @@
 import { useEffect, useState } from "react";
 import useAutoScroll from "#/hooks/useAutoScroll";
+import useSubstitutionPlanStream from "#/hooks/useSubstitutionPlanStream";
+import { sendDisplayHeartbeat } from "#/lib/api/displays";
+
+// Well within the backend default of 180 seconds before a display is stale
+const HEARTBEAT_INTERVAL_MS = 60000;
 
 export function useDisplayRuntime() {
   const [currentTime, setCurrentTime] = useState<Date | null>(null);
 
   useAutoScroll(5, 80);
+  useSubstitutionPlanStream();
 
   useEffect(() => {
     const clockTimer = setInterval(() => {
@@ -15,9 +21,23 @@ export function useDisplayRuntime() {
       window.location.reload();
     }, 300000);
 
+    // Time from navigation until the display first rendered
+    const renderTimeMs = Math.round(performance.now());
+    const sendHeartbeat = () => {
+      sendDisplayHeartbeat({
+        uptimeSeconds: Math.floor(performance.now() / 1000),
+        renderTimeMs,
+      }).catch((error) => {
+        console.warn("[display-runtime] heartbeat failed", error);
+      });
+    };
+    sendHeartbeat();
+    const heartbeatTimer = setInterval(sendHeartbeat, HEARTBEAT_INTERVAL_MS);
+
     return () => {
       clearInterval(clockTimer);
       clearInterval(refreshTimer);
+      clearInterval(heartbeatTimer);
     };
   }, []);
 
@@ -0,0 +1,61 @@
+import { useQueryClient } from "@tanstack/react-query";
+import { useEffect } from "react";
+import {
+  sanitizeSubstitutionPlans,
+  setSubstitutionStreamConnected,
+  substitutionPlansQueryOptions,
+  type SubstitutionPlan,
+} from "#/lib/api/dashboard";
+import { toFrontendApiPath } from "#/lib/config/backend";
+
+// Keeps the substitution plans query up to date from the backend event stream
+const useSubstitutionPlanStream = () => {
+  const queryClient = useQueryClient();
+
+  useEffect(() => {
+    if (typeof EventSource === "undefined") {
+      return;
+    }
+
+    let connected = false;
+    const source = new EventSource(toFrontendApiPath("/substitution/stream"));
+
+    source.onopen = () => {
+      connected = true;
+      setSubstitutionStreamConnected(true);
+    };
+
+    source.addEventListener("plans", (event) => {
+      try {
+        const plans = JSON.parse(
+          (event as MessageEvent<string>).data,
+        ) as SubstitutionPlan[];
+        queryClient.setQueryData(
+          substitutionPlansQueryOptions.queryKey,
+          sanitizeSubstitutionPlans(plans),
+        );
+      } catch (error) {
+        console.warn("[substitution-stream] ignoring malformed event", error);
+      }
+    });
+
+    source.onerror = () => {
+      // EventSource reconnects on its own and sends Last-Event-ID; until then
+      // a refetch restarts the polling fallback
+      if (connected) {
+        connected = false;
+        setSubstitutionStreamConnected(false);
+        void queryClient.invalidateQueries({
+          queryKey: substitutionPlansQueryOptions.queryKey,
+        });
+      }
+    };
+
+    return () => {
+      source.close();
+      setSubstitutionStreamConnected(false);
+    };
+  }, [queryClient]);
+};
+
+export default useSubstitutionPlanStream;
@@ -63,13 +63,23 @@ export function sanitizeSubstitutionPlans(plans: SubstitutionPlan[]) {
   }));
 }
 
+const SUBSTITUTION_POLL_INTERVAL_MS = 5 * 60 * 1000;
+
+let substitutionStreamConnected = false;
+
+export function setSubstitutionStreamConnected(connected: boolean) {
+  substitutionStreamConnected = connected;
+}
+
 export const substitutionPlansQueryOptions = queryOptions({
   queryKey: ["substitution-plans"],
   queryFn: async () =>
     sanitizeSubstitutionPlans(
       (await fetchJson<SubstitutionPlan[]>("/substitution/plans")) ?? [],
     ),
-  refetchInterval: 5 * 60 * 1000,
+  // Updates are pushed over /substitution/stream; poll only while it is down
+  refetchInterval: () =>
+    substitutionStreamConnected ? false : SUBSTITUTION_POLL_INTERVAL_MS,
 });
 
 const DEFAULT_CALENDAR_EVENTS_LIMIT = 5;
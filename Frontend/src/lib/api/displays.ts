@@ -39,6 +39,12 @@ export interface DisplaySessionValidationResponse {
   redirectPath: string | null;
 }
 
+export interface DisplayHeartbeatRequest {
+  appVersion?: string;
+  uptimeSeconds?: number;
+  renderTimeMs?: number;
+}
+
 export interface PendingEnrollmentResponse {
   requestId: string;
   enrollmentCodeId: string;
@@ -256,6 +262,20 @@ export async function validateDisplaySession(): Promise<DisplaySessionValidation
   return response;
 }
 
+export async function sendDisplayHeartbeat(
+  heartbeat: DisplayHeartbeatRequest,
+): Promise<void> {
+  await fetchJson<void>("/displays/heartbeat", {
+    method: "POST",
+    credentials: "include",
+    cache: "no-store",
+    headers: {
+      "Content-Type": "application/json",
+    },
+    body: JSON.stringify(heartbeat),
+  });
+}
+
 export async function createEnrollmentCode(payload: {
   ttlSeconds?: number;
   maxUses?: number;
@@ -5,6 +5,7 @@ import {
   createEnrollment,
   createEnrollmentCode,
   listAdminAuditLogs,
+  sendDisplayHeartbeat,
   updateAdminCredentials,
   validateDisplaySession,
 } from "./displays";
@@ -41,6 +42,23 @@ describe("display api client", () => {
     );
   });
 
+  it("posts heartbeats with the display session cookie", async () => {
+    const fetchSpy = vi
+      .spyOn(globalThis, "fetch")
+      .mockResolvedValue(new Response(null, { status: 204 }));
+
+    await sendDisplayHeartbeat({ uptimeSeconds: 60, renderTimeMs: 850 });
+
+    expect(fetchSpy).toHaveBeenCalledWith(
+      "/api/displays/heartbeat",
+      expect.objectContaining({
+        method: "POST",
+        credentials: "include",
+        body: JSON.stringify({ uptimeSeconds: 60, renderTimeMs: 850 }),
+      }),
+    );
+  });
+
   it("creates enrollment code with csrf protection", async () => {
     const fetchSpy = vi
       .spyOn(globalThis, "fetch")
@@ -3,6 +3,7 @@ import { isAbortError, UPSTREAM_TIMEOUT_MS } from "./api-proxy-utils";
 
 const FORWARDED_HEADERS = [
   "accept",
+  "accept-encoding",
   "accept-language",
   "authorization",
   "cookie",
@@ -10,14 +11,21 @@ const FORWARDED_HEADERS = [
   "x-csrf-token",
   "x-xsrf-token",
   "x-request-id",
+  "last-event-id",
+  "if-none-match",
 ];
 const STRIPPED_RESPONSE_HEADERS = [
   "connection",
-  "content-encoding",
   "content-length",
   "keep-alive",
   "transfer-encoding",
 ];
+// Encodings the proxy can restore after fetch() has decoded the body
+const REENCODABLE_CONTENT_ENCODINGS: Record<string, CompressionFormat> = {
+  gzip: "gzip",
+  deflate: "deflate",
+};
+const NULL_BODY_STATUSES = [204, 304];
 
 export async function proxyGetRequest(
   method: "GET" | "POST" | "PATCH" | "DELETE",
@@ -52,14 +60,72 @@ export async function proxyGetRequest(
 
     const responseHeaders = sanitizeProxyResponseHeaders(upstreamResponse);
     if (method === "GET") {
+      // With an ETag the browser may keep the body, but must revalidate it
       responseHeaders.set(
         "Cache-Control",
-        "no-store, no-cache, must-revalidate, proxy-revalidate, max-age=0",
+        responseHeaders.has("etag")
+          ? "no-cache"
+          : "no-store, no-cache, must-revalidate, proxy-revalidate, max-age=0",
       );
       responseHeaders.set("Pragma", "no-cache");
       responseHeaders.set("Expires", "0");
     }
 
+    return new Response(encodedBody(upstreamResponse, responseHeaders), {
+      status: upstreamResponse.status,
+      statusText: upstreamResponse.statusText,
+      headers: responseHeaders,
+      // Cloudflare Workers would otherwise compress the body a second time
+      encodeBody: "manual",
+    } as ResponseInit);
+  } catch (error) {
+    if (isAbortError(error)) {
+      console.warn(`[api-proxy] ${resourceName} upstream timed out`, error);
+      return Response.json(
+        { message: "Backend timeout" },
+        { status: 504, statusText: "Gateway Timeout" },
+      );
+    }
+
+    console.warn(`[api-proxy] ${resourceName} upstream unavailable`, error);
+    return Response.json(
+      { message: "Backend unavailable" },
+      { status: 503, statusText: "Service Unavailable" },
+    );
+  } finally {
+    clearTimeout(timeoutId);
+  }
+}
+
+/**
+ * Proxies a server-sent event stream. The upstream timeout only covers the
+ * connection; afterwards the stream stays open until either side closes it.
+ */
+export async function proxyEventStream(
+  upstreamPath: string,
+  request: Request,
+  resourceName: string,
+): Promise<Response> {
+  const controller = new AbortController();
+  const timeoutId = setTimeout(() => controller.abort(), UPSTREAM_TIMEOUT_MS);
+  request.signal.addEventListener("abort", () => controller.abort());
+
+  try {
+    const upstreamResponse = await fetch(
+      toBackendApiUrl(upstreamPath, request.url),
+      {
+        method: "GET",
+        signal: controller.signal,
+        headers: copyForwardedHeaders(request),
+        cache: "no-store",
+      },
+    );
+
+    const responseHeaders = sanitizeProxyResponseHeaders(upstreamResponse);
+    responseHeaders.delete("content-encoding");
+    responseHeaders.set("Cache-Control", "no-cache, no-transform");
+    responseHeaders.set("X-Accel-Buffering", "no");
+
     return new Response(upstreamResponse.body, {
       status: upstreamResponse.status,
       statusText: upstreamResponse.statusText,
@@ -116,6 +182,14 @@ export function createProxyDeleteHandler(
     proxyGetRequest("DELETE", upstreamPath, request, resourceName);
 }
 
+export function createProxyStreamHandler(
+  upstreamPath: string,
+  resourceName: string,
+) {
+  return async ({ request }: { request: Request }) =>
+    proxyEventStream(upstreamPath, request, resourceName);
+}
+
 function copyForwardedHeaders(request: Request): Headers {
   const headers = new Headers();
   for (const header of FORWARDED_HEADERS) {
@@ -124,9 +198,29 @@ function copyForwardedHeaders(request: Request): Headers {
       headers.set(header, value);
     }
   }
+
+  // The backend keys its rate limits by the address that reached this proxy
+  const forwardedFor = request.headers.get("x-forwarded-for");
+  const clientAddress = resolveClientAddress(request);
+  const chain = [forwardedFor, clientAddress].filter(Boolean).join(", ");
+  if (chain) {
+    headers.set("x-forwarded-for", chain);
+  }
   return headers;
 }
 
+/**
+ * The peer address of the incoming request: srvx exposes it as `request.ip`
+ * on Node, Cloudflare Workers pass it in `cf-connecting-ip`.
+ */
+function resolveClientAddress(request: Request): string | null {
+  const ip = (request as Request & { ip?: string }).ip;
+  if (ip) {
+    return ip;
+  }
+  return request.headers.get("cf-connecting-ip");
+}
+
 function sanitizeProxyResponseHeaders(upstreamResponse: Response) {
   const headers = new Headers(upstreamResponse.headers);
   for (const header of STRIPPED_RESPONSE_HEADERS) {
@@ -134,3 +228,32 @@ function sanitizeProxyResponseHeaders(upstreamResponse: Response) {
   }
   return headers;
 }
+
+/**
+ * fetch() hands over the body already decoded, so the upstream
+ * Content-Encoding is applied again to keep header and body in agreement.
+ * Encodings that cannot be restored are dropped.
+ */
+function encodedBody(
+  upstreamResponse: Response,
+  headers: Headers,
+): ReadableStream<Uint8Array> | null {
+  if (
+    NULL_BODY_STATUSES.includes(upstreamResponse.status) ||
+    !upstreamResponse.body
+  ) {
+    return null;
+  }
+
+  const contentEncoding = headers.get("content-encoding")?.trim().toLowerCase();
+  if (!contentEncoding) {
+    return upstreamResponse.body;
+  }
+
+  const format = REENCODABLE_CONTENT_ENCODINGS[contentEncoding];
+  if (!format) {
+    headers.delete("content-encoding");
+    return upstreamResponse.body;
+  }
+  return upstreamResponse.body.pipeThrough(new CompressionStream(format));
+}
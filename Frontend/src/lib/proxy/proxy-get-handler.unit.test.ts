@@ -1,7 +1,9 @@
 import { afterEach, describe, expect, it, vi } from "vitest";
 import {
+  createProxyGetHandler,
   createProxyPatchHandler,
   createProxyPostHandler,
+  createProxyStreamHandler,
 } from "./proxy-get-handler";
 
 afterEach(() => {
@@ -77,4 +79,119 @@ describe("proxy request handlers", () => {
       new Response((init as RequestInit | undefined)?.body).text(),
     ).resolves.toContain("INACTIVE");
   });
+
+  it("streams events and forwards Last-Event-ID", async () => {
+    const fetchSpy = vi.spyOn(globalThis, "fetch").mockResolvedValue(
+      new Response("id:abc\nevent:plans\ndata:[]\n\n", {
+        status: 200,
+        headers: { "Content-Type": "text/event-stream" },
+      }),
+    );
+
+    const handler = createProxyStreamHandler(
+      "/substitution/stream",
+      "substitution",
+    );
+
+    const response = await handler({
+      request: new Request("https://dashboard.local/api/substitution/stream", {
+        headers: { "Last-Event-ID": "abc" },
+      }),
+    });
+
+    const [, init] = fetchSpy.mock.calls[0] ?? [];
+    const headers = new Headers((init as RequestInit | undefined)?.headers);
+    expect(headers.get("last-event-id")).toBe("abc");
+    expect(response.headers.get("content-type")).toBe("text/event-stream");
+    expect(response.headers.get("x-accel-buffering")).toBe("no");
+    await expect(response.text()).resolves.toContain("event:plans");
+  });
+
+  it("forwards conditional and encoding headers and passes 304 through", async () => {
+    const fetchSpy = vi.spyOn(globalThis, "fetch").mockResolvedValue(
+      new Response(null, { status: 304, headers: { ETag: '"abc"' } }),
+    );
+
+    const handler = createProxyGetHandler(
+      "/substitution/plans",
+      "substitution",
+    );
+
+    const response = await handler({
+      request: new Request("https://dashboard.local/api/substitution/plans", {
+        headers: { "If-None-Match": '"abc"', "Accept-Encoding": "gzip" },
+      }),
+    });
+
+    const [, init] = fetchSpy.mock.calls[0] ?? [];
+    const headers = new Headers((init as RequestInit | undefined)?.headers);
+    expect(headers.get("if-none-match")).toBe('"abc"');
+    expect(headers.get("accept-encoding")).toBe("gzip");
+    expect(response.status).toBe(304);
+    expect(response.body).toBeNull();
+    expect(response.headers.get("etag")).toBe('"abc"');
+    expect(response.headers.get("cache-control")).toBe("no-cache");
+  });
+
+  it("keeps Content-Encoding and encodes the body to match", async () => {
+    vi.spyOn(globalThis, "fetch").mockResolvedValue(
+      new Response("[]", {
+        status: 200,
+        headers: {
+          "Content-Type": "application/json",
+          "Content-Encoding": "gzip",
+          ETag: '"abc"',
+        },
+      }),
+    );
+
+    const handler = createProxyGetHandler(
+      "/substitution/plans",
+      "substitution",
+    );
+
+    const response = await handler({
+      request: new Request("https://dashboard.local/api/substitution/plans", {
+        headers: { "Accept-Encoding": "gzip" },
+      }),
+    });
+
+    expect(response.headers.get("content-encoding")).toBe("gzip");
+    expect(response.headers.get("etag")).toBe('"abc"');
+    const decoded = new Blob([await response.arrayBuffer()])
+      .stream()
+      .pipeThrough(new DecompressionStream("gzip"));
+    await expect(new Response(decoded).text()).resolves.toBe("[]");
+  });
+
+  it("appends the client address to X-Forwarded-For", async () => {
+    const fetchSpy = vi
+      .spyOn(globalThis, "fetch")
+      .mockImplementation(async () => new Response(null, { status: 204 }));
+
+    const handler = createProxyPostHandler(
+      "/surveys/submissions",
+      "survey-submission",
+    );
+
+    const request = new Request(
+      "https://dashboard.local/api/surveys/submissions",
+      { method: "POST", headers: { "X-Forwarded-For": "198.51.100.7" } },
+    );
+    Object.defineProperty(request, "ip", { value: "203.0.113.5" });
+    await handler({ request });
+    await handler({
+      request: new Request("https://dashboard.local/api/surveys/submissions", {
+        method: "POST",
+        headers: { "CF-Connecting-IP": "203.0.113.9" },
+      }),
+    });
+
+    const forwardedFor = fetchSpy.mock.calls.map(([, init]) =>
+      new Headers((init as RequestInit | undefined)?.headers).get(
+        "x-forwarded-for",
+      ),
+    );
+    expect(forwardedFor).toEqual(["198.51.100.7, 203.0.113.5", "203.0.113.9"]);
+  });
 });
@@ -23,8 +23,10 @@ import { Route as AdminDisplaysRouteRouteImport } from './routes/admin/displays/
 import { Route as AdminSurveysIndexRouteImport } from './routes/admin/surveys/index'
 import { Route as AdminDisplaysIndexRouteImport } from './routes/admin/displays/index'
 import { Route as ApiSurveysSubmissionsRouteImport } from './routes/api/surveys/submissions'
+import { Route as ApiSubstitutionStreamRouteImport } from './routes/api/substitution/stream'
 import { Route as ApiSubstitutionPlansRouteImport } from './routes/api/substitution/plans'
 import { Route as ApiDisplaysSessionRouteImport } from './routes/api/displays/session'
+import { Route as ApiDisplaysHeartbeatRouteImport } from './routes/api/displays/heartbeat'
 import { Route as ApiCalendarEventsRouteImport } from './routes/api/calendar/events'
 import { Route as ApiAdminSurveysRouteImport } from './routes/api/admin/surveys'
 import { Route as AdminDisplaysPendingRouteImport } from './routes/admin/displays/pending'
@@ -118,6 +120,11 @@ const ApiSurveysSubmissionsRoute = ApiSurveysSubmissionsRouteImport.update({
   path: '/api/surveys/submissions',
   getParentRoute: () => rootRouteImport,
 } as any)
+const ApiSubstitutionStreamRoute = ApiSubstitutionStreamRouteImport.update({
+  id: '/api/substitution/stream',
+  path: '/api/substitution/stream',
+  getParentRoute: () => rootRouteImport,
+} as any)
 const ApiSubstitutionPlansRoute = ApiSubstitutionPlansRouteImport.update({
   id: '/api/substitution/plans',
   path: '/api/substitution/plans',
@@ -128,6 +135,11 @@ const ApiDisplaysSessionRoute = ApiDisplaysSessionRouteImport.update({
   path: '/api/displays/session',
   getParentRoute: () => rootRouteImport,
 } as any)
+const ApiDisplaysHeartbeatRoute = ApiDisplaysHeartbeatRouteImport.update({
+  id: '/api/displays/heartbeat',
+  path: '/api/displays/heartbeat',
+  getParentRoute: () => rootRouteImport,
+} as any)
 const ApiCalendarEventsRoute = ApiCalendarEventsRouteImport.update({
   id: '/api/calendar/events',
   path: '/api/calendar/events',
@@ -267,8 +279,10 @@ export interface FileRoutesByFullPath {
   '/admin/displays/pending': typeof AdminDisplaysPendingRoute
   '/api/admin/surveys': typeof ApiAdminSurveysRoute
   '/api/calendar/events': typeof ApiCalendarEventsRoute
+  '/api/displays/heartbeat': typeof ApiDisplaysHeartbeatRoute
   '/api/displays/session': typeof ApiDisplaysSessionRoute
   '/api/substitution/plans': typeof ApiSubstitutionPlansRoute
+  '/api/substitution/stream': typeof ApiSubstitutionStreamRoute
   '/api/surveys/submissions': typeof ApiSurveysSubmissionsRoute
   '/admin/displays/': typeof AdminDisplaysIndexRoute
   '/admin/surveys/': typeof AdminSurveysIndexRoute
@@ -304,8 +318,10 @@ export interface FileRoutesByTo {
   '/admin/displays/pending': typeof AdminDisplaysPendingRoute
   '/api/admin/surveys': typeof ApiAdminSurveysRoute
   '/api/calendar/events': typeof ApiCalendarEventsRoute
+  '/api/displays/heartbeat': typeof ApiDisplaysHeartbeatRoute
   '/api/displays/session': typeof ApiDisplaysSessionRoute
   '/api/substitution/plans': typeof ApiSubstitutionPlansRoute
+  '/api/substitution/stream': typeof ApiSubstitutionStreamRoute
   '/api/surveys/submissions': typeof ApiSurveysSubmissionsRoute
   '/admin/displays': typeof AdminDisplaysIndexRoute
   '/admin/surveys': typeof AdminSurveysIndexRoute
@@ -345,8 +361,10 @@ export interface FileRoutesById {
   '/admin/displays/pending': typeof AdminDisplaysPendingRoute
   '/api/admin/surveys': typeof ApiAdminSurveysRoute
   '/api/calendar/events': typeof ApiCalendarEventsRoute
+  '/api/displays/heartbeat': typeof ApiDisplaysHeartbeatRoute
   '/api/displays/session': typeof ApiDisplaysSessionRoute
   '/api/substitution/plans': typeof ApiSubstitutionPlansRoute
+  '/api/substitution/stream': typeof ApiSubstitutionStreamRoute
   '/api/surveys/submissions': typeof ApiSurveysSubmissionsRoute
   '/admin/displays/': typeof AdminDisplaysIndexRoute
   '/admin/surveys/': typeof AdminSurveysIndexRoute
@@ -387,8 +405,10 @@ export interface FileRouteTypes {
     | '/admin/displays/pending'
     | '/api/admin/surveys'
     | '/api/calendar/events'
+    | '/api/displays/heartbeat'
     | '/api/displays/session'
     | '/api/substitution/plans'
+    | '/api/substitution/stream'
     | '/api/surveys/submissions'
     | '/admin/displays/'
     | '/admin/surveys/'
@@ -424,8 +444,10 @@ export interface FileRouteTypes {
     | '/admin/displays/pending'
     | '/api/admin/surveys'
     | '/api/calendar/events'
+    | '/api/displays/heartbeat'
     | '/api/displays/session'
     | '/api/substitution/plans'
+    | '/api/substitution/stream'
     | '/api/surveys/submissions'
     | '/admin/displays'
     | '/admin/surveys'
@@ -464,8 +486,10 @@ export interface FileRouteTypes {
     | '/admin/displays/pending'
     | '/api/admin/surveys'
     | '/api/calendar/events'
+    | '/api/displays/heartbeat'
     | '/api/displays/session'
     | '/api/substitution/plans'
+    | '/api/substitution/stream'
     | '/api/surveys/submissions'
     | '/admin/displays/'
     | '/admin/surveys/'
@@ -498,8 +522,10 @@ export interface RootRouteChildren {
   ApiAdminDisplaysRouteRoute: typeof ApiAdminDisplaysRouteRouteWithChildren
   ApiAdminSurveysRoute: typeof ApiAdminSurveysRoute
   ApiCalendarEventsRoute: typeof ApiCalendarEventsRoute
+  ApiDisplaysHeartbeatRoute: typeof ApiDisplaysHeartbeatRoute
   ApiDisplaysSessionRoute: typeof ApiDisplaysSessionRoute
   ApiSubstitutionPlansRoute: typeof ApiSubstitutionPlansRoute
+  ApiSubstitutionStreamRoute: typeof ApiSubstitutionStreamRoute
   ApiSurveysSubmissionsRoute: typeof ApiSurveysSubmissionsRoute
   ApiAdminAuthCredentialsRoute: typeof ApiAdminAuthCredentialsRoute
   ApiAdminAuthCsrfRoute: typeof ApiAdminAuthCsrfRoute
@@ -613,6 +639,13 @@ declare module '@tanstack/react-router' {
       preLoaderRoute: typeof ApiSurveysSubmissionsRouteImport
       parentRoute: typeof rootRouteImport
     }
+    '/api/substitution/stream': {
+      id: '/api/substitution/stream'
+      path: '/api/substitution/stream'
+      fullPath: '/api/substitution/stream'
+      preLoaderRoute: typeof ApiSubstitutionStreamRouteImport
+      parentRoute: typeof rootRouteImport
+    }
     '/api/substitution/plans': {
       id: '/api/substitution/plans'
       path: '/api/substitution/plans'
@@ -627,6 +660,13 @@ declare module '@tanstack/react-router' {
       preLoaderRoute: typeof ApiDisplaysSessionRouteImport
       parentRoute: typeof rootRouteImport
     }
+    '/api/displays/heartbeat': {
+      id: '/api/displays/heartbeat'
+      path: '/api/displays/heartbeat'
+      fullPath: '/api/displays/heartbeat'
+      preLoaderRoute: typeof ApiDisplaysHeartbeatRouteImport
+      parentRoute: typeof rootRouteImport
+    }
     '/api/calendar/events': {
       id: '/api/calendar/events'
       path: '/api/calendar/events'
@@ -895,8 +935,10 @@ const rootRouteChildren: RootRouteChildren = {
   ApiAdminDisplaysRouteRoute: ApiAdminDisplaysRouteRouteWithChildren,
   ApiAdminSurveysRoute: ApiAdminSurveysRoute,
   ApiCalendarEventsRoute: ApiCalendarEventsRoute,
+  ApiDisplaysHeartbeatRoute: ApiDisplaysHeartbeatRoute,
   ApiDisplaysSessionRoute: ApiDisplaysSessionRoute,
   ApiSubstitutionPlansRoute: ApiSubstitutionPlansRoute,
+  ApiSubstitutionStreamRoute: ApiSubstitutionStreamRoute,
   ApiSurveysSubmissionsRoute: ApiSurveysSubmissionsRoute,
   ApiAdminAuthCredentialsRoute: ApiAdminAuthCredentialsRoute,
   ApiAdminAuthCsrfRoute: ApiAdminAuthCsrfRoute,
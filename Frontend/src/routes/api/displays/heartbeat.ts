@@ -0,0 +1,10 @@
+import { createFileRoute } from "@tanstack/react-router";
+import { createProxyPostHandler } from "#/lib/proxy/proxy-get-handler";
+
+export const Route = createFileRoute("/api/displays/heartbeat")({
+  server: {
+    handlers: {
+      POST: createProxyPostHandler("/displays/heartbeat", "display-heartbeat"),
+    },
+  },
+});
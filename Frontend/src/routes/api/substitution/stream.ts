@@ -0,0 +1,10 @@
+import { createFileRoute } from "@tanstack/react-router";
+import { createProxyStreamHandler } from "#/lib/proxy/proxy-get-handler";
+
+export const Route = createFileRoute("/api/substitution/stream")({
+  server: {
+    handlers: {
+      GET: createProxyStreamHandler("/substitution/stream", "substitution"),
+    },
+  },
+});